@@ -22,6 +22,7 @@ import qa.qcri.nadeef.core.datamodel.CleanPlan;
 import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
 import qa.qcri.nadeef.core.datamodel.Rule;
 import qa.qcri.nadeef.core.pipeline.CleanExecutor;
+import qa.qcri.nadeef.core.pipeline.SharedScanExecutor;
 import qa.qcri.nadeef.core.pipeline.UpdateExecutor;
 import qa.qcri.nadeef.core.utils.Bootstrap;
 import qa.qcri.nadeef.core.utils.CSVTools;
@@ -88,6 +89,22 @@ public class Console {
             executor.detect();
         }
     }
+
+    /**
+     * Detect thread of all the rules.
+     */
+    private static class SharedDetectRunnable implements Runnable {
+        private SharedScanExecutor executor;
+
+        public SharedDetectRunnable(SharedScanExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            executor.detect();
+        }
+    }
     //</editor-fold>
 
     //<editor-fold desc="Repair Thread class">
@@ -344,6 +361,12 @@ public class Console {
             lastExecutorIndex = 0;
         }
 
+        if (index == -1 && executors.size() > 1) {
+            // all the rules are detected with one scan of each table.
+            detectAll();
+            return;
+        }
+
         for (int i = 0; i < executors.size(); i++) {
             if (index != -1 && i != index) {
                 continue;
@@ -369,6 +392,36 @@ public class Console {
         }
     }
 
+    private static void detectAll() throws IOException, InterruptedException {
+        SharedScanExecutor executor;
+        try {
+            executor = new SharedScanExecutor(cleanPlans, NadeefConfiguration.getDbConfig());
+        } catch (Exception ex) {
+            tracer.error("Creating the detection of all the rules failed.", ex);
+            return;
+        }
+
+        try {
+            Thread thread = new Thread(new SharedDetectRunnable(executor));
+            thread.start();
+
+            do {
+                Thread.sleep(1000);
+                double percentage = executor.getDetectProgress();
+                printProgress(percentage, "DETECT");
+            } while (thread.isAlive());
+
+            // print out the final result.
+            double percentage = executor.getDetectProgress();
+            printProgress(percentage, "DETECT");
+            console.println();
+            console.flush();
+            tracer.info(PerfReport.generateDetectSummary(cleanPlans.size() + " rules"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static void repair(String cmd) throws IOException, InterruptedException {
         String[] tokens = cmd.split("\\s");
         if (tokens.length > 2) {
@@ -0,0 +1,129 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import java.nio.charset.Charset;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+/**
+ * {@link ColumnVector} which decodes BOOL values once into a bitmap.
+ */
+class BooleanColumnVector extends ColumnVector {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private BitSet data;
+    private BitSet nulls;
+
+    BooleanColumnVector() {
+        super(DataType.BOOL);
+        data = new BitSet();
+        nulls = new BitSet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(byte[] value) {
+        if (value == null) {
+            nulls.set(size);
+        } else if (Boolean.parseBoolean(new String(value, UTF8))) {
+            data.set(size);
+        }
+        size ++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(ResultSet resultSet, int index) throws SQLException {
+        boolean value = resultSet.getBoolean(index);
+        if (resultSet.wasNull()) {
+            nulls.set(size);
+        } else if (value) {
+            data.set(size);
+        }
+        size ++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object get(int row) {
+        return nulls.get(row) ? null : data.get(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void trim() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getHeapSize() {
+        return (data.size() + nulls.size()) / 8;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash(int row) {
+        return nulls.get(row) ? Long.MIN_VALUE : data.get(row) ? 1L : 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long[] sortKeys(int[] rows) {
+        long[] result = new long[rows.length];
+        for (int i = 0; i < rows.length; i ++) {
+            int row = rows[i];
+            result[i] = nulls.get(row) ? 0L : data.get(row) ? 2L : 1L;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean equals(int row, ColumnVector other, int otherRow) {
+        if (other != this) {
+            return super.equals(row, other, otherRow);
+        }
+
+        if (nulls.get(row) || nulls.get(otherRow)) {
+            return nulls.get(row) && nulls.get(otherRow);
+        }
+        return data.get(row) == data.get(otherRow);
+    }
+}
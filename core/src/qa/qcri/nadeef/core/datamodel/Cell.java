@@ -117,6 +117,25 @@ public class Cell {
         return column.getColumnName().equalsIgnoreCase(columnName);
     }
 
+    /**
+     * Gets the packed 64-bit key of the cell. Two cells are equal when they have the same key.
+     * @return cell key.
+     */
+    public long getKey() {
+        return key(column, tid);
+    }
+
+    /**
+     * Packs a cell identity into a 64-bit key. The high 32 bits hold the column id, which is
+     * unique per table and column, and the low 32 bits hold the tuple id.
+     * @param column column.
+     * @param tid tuple id.
+     * @return cell key.
+     */
+    public static long key(Column column, int tid) {
+        return ((long)column.getId() << 32) | (tid & 0xFFFFFFFFL);
+    }
+
     //</editor-fold>
 
     //<editor-fold desc="Override Equals and Hash code">
@@ -143,7 +162,7 @@ public class Cell {
      */
     @Override
     public int hashCode() {
-        return column.hashCode() * tid;
+        return column.getId() * 0x9E3779B1 + tid;
     }
     //</editor-fold>
 }
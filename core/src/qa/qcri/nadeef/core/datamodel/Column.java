@@ -13,16 +13,29 @@
 
 package qa.qcri.nadeef.core.datamodel;
 
+import com.google.common.collect.Maps;
 import qa.qcri.nadeef.tools.CommonTools;
 
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * A Column represents a Column in a table. It contains a table name and a attribute name.
  *
+ * Every column has a stable integer id which is shared by all the equal columns. The id is
+ * given out by a canonical registry, {@link #of(String, String)} returns the interned
+ * instance from the registry. The registry keeps every column it has seen, so an id stays
+ * the same for the whole run, also in the packed cell keys built from it.
  */
 public class Column {
+    private static ConcurrentMap<String, Column> registry = Maps.newConcurrentMap();
+    private static AtomicInteger nextId = new AtomicInteger();
+
     private String tableName;
     private String columnName;
     private String schemaName;
+    private int id = -1;
+    private int hash;
 
     //<editor-fold desc="Constructors">
     /**
@@ -63,6 +76,59 @@ public class Column {
     }
     //</editor-fold>
 
+    //<editor-fold desc="Registry">
+    /**
+     * Gets the interned column instance.
+     * @param tableName table name.
+     * @param columnName column name.
+     * @return interned column.
+     */
+    public static Column of(String tableName, String columnName) {
+        return intern(new Column(tableName, columnName));
+    }
+
+    /**
+     * Gets the interned column instance.
+     * @param fullAttributeName column name with the format of 'tableName'.'columnName'.
+     * @return interned column.
+     */
+    public static Column of(String fullAttributeName) {
+        return intern(new Column(fullAttributeName));
+    }
+
+    /**
+     * Gets the interned instance of a column.
+     * @param column column.
+     * @return interned column.
+     */
+    public static Column intern(Column column) {
+        String key = column.getKey();
+        Column result = registry.get(key);
+        if (result == null) {
+            Column canonical =
+                new Column(column.schemaName, column.tableName, column.columnName);
+            canonical.id = nextId.getAndIncrement();
+            result = registry.putIfAbsent(key, canonical);
+            if (result == null) {
+                result = canonical;
+            }
+        }
+        column.id = result.id;
+        return result;
+    }
+
+    /**
+     * Gets the stable id of the column. Equal columns have the same id.
+     * @return column id.
+     */
+    public int getId() {
+        if (id < 0) {
+            intern(this);
+        }
+        return id;
+    }
+    //</editor-fold>
+
     /**
      * Gets the table name.
      * @return original table name.
@@ -116,17 +182,24 @@ public class Column {
 
         Column column = (Column)obj;
 
-        return getFullColumnName().equalsIgnoreCase(column.getFullColumnName());
+        return getId() == column.getId();
     }
 
     @Override
     public int hashCode() {
-        final int root = 109;
-        return
-            root * getTableName().toLowerCase().hashCode() *
-                columnName.toLowerCase().hashCode() *
-                schemaName.toLowerCase().hashCode();
+        if (hash == 0) {
+            final int root = 109;
+            hash =
+                root * getTableName().toLowerCase().hashCode() *
+                    columnName.toLowerCase().hashCode() *
+                    schemaName.toLowerCase().hashCode();
+        }
+        return hash;
     }
     //</editor-fold>
 
+    private String getKey() {
+        return getFullColumnName().toLowerCase();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,246 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.base.Objects;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * ColumnVector stores all the values of one column of a {@link ColumnarTable} in one
+ * contiguous array. Rows are addressed by their position in the vector.
+ */
+abstract class ColumnVector implements KeyVector {
+    protected final DataType type;
+    protected int size;
+
+    //<editor-fold desc="Constructor">
+    protected ColumnVector(DataType type) {
+        this.type = type;
+    }
+
+    /**
+     * Creates a vector which fits the given data type.
+     * @param type data type.
+     * @param capacity initial capacity.
+     * @return column vector.
+     */
+    static ColumnVector create(DataType type, int capacity) {
+        switch (type) {
+            case STRING:
+            case TIMESTAMP:
+                return new DictionaryColumnVector(type, capacity);
+            case INTEGER:
+                return new IntColumnVector(capacity);
+            case DOUBLE:
+            case FLOAT:
+                return new DoubleColumnVector(type, capacity);
+            case BOOL:
+                return new BooleanColumnVector();
+            default:
+                throw new UnsupportedOperationException("Unknown data type " + type);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Public methods">
+    /**
+     * Gets the data type of the vector.
+     * @return data type.
+     */
+    DataType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the number of rows in the vector.
+     * @return number of rows.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a serialized value at the end of the vector.
+     * @param value UTF-8 value, <code>null</code> for a NULL value.
+     */
+    abstract void append(byte[] value);
+
+    /**
+     * Appends the value of the current row in a result set at the end of the vector. The
+     * value is read with the JDBC getter of the vector type.
+     * @param resultSet result set.
+     * @param index JDBC column index.
+     */
+    abstract void append(ResultSet resultSet, int index) throws SQLException;
+
+    /**
+     * Gets the decoded value of a row.
+     * @param row row position.
+     * @return decoded value, or <code>null</code>.
+     */
+    abstract Object get(int row);
+
+    /**
+     * Gets the value of a row as a primitive int without boxing.
+     * @param row row position.
+     * @return int value.
+     */
+    int getInt(int row) {
+        throw new UnsupportedOperationException(type + " column cannot be read as int.");
+    }
+
+    /**
+     * Gets the value of a row as a primitive double without boxing.
+     * @param row row position.
+     * @return double value.
+     */
+    double getDouble(int row) {
+        throw new UnsupportedOperationException(type + " column cannot be read as double.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public abstract boolean isNull(int row);
+
+    /**
+     * Releases the unused capacity once the vector is completely loaded.
+     */
+    abstract void trim();
+
+    /**
+     * Gets the estimated number of bytes the vector occupies on the Java heap.
+     * @return estimated heap size in bytes.
+     */
+    abstract long getHeapSize();
+
+    /**
+     * Releases the resources held outside of the Java heap.
+     */
+    void release() {}
+
+    /**
+     * Keeps the rows whose value satisfies a predicate against its constant value. The
+     * constant is parsed once and numerical values are compared without boxing, a NULL
+     * value compares as different from the constant.
+     * @param predicate predicate with a constant on the right side.
+     * @param rows selected row positions, the surviving rows are moved to the front.
+     * @param count number of selected rows.
+     * @return number of surviving rows.
+     */
+    @SuppressWarnings("unchecked")
+    int select(Predicate predicate, int[] rows, int count) {
+        String constant = predicate.getValue().toString();
+        int result = 0;
+        switch (type) {
+            case INTEGER: {
+                int value = Integer.parseInt(constant);
+                for (int i = 0; i < count; i ++) {
+                    int row = rows[i];
+                    int compareResult = isNull(row) ? 1 : Integer.compare(getInt(row), value);
+                    if (predicate.validResult(compareResult)) {
+                        rows[result ++] = row;
+                    }
+                }
+                break;
+            }
+            case FLOAT: {
+                float value = Float.parseFloat(constant);
+                for (int i = 0; i < count; i ++) {
+                    int row = rows[i];
+                    int compareResult =
+                        isNull(row) ? 1 : Float.compare((float)getDouble(row), value);
+                    if (predicate.validResult(compareResult)) {
+                        rows[result ++] = row;
+                    }
+                }
+                break;
+            }
+            case DOUBLE: {
+                double value = Double.parseDouble(constant);
+                for (int i = 0; i < count; i ++) {
+                    int row = rows[i];
+                    int compareResult =
+                        isNull(row) ? 1 : Double.compare(getDouble(row), value);
+                    if (predicate.validResult(compareResult)) {
+                        rows[result ++] = row;
+                    }
+                }
+                break;
+            }
+            default: {
+                Object value = predicate.getValue();
+                for (int i = 0; i < count; i ++) {
+                    int row = rows[i];
+                    int compareResult =
+                        isNull(row) ? 1 : ((Comparable)get(row)).compareTo(value);
+                    if (predicate.validResult(compareResult)) {
+                        rows[result ++] = row;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the hash of the encoded value of a row. Rows with equal values in the same
+     * vector have the same hash.
+     * @param row row position.
+     * @return hash of the value.
+     */
+    @Override
+    public long hash(int row) {
+        return Objects.hashCode(get(row));
+    }
+
+    /**
+     * Gets order-preserving sort keys of rows, NULL values sort first. The default
+     * implementation decodes each row once and ranks the values, see
+     * {@link RadixSort#rank(Object[])}.
+     * @param rows row positions.
+     * @return sort key of each row.
+     */
+    long[] sortKeys(int[] rows) {
+        Object[] values = new Object[rows.length];
+        for (int i = 0; i < rows.length; i ++) {
+            values[i] = get(rows[i]);
+        }
+        return RadixSort.rank(values);
+    }
+
+    /**
+     * Returns <code>True</code> when the row has the same value as a row in another vector.
+     * @param row row position.
+     * @param other other vector.
+     * @param otherRow row position in the other vector.
+     * @return <code>True</code> when both rows have the same value.
+     */
+    boolean equals(int row, ColumnVector other, int otherRow) {
+        return Objects.equal(get(row), other.get(otherRow));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(int row, int otherRow) {
+        return equals(row, this, otherRow);
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,543 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import qa.qcri.nadeef.tools.Logger;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ColumnarTable is an in-memory {@link Table} which stores each column in one contiguous
+ * {@link ColumnVector} instead of keeping one object per row. String columns are
+ * dictionary encoded. The {@link Tuple} returned from a ColumnarTable is only a light-weight
+ * view on a row of the table.
+ *
+ * Project, order and filter change which columns and rows are visible through the table, and
+ * groupOn returns tables which share the same column storage. None of them copy the rows.
+ */
+public class ColumnarTable extends Table {
+    private static Logger tracer = Logger.getLogger(ColumnarTable.class);
+
+    // shared column storage.
+    private Schema storageSchema;
+    private ColumnVector[] storage;
+    private int[] tids;
+    private int rowCount;
+
+    // visible columns and rows, rows is null when all the rows are visible in storage order.
+    private ColumnVector[] vectors;
+    private int[] rows;
+    private boolean isProjected;
+    // only the table created by the builder owns the storage.
+    private boolean isOwner;
+    // groupings shared by the views of the storage, null when the groupings are not shared.
+    private ConcurrentMap<GroupKey, List<int[]>> groupCache;
+    // storage rows of the new tuples in incremental detection, null when not incremental.
+    private BitSet deltaRows;
+
+    /**
+     * Key of a shared grouping, the grouping columns in storage order and the grouped rows.
+     */
+    private static class GroupKey {
+        private int[] columns;
+        private int[] rows;
+        private int hashCode;
+
+        GroupKey(int[] columns, int[] rows) {
+            this.columns = columns;
+            this.rows = rows;
+            this.hashCode = 31 * Arrays.hashCode(columns) + Arrays.hashCode(rows);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey key = (GroupKey)obj;
+            return
+                hashCode == key.hashCode &&
+                Arrays.equals(columns, key.columns) &&
+                Arrays.equals(rows, key.rows);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    //<editor-fold desc="Builder">
+    /**
+     * Builder class which appends rows into the column storage.
+     */
+    public static class Builder {
+        // number of rows appended between two heap budget checks.
+        private static final int CHECK_INTERVAL = 4096;
+
+        private Schema schema;
+        private ColumnVector[] storage;
+        private int[] tids;
+        private int rowCount;
+        private long heapBudget;
+        private boolean isSpilled;
+
+        /**
+         * Constructor.
+         * @param schema table schema.
+         */
+        public Builder(Schema schema) {
+            this(schema, 1024);
+        }
+
+        /**
+         * Constructor.
+         * @param schema table schema.
+         * @param capacity expected number of rows.
+         */
+        public Builder(Schema schema, int capacity) {
+            this.schema = Preconditions.checkNotNull(schema);
+            DataType[] types = schema.getTypes();
+            storage = new ColumnVector[types.length];
+            for (int i = 0; i < types.length; i ++) {
+                storage[i] = ColumnVector.create(types[i], capacity);
+            }
+            tids = new int[Math.max(capacity, 16)];
+            heapBudget = NadeefConfiguration.getHeapBudget();
+        }
+
+        /**
+         * Sets the heap budget of the table. Once the loaded columns exceed the budget the
+         * columns are moved into memory mapped segment files under the output path.
+         * @param heapBudget heap budget in bytes.
+         * @return builder.
+         */
+        public Builder heapBudget(long heapBudget) {
+            Preconditions.checkArgument(heapBudget >= 0);
+            this.heapBudget = heapBudget;
+            return this;
+        }
+
+        /**
+         * Appends a row.
+         * @param tupleId tuple id.
+         * @param values serialized values in schema order.
+         * @return builder.
+         */
+        public Builder add(int tupleId, List<byte[]> values) {
+            Preconditions.checkArgument(values.size() == storage.length);
+            for (int i = 0; i < storage.length; i ++) {
+                storage[i].append(values.get(i));
+            }
+            addTid(tupleId);
+            return this;
+        }
+
+        /**
+         * Appends the current row of a result set. The values are read with the typed JDBC
+         * getters of the column types, and the result set columns are in schema order.
+         * @param tupleId tuple id.
+         * @param resultSet result set.
+         * @return builder.
+         */
+        Builder add(int tupleId, ResultSet resultSet) throws SQLException {
+            for (int i = 0; i < storage.length; i ++) {
+                storage[i].append(resultSet, i + 1);
+            }
+            addTid(tupleId);
+            return this;
+        }
+
+        /**
+         * Appends a tuple.
+         * @param tuple tuple.
+         * @return builder.
+         */
+        public Builder add(Tuple tuple) {
+            return add(tuple.getTid(), tuple.getValues());
+        }
+
+        /**
+         * Builds the table.
+         * @return table.
+         */
+        public ColumnarTable build() {
+            if (!isSpilled && getHeapSize() > heapBudget) {
+                spill();
+            }
+
+            for (ColumnVector vector : storage) {
+                vector.trim();
+            }
+            return new ColumnarTable(schema, storage, Arrays.copyOf(tids, rowCount), rowCount);
+        }
+
+        private void addTid(int tupleId) {
+            if (rowCount == tids.length) {
+                tids = Arrays.copyOf(tids, rowCount * 2);
+            }
+            tids[rowCount ++] = tupleId;
+
+            if (!isSpilled && rowCount % CHECK_INTERVAL == 0 && getHeapSize() > heapBudget) {
+                spill();
+            }
+        }
+
+        private long getHeapSize() {
+            long result = 4L * tids.length;
+            for (ColumnVector vector : storage) {
+                result += vector.getHeapSize();
+            }
+            return result;
+        }
+
+        private void spill() {
+            tracer.info(
+                String.format(
+                    "Table %s exceeds the heap budget of %d bytes, spilling into segment files.",
+                    schema.getTableName(),
+                    heapBudget
+                )
+            );
+
+            for (int i = 0; i < storage.length; i ++) {
+                if (MappedColumnVector.canSpill(storage[i].getType())) {
+                    ColumnVector vector = MappedColumnVector.copyOf(storage[i]);
+                    storage[i].release();
+                    storage[i] = vector;
+                }
+            }
+            isSpilled = true;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Constructor">
+    private ColumnarTable(Schema schema, ColumnVector[] storage, int[] tids, int rowCount) {
+        super(schema);
+        this.storageSchema = schema;
+        this.storage = storage;
+        this.tids = tids;
+        this.rowCount = rowCount;
+        this.vectors = storage;
+        this.isOwner = true;
+    }
+
+    /**
+     * Creates a view which shares the storage and the visible columns of the given table.
+     */
+    private ColumnarTable(ColumnarTable table, int[] rows) {
+        super(table.schema);
+        this.storageSchema = table.storageSchema;
+        this.storage = table.storage;
+        this.tids = table.tids;
+        this.rowCount = table.rowCount;
+        this.vectors = table.vectors;
+        this.isProjected = table.isProjected;
+        this.groupCache = table.groupCache;
+        this.deltaRows = table.deltaRows;
+        this.rows = rows;
+    }
+
+    /**
+     * Creates a ColumnarTable from a list of tuples from the same schema.
+     * @param tuples tuples.
+     * @return ColumnarTable.
+     */
+    public static ColumnarTable of(List<Tuple> tuples) {
+        Preconditions.checkArgument(tuples != null && tuples.size() > 0);
+        Builder builder = new Builder(tuples.get(0).getSchema(), tuples.size());
+        for (Tuple tuple : tuples) {
+            builder.add(tuple);
+        }
+        return builder.build();
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Table override methods">
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recycle() {
+        if (isOwner && storage != null) {
+            for (ColumnVector vector : storage) {
+                vector.release();
+            }
+        }
+        storage = null;
+        vectors = null;
+        tids = null;
+        rows = null;
+        groupCache = null;
+        deltaRows = null;
+        rowCount = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return rows == null ? rowCount : rows.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Tuple get(int i) {
+        Preconditions.checkArgument(i >= 0 && i < size());
+        int row = rows == null ? i : rows[i];
+        return new Tuple(tids[row], schema, vectors, row);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Same as the select list of a {@link SQLTable}, the first projection keeps the given
+     * columns together with the TID column, later projections add more columns. Only the
+     * visible columns are remapped onto the shared storage, no row is copied.
+     */
+    @Override
+    public Table project(List<Column> columns) {
+        Preconditions.checkNotNull(columns);
+        schema = projectSchema(storageSchema, isProjected ? schema : null, columns);
+        Column[] visibleColumns = schema.getColumns();
+        vectors = new ColumnVector[visibleColumns.length];
+        for (int i = 0; i < visibleColumns.length; i ++) {
+            vectors[i] = storage[storageSchema.get(visibleColumns[i])];
+        }
+        isProjected = true;
+        return this;
+    }
+
+    /**
+     * Shares the groupings of this table with the views created from it afterwards, so
+     * the views grouping the same rows on the same columns reuse one grouping instead of
+     * grouping the rows again.
+     * @return this table.
+     */
+    public ColumnarTable shareGroups() {
+        if (groupCache == null) {
+            groupCache = Maps.newConcurrentMap();
+        }
+        return this;
+    }
+
+    /**
+     * Marks the new tuples of an incremental detection. Afterwards groupOn on this table and
+     * on the views created from it only returns the groups which contain a new tuple, the
+     * groups of old tuples only are never built.
+     * @param newTuples tuple ids of the new tuples.
+     * @return this table.
+     */
+    public ColumnarTable setDelta(Set<Integer> newTuples) {
+        Preconditions.checkNotNull(newTuples);
+        BitSet newTids = new BitSet();
+        for (Integer tid : newTuples) {
+            if (tid >= 0) {
+                newTids.set(tid);
+            }
+        }
+
+        deltaRows = new BitSet(rowCount);
+        for (int row = 0; row < rowCount; row ++) {
+            if (tids[row] >= 0 && newTids.get(tids[row])) {
+                deltaRows.set(row);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Table view() {
+        return new ColumnarTable(this, rows);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Table orderBy(List<Column> columns) {
+        Preconditions.checkNotNull(columns);
+        ColumnVector[] keys = getVectors(columns);
+        int[] sorted = new int[size()];
+        for (int i = 0; i < sorted.length; i ++) {
+            sorted[i] = rows == null ? i : rows[i];
+        }
+
+        // stable sorts from the last column to the first column give the lexicographic order.
+        for (int i = keys.length - 1; i >= 0; i --) {
+            sorted = RadixSort.sort(keys[i].sortKeys(sorted), sorted);
+        }
+        rows = sorted;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Each predicate is evaluated column by column on the rows which survived the previous
+     * predicates, the result is a selection of row positions in the shared storage.
+     */
+    @Override
+    public Table filter(List<Predicate> expressions) {
+        Preconditions.checkNotNull(expressions);
+        int count = size();
+        int[] selected = new int[count];
+        for (int i = 0; i < count; i ++) {
+            selected[i] = rows == null ? i : rows[i];
+        }
+
+        for (Predicate expression : expressions) {
+            if (count == 0) {
+                break;
+            }
+            count = select(expression, selected, count);
+        }
+        rows = count == selected.length ? selected : Arrays.copyOf(selected, count);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Table> groupOn(List<Column> columns) {
+        Preconditions.checkNotNull(columns);
+        for (Column column : columns) {
+            if (!schema.hasColumn(column)) {
+                throw new IllegalArgumentException("Column " + column + "does not exist.");
+            }
+        }
+
+        GroupKey key = null;
+        List<int[]> groups = null;
+        if (groupCache != null && deltaRows == null) {
+            int[] ordinals = new int[columns.size()];
+            for (int i = 0; i < ordinals.length; i ++) {
+                ordinals[i] = storageSchema.get(columns.get(i));
+            }
+            key = new GroupKey(ordinals, rows);
+            groups = groupCache.get(key);
+        }
+
+        if (groups == null) {
+            int[] selected = rows;
+            if (selected == null) {
+                selected = new int[rowCount];
+                for (int i = 0; i < rowCount; i ++) {
+                    selected[i] = i;
+                }
+            }
+
+            if (deltaRows != null) {
+                groups = HashGrouper.groupOf(getVectors(columns), selected, getDelta(selected));
+            } else {
+                groups = HashGrouper.group(getVectors(columns), selected);
+            }
+
+            if (key != null) {
+                groupCache.putIfAbsent(key, groups);
+            }
+        }
+
+        // the row arrays of a group are never changed, order and filter copy them.
+        List<Table> result = Lists.newArrayListWithCapacity(groups.size());
+        for (int[] group : groups) {
+            result.add(new ColumnarTable(this, group));
+        }
+        return result;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Private methods">
+    /**
+     * Gets the positions of the new rows in the selected rows.
+     */
+    private int[] getDelta(int[] selected) {
+        int[] result = new int[Math.min(selected.length, deltaRows.cardinality())];
+        int count = 0;
+        for (int i = 0; i < selected.length && count < result.length; i ++) {
+            if (deltaRows.get(selected[i])) {
+                result[count ++] = i;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private ColumnVector[] getVectors(List<Column> columns) {
+        ColumnVector[] result = new ColumnVector[columns.size()];
+        for (int i = 0; i < result.length; i ++) {
+            result[i] = vectors[schema.get(columns.get(i))];
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the selected rows which satisfy the predicate.
+     * @return number of surviving rows.
+     */
+    private int select(Predicate predicate, int[] selected, int count) {
+        ColumnVector left = vectors[schema.get(predicate.getLeft())];
+        if (predicate.isRightConstant()) {
+            return left.select(predicate, selected, count);
+        }
+
+        ColumnVector right = vectors[schema.get(predicate.getRight())];
+        int result = 0;
+        if (isNumerical(left.getType()) && isNumerical(right.getType())) {
+            for (int i = 0; i < count; i ++) {
+                int row = selected[i];
+                boolean isLeftNull = left.isNull(row);
+                boolean isRightNull = right.isNull(row);
+                int compareResult;
+                if (isLeftNull || isRightNull) {
+                    compareResult = isLeftNull && isRightNull ? 0 : 1;
+                } else {
+                    compareResult = Double.compare(left.getDouble(row), right.getDouble(row));
+                }
+
+                if (predicate.validResult(compareResult)) {
+                    selected[result ++] = row;
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i ++) {
+                int row = selected[i];
+                if (predicate.isValid(new Tuple(tids[row], schema, vectors, row))) {
+                    selected[result ++] = row;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isNumerical(DataType type) {
+        return type == DataType.INTEGER || type == DataType.DOUBLE || type == DataType.FLOAT;
+    }
+    //</editor-fold>
+}
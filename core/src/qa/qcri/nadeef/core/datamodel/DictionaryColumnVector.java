@@ -0,0 +1,236 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.nio.charset.Charset;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Dictionary encoded {@link ColumnVector}. Every distinct value is decoded and stored
+ * only once, rows keep an integer code into the dictionary.
+ */
+class DictionaryColumnVector extends ColumnVector {
+    private static final int NULL_CODE = -1;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private int[] codes;
+    private List<String> dictionary;
+    private HashMap<String, Integer> index;
+    private long dictionaryBytes;
+    // rank of each code in the value order, built on the first sort.
+    private volatile int[] ranks;
+
+    DictionaryColumnVector(DataType type, int capacity) {
+        super(type);
+        codes = new int[Math.max(capacity, 16)];
+        dictionary = Lists.newArrayList();
+        index = Maps.newHashMap();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(byte[] value) {
+        append(value == null ? null : new String(value, UTF8));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(ResultSet resultSet, int index) throws SQLException {
+        if (type == DataType.TIMESTAMP) {
+            // keep the JDBC timestamp format.
+            Object value = resultSet.getObject(index);
+            append(value == null ? null : value.toString());
+        } else {
+            append(resultSet.getString(index));
+        }
+    }
+
+    /**
+     * Appends a string value at the end of the vector.
+     * @param value value, <code>null</code> for a NULL value.
+     */
+    void append(String value) {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+        }
+
+        int code = NULL_CODE;
+        if (value != null) {
+            Integer existing = index.get(value);
+            if (existing == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                index.put(value, code);
+                ranks = null;
+                // string object, char array and the index entry.
+                dictionaryBytes += 96 + 2L * value.length();
+            } else {
+                code = existing;
+            }
+        }
+        codes[size ++] = code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object get(int row) {
+        int code = codes[row];
+        return code == NULL_CODE ? null : dictionary.get(code);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNull(int row) {
+        return codes[row] == NULL_CODE;
+    }
+
+    /**
+     * Gets the dictionary code of a row.
+     * @param row row position.
+     * @return dictionary code, -1 for a NULL value.
+     */
+    int getCode(int row) {
+        return codes[row];
+    }
+
+    /**
+     * Gets the number of distinct values.
+     * @return dictionary size.
+     */
+    int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void trim() {
+        if (codes.length != size) {
+            codes = Arrays.copyOf(codes, size);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getHeapSize() {
+        return 4L * codes.length + dictionaryBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The predicate is evaluated once per distinct value, rows are then selected by code.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    int select(Predicate predicate, int[] rows, int count) {
+        Object value = predicate.getValue();
+        boolean[] accepted = new boolean[dictionary.size()];
+        for (int i = 0; i < accepted.length; i ++) {
+            accepted[i] = predicate.validResult(((Comparable)dictionary.get(i)).compareTo(value));
+        }
+        boolean isNullAccepted = predicate.validResult(1);
+
+        int result = 0;
+        for (int i = 0; i < count; i ++) {
+            int row = rows[i];
+            int code = codes[row];
+            if (code == NULL_CODE ? isNullAccepted : accepted[code]) {
+                rows[result ++] = row;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash(int row) {
+        return codes[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long[] sortKeys(int[] rows) {
+        // rows are keyed by the rank of their code.
+        int[] ranks = getRanks();
+        long[] result = new long[rows.length];
+        for (int i = 0; i < rows.length; i ++) {
+            int code = codes[rows[i]];
+            result[i] = code == NULL_CODE ? -1L : ranks[code];
+        }
+        return result;
+    }
+
+    /**
+     * Gets the rank of each code in the value order. The distinct values are ranked once
+     * and the ranks are reused by all the sorts until a new value is appended.
+     */
+    private int[] getRanks() {
+        int[] result = ranks;
+        if (result == null) {
+            Integer[] order = new Integer[dictionary.size()];
+            for (int i = 0; i < order.length; i ++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer code1, Integer code2) {
+                    return dictionary.get(code1).compareTo(dictionary.get(code2));
+                }
+            });
+
+            result = new int[order.length];
+            for (int i = 0; i < order.length; i ++) {
+                result[order[i]] = i;
+            }
+            ranks = result;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean equals(int row, ColumnVector other, int otherRow) {
+        if (other == this) {
+            return codes[row] == codes[otherRow];
+        }
+        return super.equals(row, other, otherRow);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import java.nio.charset.Charset;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * {@link ColumnVector} which decodes DOUBLE and FLOAT values once into a <code>double</code>
+ * array. FLOAT values are parsed as <code>float</code> and widened, so they are returned
+ * unchanged as {@link Float}.
+ */
+class DoubleColumnVector extends ColumnVector {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private double[] data;
+    private BitSet nulls;
+
+    DoubleColumnVector(DataType type, int capacity) {
+        super(type);
+        data = new double[Math.max(capacity, 16)];
+        nulls = new BitSet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(byte[] value) {
+        if (value == null) {
+            appendNull();
+        } else {
+            String stringValue = new String(value, UTF8);
+            if (type == DataType.FLOAT) {
+                append(Float.parseFloat(stringValue));
+            } else {
+                append(Double.parseDouble(stringValue));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(ResultSet resultSet, int index) throws SQLException {
+        // FLOAT values are read as float and widened, same as the parsed values.
+        double value =
+            type == DataType.FLOAT ? resultSet.getFloat(index) : resultSet.getDouble(index);
+        if (resultSet.wasNull()) {
+            appendNull();
+        } else {
+            append(value);
+        }
+    }
+
+    /**
+     * Appends a double value at the end of the vector.
+     * @param value value.
+     */
+    void append(double value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size ++] = value;
+    }
+
+    /**
+     * Appends a NULL value at the end of the vector.
+     */
+    void appendNull() {
+        nulls.set(size);
+        append(0.0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object get(int row) {
+        if (nulls.get(row)) {
+            return null;
+        }
+        return type == DataType.FLOAT ? (Object)(float)data[row] : (Object)data[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    double getDouble(int row) {
+        return data[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void trim() {
+        if (data.length != size) {
+            data = Arrays.copyOf(data, size);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getHeapSize() {
+        return 8L * data.length + nulls.size() / 8;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash(int row) {
+        return nulls.get(row) ? Long.MIN_VALUE : Double.doubleToLongBits(data[row]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long[] sortKeys(int[] rows) {
+        long[] result = new long[rows.length];
+        for (int i = 0; i < rows.length; i ++) {
+            int row = rows[i];
+            if (nulls.get(row)) {
+                result[i] = Long.MIN_VALUE;
+            } else {
+                // negative values have their magnitude bits flipped, same order as
+                // Double.compare.
+                long bits = Double.doubleToLongBits(data[row]);
+                result[i] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean equals(int row, ColumnVector other, int otherRow) {
+        if (other != this) {
+            return super.equals(row, other, otherRow);
+        }
+
+        if (nulls.get(row) || nulls.get(otherRow)) {
+            return nulls.get(row) && nulls.get(otherRow);
+        }
+        return Double.compare(data[row], data[otherRow]) == 0;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.collect.Lists;
+import qa.qcri.nadeef.core.utils.TaskScheduler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * HashGrouper partitions rows of {@link KeyVector}s into groups of equal key values.
+ * Rows are hashed on their encoded values (e.g. dictionary codes) into a primitive open
+ * addressing table, and rows with the same hash are compared on the encoded values, so
+ * no key objects are created. Large inputs are hash partitioned and grouped in parallel.
+ *
+ * Groups are returned in the order of their first row, and the rows of each group keep
+ * their input order.
+ */
+final class HashGrouper {
+    // minimum number of rows before the grouping runs in parallel.
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final long NULL_HASH = 0x9E3779B97F4A7C15L;
+
+    private final KeyVector[] keys;
+    private final int[] rows;
+    private final long[] hashes;
+
+    private HashGrouper(KeyVector[] keys, int[] rows) {
+        this.keys = keys;
+        this.rows = rows;
+        this.hashes = new long[rows.length];
+    }
+
+    /**
+     * Groups the rows on the key vectors.
+     * @param keys key vectors.
+     * @param rows row positions in the key vectors.
+     * @return groups of row positions.
+     */
+    static List<int[]> group(KeyVector[] keys, int[] rows) {
+        HashGrouper grouper = new HashGrouper(keys, rows);
+        if (rows.length < PARALLEL_THRESHOLD) {
+            grouper.hash(0, rows.length);
+            int[] positions = new int[rows.length];
+            for (int i = 0; i < positions.length; i ++) {
+                positions[i] = i;
+            }
+            return grouper.new Partition(positions).call().groups;
+        }
+        int partitionCount = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        return grouper.groupInParallel(partitionCount);
+    }
+
+    /**
+     * Groups the rows whose key is the key of one of the seed rows, the other rows are not
+     * grouped. Only the distinct keys of the seeds are indexed, so the rows are hashed and
+     * probed once without grouping the whole input.
+     * @param keys key vectors.
+     * @param rows row positions in the key vectors.
+     * @param seeds positions of the seed rows in <code>rows</code>.
+     * @return groups of row positions.
+     */
+    static List<int[]> groupOf(KeyVector[] keys, int[] rows, int[] seeds) {
+        HashGrouper grouper = new HashGrouper(keys, rows);
+        grouper.hash(0, rows.length);
+        return grouper.select(seeds);
+    }
+
+    //<editor-fold desc="Private methods">
+    private List<int[]> select(int[] seeds) {
+        int capacity = Integer.highestOneBit(Math.max(seeds.length, 8) * 2 - 1) << 1;
+        int mask = capacity - 1;
+        // seed position + 1 of each slot, 0 is an empty slot.
+        int[] slots = new int[capacity];
+        for (int seed : seeds) {
+            int slot = find(slots, mask, seed);
+            if (slots[slot] == 0) {
+                slots[slot] = seed + 1;
+            }
+        }
+
+        // group id + 1 of each slot, the groups are numbered in the order of their first row.
+        int[] slotGroups = new int[capacity];
+        int[] groupSizes = new int[16];
+        int[] groupOf = new int[rows.length];
+        int groupCount = 0;
+        for (int i = 0; i < rows.length; i ++) {
+            int slot = find(slots, mask, i);
+            if (slots[slot] == 0) {
+                groupOf[i] = -1;
+                continue;
+            }
+
+            int group = slotGroups[slot] - 1;
+            if (group < 0) {
+                group = groupCount ++;
+                if (group == groupSizes.length) {
+                    groupSizes = Arrays.copyOf(groupSizes, group * 2);
+                }
+                slotGroups[slot] = group + 1;
+            }
+            groupOf[i] = group;
+            groupSizes[group] ++;
+        }
+
+        List<int[]> result = Lists.newArrayListWithCapacity(groupCount);
+        for (int i = 0; i < groupCount; i ++) {
+            result.add(new int[groupSizes[i]]);
+        }
+
+        Arrays.fill(groupSizes, 0);
+        for (int i = 0; i < rows.length; i ++) {
+            int group = groupOf[i];
+            if (group >= 0) {
+                result.get(group)[groupSizes[group] ++] = rows[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the slot holding the key of the row at the given position, or the empty slot
+     * where the key belongs.
+     */
+    private int find(int[] slots, int mask, int position) {
+        long hash = hashes[position];
+        int slot = (int)hash & mask;
+        while (slots[slot] != 0) {
+            int other = slots[slot] - 1;
+            if (hashes[other] == hash && isSameKey(rows[other], rows[position])) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private List<int[]> groupInParallel(int partitionCount) {
+        // hash the rows in chunks.
+        List<Callable<Void>> hashTasks = Lists.newArrayList();
+        int chunkSize = (rows.length + partitionCount - 1) / partitionCount;
+        for (int start = 0; start < rows.length; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(rows.length, start + chunkSize);
+            hashTasks.add(() -> {
+                hash(from, to);
+                return null;
+            });
+        }
+        invokeAll(hashTasks);
+
+        // partition the rows on the high bits of the hash, equal keys land in one partition.
+        int[] partitionSizes = new int[partitionCount];
+        int[] partitionOf = new int[rows.length];
+        for (int i = 0; i < rows.length; i ++) {
+            int partition = (int)((hashes[i] >>> 33) % partitionCount);
+            partitionOf[i] = partition;
+            partitionSizes[partition] ++;
+        }
+
+        List<Partition> partitions = Lists.newArrayListWithCapacity(partitionCount);
+        int[][] positions = new int[partitionCount][];
+        for (int i = 0; i < partitionCount; i ++) {
+            positions[i] = new int[partitionSizes[i]];
+            partitions.add(new Partition(positions[i]));
+        }
+
+        Arrays.fill(partitionSizes, 0);
+        for (int i = 0; i < rows.length; i ++) {
+            int partition = partitionOf[i];
+            positions[partition][partitionSizes[partition] ++] = i;
+        }
+
+        List<Partition> results = invokeAll(partitions);
+
+        // merge the groups in the order of their first row.
+        int groupCount = 0;
+        for (Partition partition : results) {
+            groupCount += partition.groups.size();
+        }
+
+        List<int[]> groups = Lists.newArrayListWithCapacity(groupCount);
+        long[] order = new long[groupCount];
+        for (Partition partition : results) {
+            for (int i = 0; i < partition.groups.size(); i ++) {
+                order[groups.size()] = ((long)partition.firsts[i] << 32) | groups.size();
+                groups.add(partition.groups.get(i));
+            }
+        }
+        Arrays.sort(order);
+
+        List<int[]> result = Lists.newArrayListWithCapacity(groupCount);
+        for (long entry : order) {
+            result.add(groups.get((int)entry));
+        }
+        return result;
+    }
+
+    private void hash(int from, int to) {
+        for (int i = from; i < to; i ++) {
+            int row = rows[i];
+            long hash = 0L;
+            for (KeyVector key : keys) {
+                hash = hash * 31 + (key.isNull(row) ? NULL_HASH : key.hash(row));
+            }
+            hashes[i] = mix(hash);
+        }
+    }
+
+    private boolean isSameKey(int row, int otherRow) {
+        for (KeyVector key : keys) {
+            if (!key.equals(row, otherRow)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        List<T> result = Lists.newArrayListWithCapacity(tasks.size());
+        try {
+            for (Future<T> future : TaskScheduler.getPool().invokeAll(tasks)) {
+                result.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Grouping is interrupted.", ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Grouping failed.", ex.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * MurmurHash3 finalizer.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Partition">
+    /**
+     * Groups the rows at the given input positions.
+     */
+    private final class Partition implements Callable<Partition> {
+        private final int[] positions;
+        private List<int[]> groups;
+        private int[] firsts;
+
+        Partition(int[] positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public Partition call() {
+            int capacity = Integer.highestOneBit(Math.max(positions.length, 8) * 2 - 1) << 1;
+            int mask = capacity - 1;
+            // group id + 1 of each slot, 0 is an empty slot.
+            int[] slots = new int[capacity];
+            long[] groupHashes = new long[16];
+            int[] groupFirsts = new int[16];
+            int[] groupSizes = new int[16];
+            int[] groupOf = new int[positions.length];
+            int groupCount = 0;
+
+            for (int i = 0; i < positions.length; i ++) {
+                int position = positions[i];
+                long hash = hashes[position];
+                int slot = (int)hash & mask;
+                int group;
+                while (true) {
+                    group = slots[slot] - 1;
+                    if (group < 0) {
+                        group = groupCount ++;
+                        if (group == groupHashes.length) {
+                            groupHashes = Arrays.copyOf(groupHashes, group * 2);
+                            groupFirsts = Arrays.copyOf(groupFirsts, group * 2);
+                            groupSizes = Arrays.copyOf(groupSizes, group * 2);
+                        }
+                        groupHashes[group] = hash;
+                        groupFirsts[group] = position;
+                        slots[slot] = group + 1;
+                        break;
+                    }
+
+                    if (
+                        groupHashes[group] == hash &&
+                        isSameKey(rows[groupFirsts[group]], rows[position])
+                    ) {
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                groupOf[i] = group;
+                groupSizes[group] ++;
+            }
+
+            groups = Lists.newArrayListWithCapacity(groupCount);
+            for (int i = 0; i < groupCount; i ++) {
+                groups.add(new int[groupSizes[i]]);
+            }
+
+            Arrays.fill(groupSizes, 0);
+            for (int i = 0; i < positions.length; i ++) {
+                int group = groupOf[i];
+                groups.get(group)[groupSizes[group] ++] = rows[positions[i]];
+            }
+            firsts = Arrays.copyOf(groupFirsts, groupCount);
+            return this;
+        }
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,301 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * InequalityJoin generates the tuple pairs of a denial constraint which satisfy two range
+ * predicates, e.g. <code>t1.salary &gt; t2.salary &amp; t1.tax &lt; t2.tax</code>, without
+ * comparing all the pairs (IEJoin).
+ *
+ * The tuples are sorted on the columns of both predicates. Sweeping the tuples in the order
+ * of the first predicate, every tuple which already satisfies the first predicate is marked
+ * in a bit array laid out in the order of the second predicate, so the tuples satisfying
+ * both predicates are the marked bits of one range of the bit array. The pairs are emitted
+ * once in the same orientation as the nested loop over <code>i &lt; j</code>, all the
+ * predicates of the rule are still evaluated in <code>detect</code>.
+ */
+public class InequalityJoin {
+    private Predicate first;
+    private Predicate second;
+
+    //<editor-fold desc="Constructor">
+    /**
+     * Constructor.
+     * @param first first range predicate.
+     * @param second second range predicate.
+     */
+    public InequalityJoin(Predicate first, Predicate second) {
+        Preconditions.checkArgument(isRange(first) && isRange(second));
+        this.first = first;
+        this.second = second;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Public methods">
+    /**
+     * Returns <code>True</code> when the predicate is a range predicate between the two
+     * tuples of a pair, i.e. <code>t1.A op t2.B</code> with op one of
+     * <code>&lt;, &lt;=, &gt;, &gt;=</code>.
+     * @param predicate predicate.
+     * @return <code>True</code> when the predicate can be joined.
+     */
+    public static boolean isRange(Predicate predicate) {
+        if (predicate.isSingle() || predicate.isRightConstant()) {
+            return false;
+        }
+
+        switch (predicate.getOperation()) {
+            case GT:
+            case GTE:
+            case LT:
+            case LTE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Emits the tuple pairs of one table which satisfy both range predicates in any
+     * orientation. Tables whose predicate columns are not numerical are iterated with the
+     * nested loop.
+     * @param table input table.
+     * @param output output handler.
+     */
+    public void iterator(Table table, IteratorResultHandler output) {
+        Schema schema = table.getSchema();
+        int[] indexes = {
+            schema.get(first.getLeft()),
+            schema.get(first.getRight()),
+            schema.get(second.getLeft()),
+            schema.get(second.getRight())
+        };
+
+        for (int index : indexes) {
+            if (!Predicate.isNumerical(schema.getTypes()[index])) {
+                loop(table, output);
+                return;
+            }
+        }
+
+        int n = table.size();
+        Tuple[] tuples = new Tuple[n];
+        double[][] values = new double[indexes.length][n];
+        int[] rows = new int[n];
+        int[] nullRows = new int[n];
+        int rowCount = 0;
+        int nullCount = 0;
+        for (int i = 0; i < n; i ++) {
+            Tuple tuple = table.get(i);
+            tuples[i] = tuple;
+            boolean hasNull = false;
+            for (int k = 0; k < indexes.length; k ++) {
+                if (tuple.isNull(indexes[k])) {
+                    hasNull = true;
+                    break;
+                }
+                values[k][i] = tuple.getDouble(indexes[k]);
+            }
+
+            if (hasNull) {
+                nullRows[nullCount ++] = i;
+            } else {
+                rows[rowCount ++] = i;
+            }
+        }
+
+        join(tuples, values, Arrays.copyOf(rows, rowCount), output);
+
+        // NULL values do not order, tuples with one are paired with all the others.
+        for (int k = 0; k < nullCount; k ++) {
+            int i = nullRows[k];
+            for (int j = 0; j < n; j ++) {
+                if (j != i && (j > i || !isNull(nullRows, nullCount, j))) {
+                    emit(tuples, i, j, output);
+                }
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Private methods">
+    /**
+     * Joins the tuples without NULL values, the values are the left and right columns of
+     * the first predicate followed by the ones of the second predicate.
+     */
+    private void join(
+        Tuple[] tuples,
+        double[][] values,
+        int[] rows,
+        IteratorResultHandler output
+    ) {
+        double[] leftX = values[0];
+        double[] rightX = values[1];
+        double[] leftY = values[2];
+        double[] rightY = values[3];
+
+        // permutation arrays, the first predicate is swept from the side where it holds
+        // for a growing set of tuples.
+        int[] leftOrder = sort(leftX, rows);
+        int[] rightOrder = sort(rightX, rows);
+        if (isUpperBound(first.getOperation())) {
+            reverse(leftOrder);
+            reverse(rightOrder);
+        }
+
+        int[] yOrder = sort(rightY, rows);
+        double[] sortedY = new double[yOrder.length];
+        for (int k = 0; k < yOrder.length; k ++) {
+            sortedY[k] = rightY[yOrder[k]];
+        }
+        int[] yPosition = new int[tuples.length];
+        for (int k = 0; k < yOrder.length; k ++) {
+            yPosition[yOrder[k]] = k;
+        }
+
+        BitSet marks = new BitSet(yOrder.length);
+        int p = 0;
+        for (int i : leftOrder) {
+            while (
+                p < rightOrder.length &&
+                first.validResult(Double.compare(leftX[i], rightX[rightOrder[p]]))
+            ) {
+                marks.set(yPosition[rightOrder[p]]);
+                p ++;
+            }
+
+            // the tuples satisfying the second predicate are one range of the y order.
+            int from;
+            int to;
+            switch (second.getOperation()) {
+                case GT:
+                    from = 0;
+                    to = lowerBound(sortedY, leftY[i]);
+                    break;
+                case GTE:
+                    from = 0;
+                    to = upperBound(sortedY, leftY[i]);
+                    break;
+                case LT:
+                    from = upperBound(sortedY, leftY[i]);
+                    to = sortedY.length;
+                    break;
+                default:
+                    from = lowerBound(sortedY, leftY[i]);
+                    to = sortedY.length;
+                    break;
+            }
+
+            for (int k = marks.nextSetBit(from); k >= 0 && k < to; k = marks.nextSetBit(k + 1)) {
+                int j = yOrder[k];
+                if (j == i) {
+                    continue;
+                }
+
+                // a pair satisfying the predicates in both orientations is emitted once.
+                if (
+                    i < j ||
+                    !first.validResult(Double.compare(leftX[j], rightX[i])) ||
+                    !second.validResult(Double.compare(leftY[j], rightY[i]))
+                ) {
+                    emit(tuples, i, j, output);
+                }
+            }
+        }
+    }
+
+    private static void emit(Tuple[] tuples, int i, int j, IteratorResultHandler output) {
+        if (i < j) {
+            output.handle(new TuplePair(tuples[i], tuples[j]));
+        } else {
+            output.handle(new TuplePair(tuples[j], tuples[i]));
+        }
+    }
+
+    private static void loop(Table table, IteratorResultHandler output) {
+        for (int i = 0; i < table.size(); i ++) {
+            for (int j = i + 1; j < table.size(); j ++) {
+                output.handle(new TuplePair(table.get(i), table.get(j)));
+            }
+        }
+    }
+
+    private static boolean isNull(int[] nullRows, int nullCount, int row) {
+        return Arrays.binarySearch(nullRows, 0, nullCount, row) >= 0;
+    }
+
+    private static boolean isUpperBound(Operation operation) {
+        return operation == Operation.LT || operation == Operation.LTE;
+    }
+
+    /**
+     * Sorts the rows on their values in the order of <code>Double.compare</code>.
+     */
+    private static int[] sort(double[] values, int[] rows) {
+        long[] keys = new long[rows.length];
+        for (int k = 0; k < rows.length; k ++) {
+            long bits = Double.doubleToLongBits(values[rows[k]]);
+            keys[k] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+        return RadixSort.sort(keys, rows);
+    }
+
+    private static void reverse(int[] rows) {
+        for (int i = 0, j = rows.length - 1; i < j; i ++, j --) {
+            int tmp = rows[i];
+            rows[i] = rows[j];
+            rows[j] = tmp;
+        }
+    }
+
+    /**
+     * Gets the first position whose value is not less than the given value.
+     */
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Double.compare(sorted[middle], value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the first position whose value is greater than the given value.
+     */
+    private static int upperBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Double.compare(sorted[middle], value) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,167 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import java.nio.charset.Charset;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * {@link ColumnVector} which decodes INTEGER values once into an <code>int</code> array.
+ */
+class IntColumnVector extends ColumnVector {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private int[] data;
+    private BitSet nulls;
+
+    IntColumnVector(int capacity) {
+        super(DataType.INTEGER);
+        data = new int[Math.max(capacity, 16)];
+        nulls = new BitSet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(byte[] value) {
+        if (value == null) {
+            appendNull();
+        } else {
+            append(Integer.parseInt(new String(value, UTF8)));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(ResultSet resultSet, int index) throws SQLException {
+        int value = resultSet.getInt(index);
+        if (resultSet.wasNull()) {
+            appendNull();
+        } else {
+            append(value);
+        }
+    }
+
+    /**
+     * Appends an int value at the end of the vector.
+     * @param value value.
+     */
+    void append(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size ++] = value;
+    }
+
+    /**
+     * Appends a NULL value at the end of the vector.
+     */
+    void appendNull() {
+        nulls.set(size);
+        append(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object get(int row) {
+        return nulls.get(row) ? null : data[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int getInt(int row) {
+        return data[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    double getDouble(int row) {
+        return data[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void trim() {
+        if (data.length != size) {
+            data = Arrays.copyOf(data, size);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getHeapSize() {
+        return 4L * data.length + nulls.size() / 8;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash(int row) {
+        return nulls.get(row) ? Long.MIN_VALUE : data[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long[] sortKeys(int[] rows) {
+        long[] result = new long[rows.length];
+        for (int i = 0; i < rows.length; i ++) {
+            int row = rows[i];
+            result[i] = nulls.get(row) ? Long.MIN_VALUE : data[row];
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean equals(int row, ColumnVector other, int otherRow) {
+        if (other != this) {
+            return super.equals(row, other, otherRow);
+        }
+
+        if (nulls.get(row) || nulls.get(otherRow)) {
+            return nulls.get(row) && nulls.get(otherRow);
+        }
+        return data[row] == data[otherRow];
+    }
+}
@@ -13,102 +13,53 @@
 
 package qa.qcri.nadeef.core.datamodel;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
-import qa.qcri.nadeef.tools.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 /**
- * Streaming output (Bounded Queued Buffer).
+ * Streaming output (Bounded Queued Buffer). Each iterator task fills its own buffer, the full
+ * buffers are handed over through the {@link IteratorChannel} of the execution.
  */
 public class IteratorBlockingQueue implements IteratorResultHandler {
-    private static final long TIMEOUT;
-    private static final int BUFFER_BOUNDARY;
-    private static final int MAX_QUEUE_BOUNDARY;
-    private static Logger tracer;
-    private static LinkedBlockingQueue<List<Object>> queue;
-
-    static {
-        TIMEOUT = 1024;
-        BUFFER_BOUNDARY = 10240;
-        MAX_QUEUE_BOUNDARY = 1024;
-        queue = new LinkedBlockingQueue<>(MAX_QUEUE_BOUNDARY);
-        tracer = Logger.getLogger(IteratorBlockingQueue.class);
-    }
-
+    private IteratorChannel channel;
     private List<Object> buffer;
+    // number of pairs in the buffer, a batch counts all its pairs.
+    private int bufferWeight;
 
     /**
      * Constructor.
+     * @param channel channel of the execution.
      */
-    public IteratorBlockingQueue() {
+    public IteratorBlockingQueue(IteratorChannel channel) {
+        this.channel = Preconditions.checkNotNull(channel);
         this.buffer = Lists.newArrayList();
     }
 
-    /**
-     * Gets a buffer of objects from the queue.
-     * @return a list of objects from the queue.
-     */
-    public List<Object> poll() {
-        List<Object> item = null;
-        try {
-            while ((item = queue.poll(TIMEOUT, TimeUnit.MILLISECONDS)) == null);
-        } catch (InterruptedException ex) {
-            tracer.error("Exception during polling the queue.", ex);
-        }
-        return item;
-    }
-
-    /**
-     * Marks the end of the iteration output.
-     */
-    public static void markEnd() {
-        try {
-            List<Object> end = new ArrayList<>(0);
-            while (!queue.offer(end, TIMEOUT, TimeUnit.MILLISECONDS));
-        } catch (InterruptedException ex) {
-            tracer.error("Exception during marking the end of the queue.", ex);
-        }
-    }
-
     /**
      * Puts the item in the buffer.
      * @param item item.
      */
     @Override public <T> void handle(T item) {
-        if (buffer.size() == BUFFER_BOUNDARY) {
-            try {
-                while (!queue.offer(new ArrayList<>(buffer), TIMEOUT, TimeUnit.MILLISECONDS));
-            } catch (InterruptedException e) {
-                tracer.error("offer interrupted", e);
-            }
+        if (bufferWeight >= channel.getBufferSize()) {
+            channel.offer(new ArrayList<>(buffer));
             buffer = Lists.newArrayList();
+            bufferWeight = 0;
         }
 
         buffer.add(item);
+        bufferWeight += item instanceof PairBatch ? ((PairBatch)item).size() : 1;
     }
 
     /**
      * Flush the remaining buffer.
      */
     public void flush() {
-        try {
-            if (buffer.size() != 0) {
-                while (!queue.offer(new ArrayList<>(buffer), TIMEOUT, TimeUnit.MILLISECONDS));
-            }
-            buffer = null;
-        } catch (InterruptedException e) {
-            tracer.error("flush interrupted", e);
+        if (buffer.size() != 0) {
+            channel.offer(new ArrayList<>(buffer));
         }
-    }
-
-    /**
-     * Clear the buffer queue.
-     */
-    public static void clear() {
-        queue.clear();
+        buffer = null;
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.base.Preconditions;
+import qa.qcri.nadeef.tools.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IteratorChannel hands the iterator output over to the violation detector. It is a bounded
+ * queue of buffers owned by one execution, the iterator threads fill their own
+ * {@link IteratorBlockingQueue} buffers which are offered to the channel once they reach the
+ * buffer size. An empty buffer marks the end of the iteration output.
+ */
+public class IteratorChannel {
+    private static final long TIMEOUT = 1024;
+    private static Logger tracer = Logger.getLogger(IteratorChannel.class);
+
+    private LinkedBlockingQueue<List<Object>> queue;
+    private int bufferSize;
+
+    //<editor-fold desc="Constructor">
+    /**
+     * Constructor.
+     * @param capacity maximum number of buffers waiting in the channel.
+     * @param bufferSize number of items of a full buffer.
+     */
+    public IteratorChannel(int capacity, int bufferSize) {
+        Preconditions.checkArgument(capacity > 0 && bufferSize > 0);
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.bufferSize = bufferSize;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Public methods">
+    /**
+     * Gets the number of items of a full buffer.
+     * @return buffer size.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Offers a buffer, it waits while the channel is full. A waiting worker of the shared
+     * task pool is replaced by another worker, so the detector tasks still run.
+     * @param buffer buffer of items.
+     */
+    public void offer(final List<Object> buffer) {
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                private boolean isOffered;
+
+                @Override
+                public boolean block() throws InterruptedException {
+                    while (!queue.offer(buffer, TIMEOUT, TimeUnit.MILLISECONDS));
+                    isOffered = true;
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return isOffered || (isOffered = queue.offer(buffer));
+                }
+            });
+        } catch (InterruptedException ex) {
+            tracer.error("offer interrupted", ex);
+        }
+    }
+
+    /**
+     * Gets a buffer of objects from the channel, it waits while the channel is empty.
+     * @return a list of objects, an empty list at the end of the iteration output.
+     */
+    public List<Object> poll() {
+        List<Object> item = null;
+        try {
+            while ((item = queue.poll(TIMEOUT, TimeUnit.MILLISECONDS)) == null);
+        } catch (InterruptedException ex) {
+            tracer.error("Exception during polling the queue.", ex);
+        }
+        return item;
+    }
+
+    /**
+     * Marks the end of the iteration output.
+     */
+    public void markEnd() {
+        offer(new ArrayList<>(0));
+    }
+
+    /**
+     * Clears the channel.
+     */
+    public void clear() {
+        queue.clear();
+    }
+    //</editor-fold>
+}
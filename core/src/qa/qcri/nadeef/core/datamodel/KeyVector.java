@@ -0,0 +1,42 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.datamodel;
+
+/**
+ * KeyVector gives {@link HashGrouper} access to the key values of rows, rows are addressed
+ * by their position in the vector.
+ */
+interface KeyVector {
+    /**
+     * Returns <code>True</code> when the row contains a NULL value.
+     * @param row row position.
+     * @return <code>True</code> when the row contains a NULL value.
+     */
+    boolean isNull(int row);
+
+    /**
+     * Gets the hash of the value of a row. Rows with equal values have the same hash.
+     * @param row row position.
+     * @return hash of the value.
+     */
+    long hash(int row);
+
+    /**
+     * Returns <code>True</code> when two rows have the same value.
+     * @param row row position.
+     * @param otherRow other row position.
+     * @return <code>True</code> when both rows have the same value.
+     */
+    boolean equals(int row, int otherRow);
+}
@@ -0,0 +1,282 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+/**
+ * {@link ColumnVector} which keeps the values outside of the Java heap in memory mapped
+ * {@link SegmentFile}s. Numerical values are stored in fixed width, string values are stored
+ * as UTF-8 bytes together with the end offset of every row. Only the NULL bitmap stays on
+ * the heap.
+ *
+ * Values are appended while loading, and the vector becomes readable after {@link #trim()}.
+ */
+class MappedColumnVector extends ColumnVector {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private SegmentFile data;
+    private SegmentFile ends;
+    private BitSet nulls;
+
+    MappedColumnVector(DataType type) {
+        super(type);
+        try {
+            data = new SegmentFile("col");
+            if (isVariableLength()) {
+                ends = new SegmentFile("end");
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        nulls = new BitSet();
+    }
+
+    /**
+     * Returns <code>True</code> when the values of the data type can be spilled.
+     * @param type data type.
+     * @return <code>True</code> when the values of the data type can be spilled.
+     */
+    static boolean canSpill(DataType type) {
+        return type != DataType.BOOL;
+    }
+
+    /**
+     * Creates a mapped vector with all the values of an in-heap vector.
+     * @param vector source vector.
+     * @return mapped vector.
+     */
+    static MappedColumnVector copyOf(ColumnVector vector) {
+        MappedColumnVector result = new MappedColumnVector(vector.getType());
+        for (int i = 0; i < vector.size(); i ++) {
+            if (vector.isNull(i)) {
+                result.appendNull();
+                continue;
+            }
+
+            switch (vector.getType()) {
+                case INTEGER:
+                    result.append(vector.getInt(i));
+                    break;
+                case DOUBLE:
+                case FLOAT:
+                    result.append(vector.getDouble(i));
+                    break;
+                default:
+                    result.append(vector.get(i).toString().getBytes(UTF8));
+            }
+        }
+        return result;
+    }
+
+    //<editor-fold desc="Append methods">
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(byte[] value) {
+        if (value == null) {
+            appendNull();
+            return;
+        }
+
+        switch (type) {
+            case INTEGER:
+                append(Integer.parseInt(new String(value, UTF8)));
+                break;
+            case DOUBLE:
+                append(Double.parseDouble(new String(value, UTF8)));
+                break;
+            case FLOAT:
+                append((double)Float.parseFloat(new String(value, UTF8)));
+                break;
+            default:
+                try {
+                    data.write(value);
+                    ends.writeLong(data.position());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                size ++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void append(ResultSet resultSet, int index) throws SQLException {
+        switch (type) {
+            case INTEGER:
+                int intValue = resultSet.getInt(index);
+                if (resultSet.wasNull()) {
+                    appendNull();
+                } else {
+                    append(intValue);
+                }
+                break;
+            case DOUBLE:
+            case FLOAT:
+                double doubleValue =
+                    type == DataType.FLOAT ?
+                        resultSet.getFloat(index) : resultSet.getDouble(index);
+                if (resultSet.wasNull()) {
+                    appendNull();
+                } else {
+                    append(doubleValue);
+                }
+                break;
+            default:
+                Object value =
+                    type == DataType.TIMESTAMP ?
+                        resultSet.getObject(index) : resultSet.getString(index);
+                append(value == null ? null : value.toString().getBytes(UTF8));
+        }
+    }
+
+    void append(int value) {
+        try {
+            data.writeInt(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        size ++;
+    }
+
+    void append(double value) {
+        try {
+            data.writeDouble(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        size ++;
+    }
+
+    void appendNull() {
+        nulls.set(size);
+        switch (type) {
+            case INTEGER:
+                append(0);
+                break;
+            case DOUBLE:
+            case FLOAT:
+                append(0.0);
+                break;
+            default:
+                append(new byte[0]);
+        }
+    }
+    //</editor-fold>
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object get(int row) {
+        if (nulls.get(row)) {
+            return null;
+        }
+
+        switch (type) {
+            case INTEGER:
+                return getInt(row);
+            case DOUBLE:
+                return getDouble(row);
+            case FLOAT:
+                return (float)getDouble(row);
+            default:
+                long start = row == 0 ? 0L : ends.getLong((row - 1) * 8L);
+                long end = ends.getLong(row * 8L);
+                return new String(data.get(start, (int)(end - start)), UTF8);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int getInt(int row) {
+        if (type != DataType.INTEGER) {
+            return super.getInt(row);
+        }
+        return data.getInt(row * 4L);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    double getDouble(int row) {
+        if (type == DataType.INTEGER) {
+            return data.getInt(row * 4L);
+        }
+
+        if (isVariableLength()) {
+            return super.getDouble(row);
+        }
+        return data.getDouble(row * 8L);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void trim() {
+        try {
+            data.finish();
+            if (ends != null) {
+                ends.finish();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getHeapSize() {
+        return nulls.size() / 8;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void release() {
+        data.delete();
+        if (ends != null) {
+            ends.delete();
+        }
+    }
+
+    private boolean isVariableLength() {
+        return type == DataType.STRING || type == DataType.TIMESTAMP;
+    }
+}
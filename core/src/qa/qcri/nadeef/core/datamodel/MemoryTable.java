@@ -13,6 +13,7 @@
 
 package qa.qcri.nadeef.core.datamodel;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 
@@ -20,13 +21,34 @@ import java.util.*;
 
 /**
  * MemoryTable represents a table which resides in memory.
+ *
+ * Project, order and filter only change which columns and tuples are visible through the
+ * table, the tuples themselves are never changed, so that views of the same tuples can be
+ * shared between rules.
  */
 public class MemoryTable extends Table {
     private List<Tuple> tuples;
+    // schema of the tuples.
+    private Schema tupleSchema;
+    // selected positions in tuples, null when all the tuples are visible.
+    private int[] rows;
+    private boolean isProjected;
 
     private MemoryTable(List<Tuple> tuples) {
         super(tuples.get(0).getSchema());
         this.tuples = tuples;
+        this.tupleSchema = schema;
+    }
+
+    /**
+     * Creates a view which shares the tuples and the visible columns of the given table.
+     */
+    private MemoryTable(MemoryTable table, List<Tuple> tuples, int[] rows) {
+        super(table.schema);
+        this.tuples = tuples;
+        this.tupleSchema = table.tupleSchema;
+        this.rows = rows;
+        this.isProjected = table.isProjected;
     }
 
     public static MemoryTable of(List<Tuple> tuples) {
@@ -41,8 +63,8 @@ public class MemoryTable extends Table {
      */
     @Override
     public void recycle() {
-        tuples.clear();
         tuples = null;
+        rows = null;
     }
 
     /**
@@ -50,7 +72,7 @@ public class MemoryTable extends Table {
      */
     @Override
     public int size() {
-        return tuples.size();
+        return rows == null ? tuples.size() : rows.length;
     }
 
     /**
@@ -59,34 +81,26 @@ public class MemoryTable extends Table {
     @Override
     public Tuple get(int i) {
         Preconditions.checkArgument(i >= 0 && i < size());
-        return tuples.get(i);
+        Tuple tuple = tuples.get(rows == null ? i : rows[i]);
+        return isProjected ? tuple.project(schema) : tuple;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Table project(List<Column> columns) {
-        Column[] allColumns = schema.getColumns();
-        List<Column> toRemove = Lists.newArrayList();
-
-        for (Column column : allColumns) {
-            for (Column column_ : columns) {
-                if (!column.equals(column_)) {
-                    toRemove.add(column);
-                }
-            }
-        }
-
-        Schema newSchema = new Schema(schema);
-
-        for (Column column : toRemove) {
-            newSchema.remove(column);
-        }
+    public Table view() {
+        return new MemoryTable(this, tuples, rows);
+    }
 
-        for (Tuple tuple : tuples) {
-            tuple.project(newSchema);
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Table project(List<Column> columns) {
+        Preconditions.checkNotNull(columns);
+        schema = projectSchema(tupleSchema, isProjected ? schema : null, columns);
+        isProjected = true;
         return this;
     }
 
@@ -95,7 +109,23 @@ public class MemoryTable extends Table {
      */
     @Override
     public Table orderBy(List<Column> columns) {
-        Collections.sort(tuples, TupleComparator.of(columns));
+        Preconditions.checkNotNull(columns);
+        int[] sorted = new int[size()];
+        for (int i = 0; i < sorted.length; i ++) {
+            sorted[i] = rows == null ? i : rows[i];
+        }
+
+        // each key column is decoded once, stable sorts from the last column to the first
+        // column give the lexicographic order.
+        for (int i = columns.size() - 1; i >= 0; i --) {
+            Column column = columns.get(i);
+            Object[] values = new Object[sorted.length];
+            for (int j = 0; j < sorted.length; j ++) {
+                values[j] = tuples.get(sorted[j]).get(column);
+            }
+            sorted = RadixSort.sort(RadixSort.rank(values), sorted);
+        }
+        rows = sorted;
         return this;
     }
 
@@ -104,21 +134,24 @@ public class MemoryTable extends Table {
      */
     @Override
     public Table filter(List<Predicate> expressions) {
-        List<Tuple> filtered = Lists.newArrayList();
+        Preconditions.checkNotNull(expressions);
+        int count = size();
+        int[] selected = new int[count];
+        for (int i = 0; i < count; i ++) {
+            selected[i] = rows == null ? i : rows[i];
+        }
+
+        // each predicate only visits the tuples which survived the previous predicates.
         for (Predicate expression : expressions) {
-            Column column = expression.getLeft();
-            Object value = expression.getValue();
-            for (Tuple tuple : tuples) {
-                String v = tuple.get(column).toString();
-                if (!v.equals(value)) {
-                    filtered.add(tuple);
+            int result = 0;
+            for (int i = 0; i < count; i ++) {
+                if (expression.isValid(tuples.get(selected[i]))) {
+                    selected[result ++] = selected[i];
                 }
             }
+            count = result;
         }
-
-        for (Tuple tuple : filtered) {
-            tuples.remove(tuple);
-        }
+        rows = count == selected.length ? selected : Arrays.copyOf(selected, count);
         return this;
     }
 
@@ -136,35 +169,60 @@ public class MemoryTable extends Table {
             }
         }
 
-        HashMap<String, List<Tuple>> map = new HashMap<>();
-        for (int i = 0; i < size(); i ++) {
-            Tuple tuple = get(i);
-            StringBuilder builder = new StringBuilder();
-            for (Column column : columns) {
-                Object obj = tuple.get(column);
-                if (obj != null) {
-                    builder.append(obj.toString());
-                }
-                builder.append("_");
-            }
+        int size = size();
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i ++) {
+            positions[i] = rows == null ? i : rows[i];
+        }
 
-            String hash = builder.toString();
-            // TODO: double-check the correctness
-            if (map.containsKey(hash)) {
-                List<Tuple> tupleList = map.get(hash);
-                tupleList.add(tuple);
-            } else {
-                List<Tuple> newGroup = new ArrayList<>();
-                newGroup.add(tuple);
-                map.put(hash, newGroup);
-            }
+        KeyVector[] keys = new KeyVector[columns.size()];
+        for (int i = 0; i < keys.length; i ++) {
+            keys[i] = new TupleKeyVector(tuples, columns.get(i));
         }
 
         List<Table> lists = new ArrayList<>();
-        for (List<Tuple> group : map.values()) {
-            MemoryTable newTable = MemoryTable.of(group);
-            lists.add(newTable);
+        for (int[] group : HashGrouper.group(keys, positions)) {
+            List<Tuple> groupTuples = Lists.newArrayListWithCapacity(group.length);
+            for (int row : group) {
+                groupTuples.add(tuples.get(row));
+            }
+            lists.add(new MemoryTable(this, groupTuples, null));
         }
         return lists;
     }
+    //</editor-fold>
+
+    //<editor-fold desc="Private methods">
+    /**
+     * Column of a tuple list, used as the key of grouping.
+     */
+    private static class TupleKeyVector implements KeyVector {
+        private List<Tuple> tuples;
+        private Column column;
+
+        TupleKeyVector(List<Tuple> tuples, Column column) {
+            this.tuples = tuples;
+            this.column = column;
+        }
+
+        private Object get(int row) {
+            return tuples.get(row).get(column);
+        }
+
+        @Override
+        public boolean isNull(int row) {
+            return get(row) == null;
+        }
+
+        @Override
+        public long hash(int row) {
+            return Objects.hashCode(get(row));
+        }
+
+        @Override
+        public boolean equals(int row, int otherRow) {
+            return Objects.equal(get(row), get(otherRow));
+        }
+    }
+    //</editor-fold>
 }
@@ -140,6 +140,114 @@ public final class NadeefConfiguration {
         return outputPath;
     }
 
+    /**
+     * Gets the heap budget in bytes for materialized tables. Tables exceeding the budget
+     * spill their columns into memory mapped segment files under the output path.
+     * @return heap budget in bytes, by default it is half of the maximum heap size.
+     */
+    public static long getHeapBudget() {
+        long defaultBudget = Runtime.getRuntime().maxMemory() / 2;
+        if (properties == null || !properties.containsKey("general.heapBudget")) {
+            return defaultBudget;
+        }
+        return Long.parseLong(properties.getProperty("general.heapBudget")) * 1024L * 1024L;
+    }
+
+    /**
+     * Gets the FD detection mode. In grouped mode an FD reports one violation for each LHS
+     * group with conflicting RHS values instead of one violation for each conflicting pair.
+     * @return <code>True</code> when FD violations are grouped.
+     */
+    public static boolean isGroupedFD() {
+        return properties != null &&
+            Boolean.parseBoolean(properties.getProperty("general.groupedFD", "false"));
+    }
+
+    public static void setGroupedFD(boolean isGroupedFD) {
+        properties.setProperty("general.groupedFD", Boolean.toString(isGroupedFD));
+    }
+
+    /**
+     * Gets the streaming block option. When it is on, pair rules with their own block
+     * operator read the source through one ordered scan which is cut into blocks, instead of
+     * loading the whole table. The scope and block operators of those rules can only use
+     * project, filter and groupOn on the source table.
+     * @return <code>True</code> when blocks are streamed.
+     */
+    public static boolean isStreamingBlock() {
+        return properties != null &&
+            Boolean.parseBoolean(properties.getProperty("general.streamingBlock", "false"));
+    }
+
+    public static void setStreamingBlock(boolean isStreamingBlock) {
+        properties.setProperty("general.streamingBlock", Boolean.toString(isStreamingBlock));
+    }
+
+    /**
+     * Gets the split threshold of blocks. The pairs of a block with more pairs than the
+     * threshold are split into row ranges which are iterated in parallel.
+     * @return maximum number of pairs of a block task, 0 when blocks are not split.
+     */
+    public static long getBlockSplitThreshold() {
+        long defaultThreshold = 1000000L;
+        if (properties == null || !properties.containsKey("general.blockSplitThreshold")) {
+            return defaultThreshold;
+        }
+        return Long.parseLong(properties.getProperty("general.blockSplitThreshold"));
+    }
+
+    public static void setBlockSplitThreshold(long threshold) {
+        properties.setProperty("general.blockSplitThreshold", Long.toString(threshold));
+    }
+
+    /**
+     * Gets the parallelism of the task pool shared by all the operators.
+     * @return number of worker threads.
+     */
+    public static int getParallelism() {
+        int defaultParallelism = Runtime.getRuntime().availableProcessors();
+        if (properties == null || !properties.containsKey("general.parallelism")) {
+            return defaultParallelism;
+        }
+        return Integer.parseInt(properties.getProperty("general.parallelism"));
+    }
+
+    public static void setParallelism(int parallelism) {
+        properties.setProperty("general.parallelism", Integer.toString(parallelism));
+    }
+
+    /**
+     * Gets the capacity of the channel between the iterator and the detector, i.e. the
+     * maximum number of buffers waiting for the detector.
+     * @return channel capacity.
+     */
+    public static int getIteratorChannelCapacity() {
+        if (properties == null) {
+            return 1024;
+        }
+        return Integer.parseInt(properties.getProperty("general.iteratorChannelCapacity", "1024"));
+    }
+
+    public static void setIteratorChannelCapacity(int capacity) {
+        properties.setProperty("general.iteratorChannelCapacity", Integer.toString(capacity));
+    }
+
+    /**
+     * Gets the buffer size of the iterator output, the number of items (or pairs of the
+     * batches) handed over to the detector at once.
+     * @return buffer size.
+     */
+    public static int getIteratorBufferSize() {
+        if (properties == null) {
+            return 10240;
+        }
+        return Integer.parseInt(properties.getProperty("general.iteratorBufferSize", "10240"));
+    }
+
+    public static void setIteratorBufferSize(int bufferSize) {
+        properties.setProperty("general.iteratorBufferSize", Integer.toString(bufferSize));
+    }
+
     public static int getDerbyPort() {
         return Integer.parseInt(properties.getProperty("general.derby.port", "45000"));
     }
@@ -0,0 +1,165 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * PairBatch is a batch of the tuple pairs of a block, handed to
+ * {@link PairTupleRule#detect(PairBatch)} at once instead of one {@link TuplePair} per pair.
+ *
+ * The tuples of the block are created once and shared by all the batches of the block, a
+ * pair is only the positions of its left and right tuple in them. {@link #get(int)} returns
+ * one reused pair (flyweight), so a rule evaluates a batch without allocating per pair.
+ */
+public class PairBatch {
+    /** Default number of pairs of a batch. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private Tuple[] leftTuples;
+    private Tuple[] rightTuples;
+    private int[] leftRows;
+    private int[] rightRows;
+    private int size;
+    private TuplePair pair;
+
+    //<editor-fold desc="Constructor">
+    /**
+     * Constructor.
+     * @param leftTuples tuples of the left side of the pairs.
+     * @param rightTuples tuples of the right side of the pairs, the same array as the left
+     *                    tuples for the pairs inside one block.
+     * @param capacity maximum number of pairs.
+     */
+    public PairBatch(Tuple[] leftTuples, Tuple[] rightTuples, int capacity) {
+        Preconditions.checkArgument(capacity > 0);
+        this.leftTuples = Preconditions.checkNotNull(leftTuples);
+        this.rightTuples = Preconditions.checkNotNull(rightTuples);
+        this.leftRows = new int[capacity];
+        this.rightRows = new int[capacity];
+    }
+
+    /**
+     * Constructor with the default capacity.
+     * @param leftTuples tuples of the left side of the pairs.
+     * @param rightTuples tuples of the right side of the pairs.
+     */
+    public PairBatch(Tuple[] leftTuples, Tuple[] rightTuples) {
+        this(leftTuples, rightTuples, DEFAULT_CAPACITY);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Public methods">
+    /**
+     * Gets the tuples of a table, each tuple is created once.
+     * @param table input table.
+     * @return tuples in table order.
+     */
+    public static Tuple[] getTuples(Table table) {
+        Tuple[] result = new Tuple[table.size()];
+        for (int i = 0; i < result.length; i ++) {
+            result[i] = table.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a pair.
+     * @param leftRow position of the left tuple.
+     * @param rightRow position of the right tuple.
+     */
+    public void add(int leftRow, int rightRow) {
+        leftRows[size] = leftRow;
+        rightRows[size] = rightRow;
+        size ++;
+    }
+
+    /**
+     * Creates an empty batch with the same tuples and capacity. A handed out batch can be
+     * consumed by another thread, so the next pairs go into a new batch.
+     * @return new batch.
+     */
+    public PairBatch next() {
+        return new PairBatch(leftTuples, rightTuples, leftRows.length);
+    }
+
+    /**
+     * Gets the number of pairs.
+     * @return number of pairs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <code>True</code> when the batch has no room for another pair.
+     * @return <code>True</code> when the batch is full.
+     */
+    public boolean isFull() {
+        return size == leftRows.length;
+    }
+
+    /**
+     * Gets the position of the left tuple of a pair.
+     * @param k pair index.
+     * @return left position.
+     */
+    public int getLeftRow(int k) {
+        return leftRows[k];
+    }
+
+    /**
+     * Gets the position of the right tuple of a pair.
+     * @param k pair index.
+     * @return right position.
+     */
+    public int getRightRow(int k) {
+        return rightRows[k];
+    }
+
+    /**
+     * Gets the left tuple of a pair.
+     * @param k pair index.
+     * @return left tuple.
+     */
+    public Tuple getLeft(int k) {
+        return leftTuples[leftRows[k]];
+    }
+
+    /**
+     * Gets the right tuple of a pair.
+     * @param k pair index.
+     * @return right tuple.
+     */
+    public Tuple getRight(int k) {
+        return rightTuples[rightRows[k]];
+    }
+
+    /**
+     * Gets a pair. The returned pair is reused by the next call, the tuples of the pair
+     * can be kept but the pair itself cannot.
+     * @param k pair index.
+     * @return the reused pair.
+     */
+    public TuplePair get(int k) {
+        Preconditions.checkElementIndex(k, size);
+        if (pair == null) {
+            pair = new TuplePair(getLeft(k), getRight(k));
+        } else {
+            pair.set(getLeft(k), getRight(k));
+        }
+        return pair;
+    }
+    //</editor-fold>
+}
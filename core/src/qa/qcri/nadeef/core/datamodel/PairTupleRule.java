@@ -34,6 +34,53 @@ public abstract class PairTupleRule extends Rule<TuplePair> {
      */
     public abstract Collection<Violation> detect(TuplePair pair);
 
+    /**
+     * Detect rule with a whole block. Rules whose iterator emits blocks instead of tuple
+     * pairs override this to report the violations of a block at once, by default it
+     * detects on every tuple pair of the block.
+     *
+     * @param block input block.
+     * @return Violation set.
+     */
+    public Collection<Violation> detect(Table block) {
+        List<Violation> result = Lists.newArrayList();
+        for (int i = 0; i < block.size(); i ++) {
+            for (int j = i + 1; j < block.size(); j ++) {
+                TuplePair pair = new TuplePair(block.get(i), block.get(j));
+                Collection<Violation> violations = detect(pair);
+                if (violations != null) {
+                    result.addAll(violations);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Detect rule with a batch of tuple pairs, the batches are emitted by the default
+     * iterators. By default it detects on a new {@link TuplePair} for every pair of the
+     * batch, so a rule can keep the pairs it is given.
+     *
+     * Rules override this to evaluate a batch without allocating a pair for each pair, e.g.
+     * on {@link PairBatch#getLeft(int)} and {@link PairBatch#getRight(int)}. The pair
+     * returned by {@link PairBatch#get(int)} is reused for every pair of the batch, so an
+     * override can only keep its tuples, never the pair itself.
+     *
+     * @param batch input batch.
+     * @return Violation set.
+     */
+    public Collection<Violation> detect(PairBatch batch) {
+        List<Violation> result = Lists.newArrayList();
+        for (int k = 0; k < batch.size(); k ++) {
+            TuplePair pair = new TuplePair(batch.getLeft(k), batch.getRight(k));
+            Collection<Violation> violations = detect(pair);
+            if (violations != null) {
+                result.addAll(violations);
+            }
+        }
+        return result;
+    }
+
     /**
      * Block operation.
      * @param table a collection of tables.
@@ -45,7 +92,7 @@ public abstract class PairTupleRule extends Rule<TuplePair> {
     }
 
     /**
-     * Iterator operation.
+     * Iterator operation. The pairs are emitted in {@link PairBatch}es.
      *
      * @param tables input tuple
      */
@@ -55,26 +102,50 @@ public abstract class PairTupleRule extends Rule<TuplePair> {
 
         if (collectionList.size() == 1) {
             Table tuples = collectionList.get(0);
-            for (int i = 0; i < tuples.size(); i ++) {
-                for (int j = i + 1; j < tuples.size(); j ++) {
-                    TuplePair pair = new TuplePair(tuples.get(i), tuples.get(j));
-                    iteratorResultHandler.handle(pair);
-                }
-            }
+            iterator(tuples, 0, tuples.size(), iteratorResultHandler);
         } else {
-            Table left = collectionList.get(0);
-            Table right = collectionList.get(1);
-            for (int i = 0; i < left.size(); i ++) {
-                for (int j = 0; j < right.size(); j ++) {
-                    TuplePair pair = new TuplePair(left.get(i), right.get(j));
-                    iteratorResultHandler.handle(pair);
+            Tuple[] left = PairBatch.getTuples(collectionList.get(0));
+            Tuple[] right = PairBatch.getTuples(collectionList.get(1));
+            PairBatch batch = new PairBatch(left, right);
+            for (int i = 0; i < left.length; i ++) {
+                for (int j = 0; j < right.length; j ++) {
+                    batch = add(batch, i, j, iteratorResultHandler);
                 }
             }
+            flush(batch, iteratorResultHandler);
+        }
+    }
+
+    /**
+     * Iterates the pairs of a block whose first tuple is in a row range, i.e. the pairs
+     * <code>(i, j)</code> with <code>from &lt;= i &lt; to</code> and <code>i &lt; j</code>.
+     * The ranges of an oversized block are iterated in parallel.
+     *
+     * @param block input block.
+     * @param from first row of the range.
+     * @param to end row of the range, exclusive.
+     * @param iteratorResultHandler output stream.
+     */
+    public final void iterator(
+        Table block,
+        int from,
+        int to,
+        IteratorResultHandler iteratorResultHandler
+    ) {
+        Tuple[] tuples = PairBatch.getTuples(block);
+        PairBatch batch = new PairBatch(tuples, tuples);
+        for (int i = from; i < to; i ++) {
+            for (int j = i + 1; j < tuples.length; j ++) {
+                batch = add(batch, i, j, iteratorResultHandler);
+            }
         }
+        flush(batch, iteratorResultHandler);
     }
 
     /**
-     * Incremental iterator interface.
+     * Incremental iterator interface. Only the pairs with at least one new tuple are
+     * emitted, the new tuples are looked up once per tuple and the pairs are enumerated on
+     * the positions of the new tuples.
      * @param blocks blocks.
      * @param newTuples new tuples comes in.
      * @param iteratorResultHandler output stream.
@@ -91,60 +162,92 @@ public abstract class PairTupleRule extends Rule<TuplePair> {
             Table table2 = iterator.next();
             String tableName1 = table1.getSchema().getTableName();
             String tableName2 = table2.getSchema().getTableName();
-            HashSet<Integer> tableSet1 = newTuples.get(tableName1);
-            HashSet<Integer> tableSet2 = newTuples.get(tableName2);
-            for (int i = 0; i < table1.size(); i ++) {
-                Tuple tuple1 = table1.get(i);
-                if (!tableSet1.contains(tuple1.getTid()))
+            boolean[] isNew1 = getNewPositions(table1, newTuples.get(tableName1));
+            boolean[] isNew2 = getNewPositions(table2, newTuples.get(tableName2));
+            Tuple[] tuples1 = PairBatch.getTuples(table1);
+            Tuple[] tuples2 = PairBatch.getTuples(table2);
+            PairBatch batch = new PairBatch(tuples1, tuples2);
+            for (int i = 0; i < tuples1.length; i ++) {
+                if (!isNew1[i])
                     continue;
-                for (int j = 0; j < table2.size(); j ++) {
-                    Tuple tuple2 = table2.get(j);
-                    iteratorResultHandler.handle(new TuplePair(tuple1, tuple2));
+                for (int j = 0; j < tuples2.length; j ++) {
+                    batch = add(batch, i, j, iteratorResultHandler);
                 }
             }
 
-            for (int i = 0; i < table2.size(); i ++) {
-                Tuple tuple2 = table2.get(i);
-                if (!tableSet2.contains(tuple2.getTid()))
+            for (int i = 0; i < tuples2.length; i ++) {
+                if (!isNew2[i])
                     continue;
-                for (int j = 0; j < table1.size(); j ++) {
-                    Tuple tuple1 = table1.get(j);
-                    if (tableSet1.contains(tuple1.getTid()))
+                for (int j = 0; j < tuples1.length; j ++) {
+                    if (isNew1[j])
                         continue;
-                    iteratorResultHandler.handle(new TuplePair(tuple1, tuple2));
+                    batch = add(batch, j, i, iteratorResultHandler);
                 }
             }
+            flush(batch, iteratorResultHandler);
         } else {
             // One table rule
             Table block = blocks.iterator().next();
             String tableName = block.getSchema().getTableName();
             if (newTuples.containsKey(tableName)) {
-                HashSet<Integer> newTuplesIDs = newTuples.get(tableName);
-
-                // iterating all the tuples
-                for (int i = 0; i < block.size(); i++) {
-                    Tuple tuple1 = block.get(i);
-                    if (newTuplesIDs.contains(tuple1.getTid())) {
-                        for (int j = 0; j < block.size(); j++) {
-                            if (j != i) {
-                                Tuple tuple2 = block.get(j);
-                                if (newTuplesIDs.contains(tuple2.getTid())) {
-                                    // Both are new tuples, check once
-                                    if (j > i) {
-                                        iteratorResultHandler.handle(new TuplePair(tuple1, tuple2));
-                                    }
-                                } else {
-                                    // Compare with old tuples
-                                    iteratorResultHandler.handle(new TuplePair(tuple1, tuple2));
-                                }
-                            }
-                        }
+                boolean[] isNew = getNewPositions(block, newTuples.get(tableName));
+                Tuple[] tuples = PairBatch.getTuples(block);
+                PairBatch batch = new PairBatch(tuples, tuples);
+
+                // pairs of old tuples are never enumerated.
+                for (int i = 0; i < tuples.length; i++) {
+                    if (!isNew[i])
+                        continue;
+                    for (int j = 0; j < tuples.length; j++) {
+                        // Both are new tuples, check once
+                        if (j == i || isNew[j] && j < i)
+                            continue;
+                        batch = add(batch, i, j, iteratorResultHandler);
                     }
                 }
+                flush(batch, iteratorResultHandler);
             }
         }
     }
 
+    /**
+     * Adds a pair to the batch, a full batch is emitted and the next pairs go into a new
+     * batch.
+     * @return the batch of the next pair.
+     */
+    private static PairBatch add(
+        PairBatch batch,
+        int left,
+        int right,
+        IteratorResultHandler iteratorResultHandler
+    ) {
+        batch.add(left, right);
+        if (batch.isFull()) {
+            iteratorResultHandler.handle(batch);
+            return batch.next();
+        }
+        return batch;
+    }
+
+    private static void flush(PairBatch batch, IteratorResultHandler iteratorResultHandler) {
+        if (batch.size() > 0) {
+            iteratorResultHandler.handle(batch);
+        }
+    }
+
+    /**
+     * Gets whether the tuple at each position of the table is a new tuple.
+     */
+    private static boolean[] getNewPositions(Table table, HashSet<Integer> newTupleIds) {
+        boolean[] result = new boolean[table.size()];
+        if (newTupleIds != null && !newTupleIds.isEmpty()) {
+            for (int i = 0; i < result.length; i ++) {
+                result[i] = newTupleIds.contains(table.get(i).getTid());
+            }
+        }
+        return result;
+    }
+
     /**
      * Default scope operation.
      * @param table input tuple collections.
@@ -170,15 +273,40 @@ public abstract class PairTupleRule extends Rule<TuplePair> {
      */
     @Override
     public boolean hasOwnIterator() {
-        boolean result = false;
+        Class<?> declareClass =
+            getDeclaringClass("iterator", Collection.class, IteratorResultHandler.class);
+        return declareClass != null && declareClass != PairTupleRule.class;
+    }
+
+    /**
+     * Returns <code>True</code> when the rule iterates all the pairs of its blocks with the
+     * default iterator.
+     * @return <code>True</code> when the rule does not override the iterator.
+     */
+    public boolean hasPairIterator() {
+        Class<?> declareClass =
+            getDeclaringClass("iterator", Collection.class, IteratorResultHandler.class);
+        return declareClass == PairTupleRule.class;
+    }
+
+    /**
+     * Returns <code>True</code> when the rule overrides the block operator.
+     * @return <code>True</code> when the rule has its own block operator.
+     */
+    public boolean hasOwnBlock() {
+        Class<?> declareClass = getDeclaringClass("block", Collection.class);
+        return declareClass != null && declareClass != PairTupleRule.class;
+    }
+
+    /**
+     * Gets the class which declares the given public method of this rule.
+     * @return declaring class, <code>null</code> when the method is not found.
+     */
+    private Class<?> getDeclaringClass(String methodName, Class<?>... parameterTypes) {
         try {
-            String declareClassName =
-                getClass().getMethod(
-                    "iterator",
-                    new Class[] { Collection.class, IteratorBlockingQueue.class }
-                ).getDeclaringClass().getSimpleName();
-            result = !declareClassName.equalsIgnoreCase("PairTupleRule");
-        } catch (Exception ex) {}
-        return result;
+            return getClass().getMethod(methodName, parameterTypes).getDeclaringClass();
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,366 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * PatternTableau evaluates all the patterns of a CFD tableau, e.g.
+ * <code>zip, city | state</code> with the rows <code>02139, _ | ma</code> and
+ * <code>_, _ | _</code>, over the groups of tuples sharing the same LHS values.
+ *
+ * The patterns are indexed on their LHS constants, one hash map for each set of constant
+ * LHS positions, so the patterns matching a group are found with one lookup per set instead
+ * of testing every pattern. For each RHS column, the matching patterns report every tuple
+ * of the group which differs from one of their constant RHS values, and every pair of tuples
+ * of the group which differs on the column if one of them has a wildcard there. A violation
+ * holds the LHS cells and the cells of the violated RHS column, and it is reported once no
+ * matter how many patterns match the group.
+ */
+public class PatternTableau {
+    /** Wildcard value of a pattern. */
+    public static final String WILDCARD = "_";
+
+    private List<Column> lhs;
+    private List<Column> rhs;
+    private List<String[]> patterns;
+    private volatile Index index;
+
+    /**
+     * Patterns indexed on their LHS constants, typed by the schema of the table.
+     */
+    private static class Index {
+        // the constant LHS positions of each pattern group.
+        private List<int[]> positions = Lists.newArrayList();
+        private List<HashMap<List<Object>, List<Integer>>> maps = Lists.newArrayList();
+        // typed RHS values of each pattern, null for wildcards.
+        private List<Object[]> rhsValues = Lists.newArrayList();
+    }
+
+    //<editor-fold desc="Constructor">
+    /**
+     * Constructor.
+     * @param lhs LHS columns.
+     * @param rhs RHS columns.
+     */
+    public PatternTableau(List<Column> lhs, List<Column> rhs) {
+        this.lhs = Preconditions.checkNotNull(lhs);
+        this.rhs = Preconditions.checkNotNull(rhs);
+        this.patterns = Lists.newArrayList();
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Public methods">
+    /**
+     * Adds a pattern.
+     * @param values the LHS values followed by the RHS values, {@link #WILDCARD} matches
+     *               any value.
+     */
+    public synchronized void add(String... values) {
+        Preconditions.checkArgument(values.length == lhs.size() + rhs.size());
+        patterns.add(values);
+        index = null;
+    }
+
+    /**
+     * Gets the number of patterns.
+     * @return number of patterns.
+     */
+    public int size() {
+        return patterns.size();
+    }
+
+    /**
+     * Detects the violations of a group of tuples with the same LHS values.
+     * @param ruleId rule id of the violations.
+     * @param block tuples with the same LHS values.
+     * @return violation set.
+     */
+    public Collection<Violation> detect(String ruleId, Table block) {
+        List<Violation> result = Lists.newArrayList();
+        if (block.size() == 0) {
+            return result;
+        }
+
+        Schema schema = block.getSchema();
+        Index index = getIndex(schema);
+        List<Integer> matches = match(index, block.get(0));
+        if (matches.isEmpty()) {
+            return result;
+        }
+
+        Tuple[] tuples = new Tuple[block.size()];
+        for (int i = 0; i < tuples.length; i ++) {
+            tuples[i] = block.get(i);
+        }
+
+        for (int k = 0; k < rhs.size(); k ++) {
+            Column column = rhs.get(k);
+            if (tuples.length > 1 && isWildcard(index, matches, k)) {
+                detect(ruleId, block.view().orderBy(column), column, result);
+            }
+
+            List<Object> constants = getConstants(index, matches, k);
+            if (constants.isEmpty()) {
+                continue;
+            }
+
+            int ordinal = schema.get(column);
+            DataType type = schema.getTypes()[ordinal];
+            for (Tuple tuple : tuples) {
+                Object value = getValue(tuple, ordinal, type);
+                for (Object constant : constants) {
+                    if (!constant.equals(value)) {
+                        Violation violation = new Violation(ruleId);
+                        addCells(violation, tuple, column);
+                        result.add(violation);
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Detects the violations of a pair of tuples with the same LHS values. Only the wildcard
+     * RHS columns are checked, as a constant RHS value is checked on single tuples.
+     * @param ruleId rule id of the violations.
+     * @param left left tuple.
+     * @param right right tuple.
+     * @return violation set.
+     */
+    public Collection<Violation> detect(String ruleId, Tuple left, Tuple right) {
+        List<Violation> result = Lists.newArrayList();
+        Index index = getIndex(left.getSchema());
+        List<Integer> matches = match(index, left);
+        if (matches.isEmpty()) {
+            return result;
+        }
+
+        for (int k = 0; k < rhs.size(); k ++) {
+            Column column = rhs.get(k);
+            if (isWildcard(index, matches, k) && !isSameValue(left, right, column)) {
+                Violation violation = new Violation(ruleId);
+                addCells(violation, left, column);
+                addCells(violation, right, column);
+                result.add(violation);
+            }
+        }
+        return result;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Private methods">
+    /**
+     * Reports the pairs of a group ordered on a wildcard column which differ on it.
+     */
+    private void detect(String ruleId, Table sorted, Column column, List<Violation> result) {
+        Tuple[] tuples = new Tuple[sorted.size()];
+        for (int i = 0; i < tuples.length; i ++) {
+            tuples[i] = sorted.get(i);
+        }
+
+        // every tuple of a run of equal values conflicts with all the tuples after the run.
+        int start = 0;
+        while (start < tuples.length) {
+            int end = start + 1;
+            while (end < tuples.length && isSameValue(tuples[start], tuples[end], column)) {
+                end ++;
+            }
+
+            for (int i = start; i < end; i ++) {
+                for (int j = end; j < tuples.length; j ++) {
+                    Violation violation = new Violation(ruleId);
+                    addCells(violation, tuples[i], column);
+                    addCells(violation, tuples[j], column);
+                    result.add(violation);
+                }
+            }
+            start = end;
+        }
+    }
+
+    private void addCells(Violation violation, Tuple tuple, Column rhsColumn) {
+        for (Column column : lhs) {
+            violation.addCell(tuple.getCell(column));
+        }
+        violation.addCell(tuple.getCell(rhsColumn));
+    }
+
+    /**
+     * Returns <code>True</code> when one of the matching patterns has a wildcard on the RHS
+     * column.
+     */
+    private static boolean isWildcard(Index index, List<Integer> matches, int k) {
+        for (int pattern : matches) {
+            if (index.rhsValues.get(pattern)[k] == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the distinct constant values of the matching patterns on the RHS column.
+     */
+    private static List<Object> getConstants(Index index, List<Integer> matches, int k) {
+        List<Object> result = Lists.newArrayList();
+        for (int pattern : matches) {
+            Object value = index.rhsValues.get(pattern)[k];
+            if (value != null && !result.contains(value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isSameValue(Tuple left, Tuple right, Column column) {
+        return Objects.equal(left.get(column), right.get(column));
+    }
+
+    /**
+     * Gets the matching patterns of the LHS values of a tuple in the tableau order.
+     */
+    private List<Integer> match(Index index, Tuple tuple) {
+        List<Integer> result = Lists.newArrayList();
+        for (int i = 0; i < index.positions.size(); i ++) {
+            List<Integer> found = index.maps.get(i).get(getKey(tuple, index.positions.get(i)));
+            if (found != null) {
+                result.addAll(found);
+            }
+        }
+
+        if (index.positions.size() > 1) {
+            Collections.sort(result);
+        }
+        return result;
+    }
+
+    private List<Object> getKey(Tuple tuple, int[] positions) {
+        Schema schema = tuple.getSchema();
+        List<Object> result = Lists.newArrayListWithCapacity(positions.length);
+        for (int position : positions) {
+            int ordinal = schema.get(lhs.get(position));
+            result.add(getValue(tuple, ordinal, schema.getTypes()[ordinal]));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index typed by the given schema, it is built on the first use.
+     */
+    private Index getIndex(Schema schema) {
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = createIndex(schema);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Index createIndex(Schema schema) {
+        Index result = new Index();
+        HashMap<String, Integer> groups = Maps.newHashMap();
+        for (int i = 0; i < patterns.size(); i ++) {
+            String[] pattern = patterns.get(i);
+            int[] positions = new int[lhs.size()];
+            int count = 0;
+            List<Object> key = Lists.newArrayList();
+            for (int k = 0; k < lhs.size(); k ++) {
+                if (!pattern[k].equals(WILDCARD)) {
+                    positions[count ++] = k;
+                    key.add(getConstant(schema, lhs.get(k), pattern[k]));
+                }
+            }
+            positions = Arrays.copyOf(positions, count);
+
+            String group = Arrays.toString(positions);
+            Integer groupIndex = groups.get(group);
+            if (groupIndex == null) {
+                groupIndex = result.positions.size();
+                groups.put(group, groupIndex);
+                result.positions.add(positions);
+                result.maps.add(Maps.<List<Object>, List<Integer>>newHashMap());
+            }
+
+            HashMap<List<Object>, List<Integer>> map = result.maps.get(groupIndex);
+            List<Integer> matches = map.get(key);
+            if (matches == null) {
+                matches = Lists.newArrayList();
+                map.put(key, matches);
+            }
+            matches.add(i);
+
+            Object[] rhsValues = new Object[rhs.size()];
+            for (int k = 0; k < rhs.size(); k ++) {
+                String value = pattern[lhs.size() + k];
+                if (!value.equals(WILDCARD)) {
+                    rhsValues[k] = getConstant(schema, rhs.get(k), value);
+                }
+            }
+            result.rhsValues.add(rhsValues);
+        }
+        return result;
+    }
+
+    /**
+     * Converts a pattern constant into the value type of the column, numerical constants
+     * are compared on their values as the predicates do.
+     */
+    private static Object getConstant(Schema schema, Column column, String value) {
+        switch (schema.getType(column)) {
+            case INTEGER:
+                return Integer.parseInt(value);
+            case FLOAT:
+                return Float.parseFloat(value);
+            case DOUBLE:
+                return Double.parseDouble(value);
+            default:
+                return value;
+        }
+    }
+
+    private static Object getValue(Tuple tuple, int ordinal, DataType type) {
+        if (tuple.isNull(ordinal)) {
+            return null;
+        }
+
+        switch (type) {
+            case INTEGER:
+                return tuple.getInt(ordinal);
+            case FLOAT:
+                return (float)tuple.getDouble(ordinal);
+            case DOUBLE:
+                return tuple.getDouble(ordinal);
+            default:
+                return tuple.get(ordinal);
+        }
+    }
+    //</editor-fold>
+}
@@ -51,6 +51,10 @@ public class Predicate {
     private Column left;
     private Column right;
     private Object value;
+    // the constant parsed once for numerical columns, null when it is not such a number.
+    private Integer intValue;
+    private Float floatValue;
+    private Double doubleValue;
     private boolean isSingle;
 
     public static class PredicateBuilder {
@@ -107,6 +111,17 @@ public class Predicate {
             exp.left = left;
             exp.right = right;
             exp.value = value;
+            if (value != null) {
+                String constant = value.toString();
+                try {
+                    exp.intValue = Integer.valueOf(constant);
+                } catch (NumberFormatException ex) {}
+
+                try {
+                    exp.floatValue = Float.valueOf(constant);
+                    exp.doubleValue = Double.valueOf(constant);
+                } catch (NumberFormatException ex) {}
+            }
             exp.operation = operation;
             exp.isSingle = isSingle;
             return exp;
@@ -197,7 +212,7 @@ public class Predicate {
             if (isRightConstant) {
                 result =
                     new PredicateBuilder()
-                        .left(new Column(tableName, leftColumnName))
+                        .left(Column.of(tableName, leftColumnName))
                         .op(operationStr)
                         .constant(rightColumnName)
                         .isSingle()
@@ -205,16 +220,16 @@ public class Predicate {
             } else if (isSingle) {
                 result =
                     new PredicateBuilder()
-                        .left(new Column(tableName, leftColumnName))
-                        .right(new Column(tableName, rightColumnName))
+                        .left(Column.of(tableName, leftColumnName))
+                        .right(Column.of(tableName, rightColumnName))
                         .isSingle()
                         .op(operationStr)
                         .build();
             } else {
                 result =
                     new PredicateBuilder()
-                        .left(new Column(tableName, leftColumnName))
-                        .right(new Column(tableName, rightColumnName))
+                        .left(Column.of(tableName, leftColumnName))
+                        .right(Column.of(tableName, rightColumnName))
                         .op(operationStr)
                         .build();
             }
@@ -229,57 +244,9 @@ public class Predicate {
      * @param tuple tuple.
      * @return <code>True</code> when the tuple matches the given predicate.
      */
-    @SuppressWarnings("unchecked")
     public boolean isValid(Tuple tuple) {
         Preconditions.checkArgument(isSingle());
-        Object leftValue = tuple.get(left);
-        Comparable leftComparable = (Comparable)leftValue;
-        int compareResult;
-        if (!isRightConstant()) {
-            Object rightValue = tuple.get(right);
-
-            if (leftValue == null || rightValue == null) {
-                tracer.info("Tuple attribute contains NULL value.");
-            }
-
-            if (leftValue == null && rightValue == null) {
-                compareResult = 0;
-            } else if (leftValue == null || rightValue == null) {
-                compareResult = 1;
-            } else {
-                compareResult = leftComparable.compareTo(rightValue);
-            }
-        } else {
-            if (leftValue == null) {
-                tracer.info("Tuple attribute contains NULL value.");
-                compareResult = 1;
-            } else {
-                DataType type = tuple.getSchema().getType(left);
-                // TODO: should move during parsing?
-                switch (type) {
-                    case INTEGER:
-                        compareResult =
-                            leftComparable.compareTo(Integer.parseInt((String)value));
-                        break;
-                    case FLOAT:
-                        // special case for postgres when reading real is always DOUBLE.
-                        if (leftValue instanceof Double) {
-                            compareResult =
-                                leftComparable.compareTo(Double.parseDouble((String) value));
-                        } else {
-                            compareResult =
-                                leftComparable.compareTo(Float.parseFloat((String)value));
-                        }
-                        break;
-                    case DOUBLE:
-                        compareResult = leftComparable.compareTo(Double.parseDouble((String)value));
-                        break;
-                    default:
-                        compareResult = leftComparable.compareTo(value);
-                }
-            }
-        }
-        return validResult(compareResult);
+        return validResult(compare(tuple, tuple));
     }
 
     /**
@@ -288,50 +255,8 @@ public class Predicate {
      * @param tupleRight right tuple.
      * @return <code>True</code> when the tuple matches the given predicate.
      */
-    @SuppressWarnings("unchecked")
     public boolean isValid(Tuple tupleLeft, Tuple tupleRight) {
-        Object leftValue = tupleLeft.get(left);
-        Comparable leftComparable = (Comparable)leftValue;
-        int compareResult;
-        if (isRightConstant()) {
-            if (leftValue == null) {
-                tracer.info("Tuple attribute contains NULL value.");
-                compareResult = 1;
-            } else {
-                DataType type = tupleLeft.getSchema().getType(left);
-                // TODO: should move during parsing?
-                switch (type) {
-                    case INTEGER:
-                        compareResult =
-                            leftComparable.compareTo(Integer.parseInt((String)value));
-                        break;
-                    case FLOAT:
-                        compareResult =
-                            leftComparable.compareTo(Float.parseFloat((String)value));
-                        break;
-                    case DOUBLE:
-                        compareResult =
-                            leftComparable.compareTo(Double.parseDouble((String)value));
-                        break;
-                    default:
-                        compareResult = leftComparable.compareTo(value);
-                }
-            }
-        } else {
-            Object rightValue = tupleRight.get(right);
-            if (leftValue == null || rightValue == null) {
-                tracer.info("Tuple attribute contains NULL value.");
-            }
-
-            if (leftValue == null && rightValue == null) {
-                compareResult = 0;
-            } else if (leftValue == null || rightValue == null) {
-                compareResult = 1;
-            } else {
-                compareResult = ((Comparable)leftValue).compareTo(rightValue);
-            }
-        }
-        return validResult(compareResult);
+        return validResult(compare(tupleLeft, tupleRight));
     }
 
     // TODO: to improve
@@ -379,7 +304,89 @@ public class Predicate {
         return isSingle;
     }
 
-    private boolean validResult(int compareResult) {
+    /**
+     * Compares the left value with the right value or the constant. Numerical values are
+     * compared on their primitive values without boxing.
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(Tuple tupleLeft, Tuple tupleRight) {
+        Schema leftSchema = tupleLeft.getSchema();
+        int leftIndex = leftSchema.get(left);
+        DataType leftType = leftSchema.getTypes()[leftIndex];
+        boolean isLeftNull = tupleLeft.isNull(leftIndex);
+        int compareResult;
+        if (isRightConstant()) {
+            if (isLeftNull) {
+                tracer.info("Tuple attribute contains NULL value.");
+                compareResult = 1;
+            } else {
+                switch (leftType) {
+                    case INTEGER:
+                        compareResult =
+                            Integer.compare(tupleLeft.getInt(leftIndex), getNumber(intValue));
+                        break;
+                    case FLOAT:
+                        compareResult =
+                            Float.compare(
+                                (float)tupleLeft.getDouble(leftIndex),
+                                getNumber(floatValue)
+                            );
+                        break;
+                    case DOUBLE:
+                        compareResult =
+                            Double.compare(
+                                tupleLeft.getDouble(leftIndex),
+                                getNumber(doubleValue)
+                            );
+                        break;
+                    default:
+                        Comparable leftComparable = (Comparable)tupleLeft.get(leftIndex);
+                        compareResult = leftComparable.compareTo(value);
+                }
+            }
+        } else {
+            Schema rightSchema = tupleRight.getSchema();
+            int rightIndex = rightSchema.get(right);
+            boolean isRightNull = tupleRight.isNull(rightIndex);
+            if (isLeftNull || isRightNull) {
+                tracer.info("Tuple attribute contains NULL value.");
+                compareResult = isLeftNull && isRightNull ? 0 : 1;
+            } else if (
+                isNumerical(leftType) && isNumerical(rightSchema.getTypes()[rightIndex])
+            ) {
+                compareResult =
+                    Double.compare(
+                        tupleLeft.getDouble(leftIndex),
+                        tupleRight.getDouble(rightIndex)
+                    );
+            } else {
+                Comparable leftComparable = (Comparable)tupleLeft.get(leftIndex);
+                compareResult = leftComparable.compareTo(tupleRight.get(rightIndex));
+            }
+        }
+        return compareResult;
+    }
+
+    /**
+     * Gets the parsed constant of a numerical column.
+     */
+    private <T extends Number> T getNumber(T number) {
+        if (number == null) {
+            throw new NumberFormatException("Constant " + value + " is not a number.");
+        }
+        return number;
+    }
+
+    static boolean isNumerical(DataType type) {
+        return type == DataType.INTEGER || type == DataType.FLOAT || type == DataType.DOUBLE;
+    }
+
+    /**
+     * Returns <code>True</code> when a compare result satisfies the operation.
+     * @param compareResult result of comparing the left value with the right value.
+     * @return <code>True</code> when the compare result satisfies the operation.
+     */
+    boolean validResult(int compareResult) {
         boolean result;
         switch (operation){
             case EQ:
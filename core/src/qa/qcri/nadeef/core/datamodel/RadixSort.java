@@ -0,0 +1,119 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Stable LSD radix sort of row positions on order-preserving long keys. Byte passes on
+ * which all the keys agree are skipped, so small integer keys and dictionary ranks are
+ * sorted in a few linear passes.
+ */
+final class RadixSort {
+    private static final int BITS = 8;
+    private static final int BUCKETS = 1 << BITS;
+    private static final int MASK = BUCKETS - 1;
+
+    private RadixSort() {}
+
+    /**
+     * Sorts the rows on their keys, rows with equal keys keep their input order.
+     * @param keys signed key of each row.
+     * @param rows row positions.
+     * @return sorted row positions.
+     */
+    static int[] sort(long[] keys, int[] rows) {
+        int n = rows.length;
+        long[] keySource = new long[n];
+        for (int i = 0; i < n; i ++) {
+            // flip the sign bit so the unsigned byte order equals the signed order.
+            keySource[i] = keys[i] ^ Long.MIN_VALUE;
+        }
+        int[] rowSource = rows.clone();
+        long[] keyTarget = new long[n];
+        int[] rowTarget = new int[n];
+        int[] counts = new int[BUCKETS];
+
+        for (int shift = 0; shift < Long.SIZE; shift += BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i ++) {
+                counts[(int)(keySource[i] >>> shift) & MASK] ++;
+            }
+
+            if (n == 0 || counts[(int)(keySource[0] >>> shift) & MASK] == n) {
+                continue;
+            }
+
+            int offset = 0;
+            for (int i = 0; i < BUCKETS; i ++) {
+                int count = counts[i];
+                counts[i] = offset;
+                offset += count;
+            }
+
+            for (int i = 0; i < n; i ++) {
+                int index = counts[(int)(keySource[i] >>> shift) & MASK] ++;
+                keyTarget[index] = keySource[i];
+                rowTarget[index] = rowSource[i];
+            }
+
+            long[] keySwap = keySource;
+            keySource = keyTarget;
+            keyTarget = keySwap;
+            int[] rowSwap = rowSource;
+            rowSource = rowTarget;
+            rowTarget = rowSwap;
+        }
+        return rowSource;
+    }
+
+    /**
+     * Gets order-preserving sort keys of values, NULL values sort first. Each value is
+     * ranked among the distinct values.
+     * @param values values.
+     * @return sort key of each value.
+     */
+    @SuppressWarnings("unchecked")
+    static long[] rank(final Object[] values) {
+        Integer[] order = new Integer[values.length];
+        for (int i = 0; i < values.length; i ++) {
+            order[i] = i;
+        }
+
+        Comparator<Integer> comparator = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                Object value1 = values[i1];
+                Object value2 = values[i2];
+                if (value1 == null || value2 == null) {
+                    return value1 == null ? (value2 == null ? 0 : -1) : 1;
+                }
+                return ((Comparable)value1).compareTo(value2);
+            }
+        };
+        Arrays.sort(order, comparator);
+
+        long[] result = new long[values.length];
+        long rank = 0;
+        for (int i = 0; i < order.length; i ++) {
+            if (i > 0 && comparator.compare(order[i - 1], order[i]) != 0) {
+                rank ++;
+            }
+            result[order[i]] = rank;
+        }
+        return result;
+    }
+}
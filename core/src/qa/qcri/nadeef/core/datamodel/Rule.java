@@ -85,6 +85,18 @@ public abstract class Rule<E> {
      */
     public abstract Collection<Table> block(Collection<Table> table);
 
+    /**
+     * Co-group operator, a rule over two tables is co-grouped instead of being blocked.
+     * The result is a list of block pairs where each block of the first table is followed by
+     * the block of the second table it is paired with, see {@link Table#coGroupOn}. By
+     * default the two tables are returned, so all their tuples are paired.
+     * @param tables the two tables of the rule.
+     * @return block pairs.
+     */
+    public Collection<Table> coGroup(Collection<Table> tables) {
+        return tables;
+    }
+
     /**
      * Iterator operator.
      * @param tables a collection of tables.
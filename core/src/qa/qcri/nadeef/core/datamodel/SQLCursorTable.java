@@ -0,0 +1,500 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import qa.qcri.nadeef.core.utils.sql.DBConnectionPool;
+import qa.qcri.nadeef.core.utils.sql.SQLDialectBase;
+import qa.qcri.nadeef.core.utils.sql.SQLDialectFactory;
+import qa.qcri.nadeef.core.utils.sql.SQLQueryBuilder;
+import qa.qcri.nadeef.tools.Logger;
+
+import java.sql.*;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SQLCursorTable is a forward-only {@link Table} which streams the tuples from a server-side
+ * database cursor instead of loading the whole table into memory. It fits rules which visit
+ * every tuple exactly once, e.g. a {@link SingleTupleRule} without its own blocking.
+ *
+ * Project, order and filter are pushed into the query and must be called before the cursor
+ * is opened. The tuples can only be read in order, either through {@link #iterator()} or
+ * through {@link #get(int)} with increasing indexes, or as blocks through
+ * {@link #groupOn(java.util.List)}.
+ */
+public class SQLCursorTable extends Table {
+    private static Logger tracer = Logger.getLogger(SQLCursorTable.class);
+    private static final int FETCH_SIZE = 4096;
+
+    private DBConnectionPool connectionFactory;
+    private SQLDialectBase dialectManager;
+    private SQLQueryBuilder sqlQuery;
+
+    // cursor state.
+    private Connection conn;
+    private Statement stat;
+    private ResultSet resultSet;
+    private int tidIndex;
+    private int position = -1;
+    private Tuple current;
+    // rows read from the cursor in one fetch, the tuples are views on its columns.
+    private ColumnarTable chunk;
+    private int chunkPosition;
+    private boolean isDrained;
+    private boolean isExhausted;
+    private int size = -1;
+
+    //<editor-fold desc="Constructor">
+    /**
+     * Constructor with database connection.
+     * @param tableName table name.
+     * @param connectionFactory database connection pool.
+     */
+    public SQLCursorTable(String tableName, DBConnectionPool connectionFactory) {
+        super(tableName);
+        this.connectionFactory = Preconditions.checkNotNull(connectionFactory);
+        this.dialectManager =
+            SQLDialectFactory.getDialectManagerInstance(
+                connectionFactory.getSourceDBConfig().getDialect()
+            );
+        this.sqlQuery = new SQLQueryBuilder();
+        this.sqlQuery.addFrom(tableName);
+    }
+
+    /**
+     * Constructor with an existing query.
+     * @param tableName table name.
+     * @param connectionFactory database connection pool.
+     * @param sqlQuery query of the table, it is copied.
+     */
+    SQLCursorTable(
+        String tableName,
+        DBConnectionPool connectionFactory,
+        SQLQueryBuilder sqlQuery
+    ) {
+        this(tableName, connectionFactory);
+        this.sqlQuery = new SQLQueryBuilder(sqlQuery);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Table Interface">
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Schema getSchema() {
+        if (schema == null) {
+            SQLQueryBuilder builder = new SQLQueryBuilder(sqlQuery);
+            builder.setLimit(1);
+            try (
+                Connection conn = connectionFactory.getSourceConnection();
+                Statement stat = conn.createStatement();
+                ResultSet resultSet = stat.executeQuery(builder.build(dialectManager))
+            ) {
+                schema = SQLTable.createSchema(tableName, resultSet.getMetaData());
+            } catch (Exception ex) {
+                tracer.error("Cannot get valid schema.", ex);
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Gets the number of tuples. Once the cursor is consumed this is the number of streamed
+     * tuples, before that the tuples are counted by the database.
+     * @return number of tuples.
+     */
+    @Override
+    public int size() {
+        if (isExhausted) {
+            return position + 1;
+        }
+
+        if (size < 0) {
+            String sql =
+                String.format("SELECT COUNT(*) FROM (%s) T", sqlQuery.build(dialectManager));
+            try (
+                Connection conn = connectionFactory.getSourceConnection();
+                Statement stat = conn.createStatement();
+                ResultSet resultSet = stat.executeQuery(sql)
+            ) {
+                resultSet.next();
+                size = resultSet.getInt(1);
+            } catch (SQLException ex) {
+                throw new RuntimeException("Counting the tuples failed.", ex);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the tuple at the index. Only the current tuple or the next tuple can be read.
+     * @param i tuple index.
+     * @return tuple instance.
+     */
+    @Override
+    public Tuple get(int i) {
+        if (i == position && current != null) {
+            return current;
+        }
+
+        if (i != position + 1) {
+            throw new UnsupportedOperationException(
+                String.format(
+                    "SQLCursorTable is forward-only, cannot read %d after %d.", i, position
+                )
+            );
+        }
+
+        Tuple tuple = advance();
+        if (tuple == null) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+        return tuple;
+    }
+
+    /**
+     * Gets an iterator which streams the tuples from the cursor.
+     * @return tuple iterator.
+     */
+    @Override
+    public java.util.Iterator<Tuple> iterator() {
+        Preconditions.checkState(position == -1, "The cursor has been consumed.");
+        return new AbstractIterator<Tuple>() {
+            @Override
+            protected Tuple computeNext() {
+                Tuple tuple = advance();
+                return tuple == null ? endOfData() : tuple;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Table project(List<Column> columns) {
+        checkNotOpened();
+        for (Column column : columns) {
+            sqlQuery.addSelect(column.getColumnName());
+        }
+        schema = null;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Table orderBy(List<Column> columns) {
+        checkNotOpened();
+        for (Column column : columns) {
+            sqlQuery.addOrder(column.getColumnName());
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Table filter(List<Predicate> expressions) {
+        checkNotOpened();
+        for (Predicate expression : expressions) {
+            sqlQuery.addWhere(expression.toSQLString());
+        }
+        size = -1;
+        return this;
+    }
+
+    /**
+     * Groups the tuples with one scan. The cursor is ordered on the grouping columns and cut
+     * into a block whenever the grouping values change, so each block is available as soon
+     * as its last tuple is read. Any previous order of the table is replaced.
+     *
+     * The blocks are streamed and can only be iterated once, the grouping columns need to be
+     * in the projection.
+     * @param columns grouping columns.
+     * @return blocks.
+     */
+    @Override
+    public Collection<Table> groupOn(List<Column> columns) {
+        Preconditions.checkArgument(columns != null && columns.size() > 0);
+        checkNotOpened();
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < columns.size(); i ++) {
+            if (i > 0) {
+                keys.append(",");
+            }
+            keys.append(columns.get(i).getColumnName());
+        }
+
+        sqlQuery.clearOrder();
+        String countSql =
+            String.format(
+                "SELECT COUNT(*) FROM (SELECT DISTINCT %s FROM (%s) T) D",
+                keys.toString(),
+                sqlQuery.build(dialectManager)
+            );
+        orderBy(columns);
+        return new BlockCollection(columns, countSql);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recycle() {
+        close();
+        current = null;
+        chunk = null;
+        connectionFactory = null;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Private members">
+    private void checkNotOpened() {
+        Preconditions.checkState(
+            position == -1 && resultSet == null,
+            "The cursor has been opened."
+        );
+    }
+
+    /**
+     * Moves the cursor to the next tuple.
+     * @return next tuple, or <code>null</code> when the cursor is exhausted.
+     */
+    private Tuple advance() {
+        if (isExhausted) {
+            return null;
+        }
+
+        try {
+            if (chunk == null || chunkPosition == chunk.size()) {
+                chunk = nextChunk();
+                chunkPosition = 0;
+                if (chunk == null) {
+                    isExhausted = true;
+                    current = null;
+                    return null;
+                }
+            }
+
+            current = chunk.get(chunkPosition ++);
+            position ++;
+            return current;
+        } catch (Exception ex) {
+            close();
+            throw new RuntimeException("Reading from the cursor failed.", ex);
+        }
+    }
+
+    /**
+     * Reads the next rows of the cursor into column vectors with the typed JDBC getters.
+     * @return rows, or <code>null</code> when the cursor is exhausted.
+     */
+    private ColumnarTable nextChunk() throws SQLException {
+        if (isDrained) {
+            return null;
+        }
+
+        if (resultSet == null) {
+            open();
+        }
+
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema, FETCH_SIZE);
+        int count = 0;
+        while (count < FETCH_SIZE) {
+            if (!resultSet.next()) {
+                isDrained = true;
+                close();
+                break;
+            }
+            builder.add(tidIndex == 0 ? 1 : resultSet.getInt(tidIndex), resultSet);
+            count ++;
+        }
+        return count == 0 ? null : builder.build();
+    }
+
+    private void open() throws SQLException {
+        String sql = sqlQuery.build(dialectManager);
+        conn = connectionFactory.getSourceConnection();
+        // the cursor is only kept on the server when auto commit is off.
+        conn.setAutoCommit(false);
+        stat = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stat.setFetchSize(FETCH_SIZE);
+        resultSet = stat.executeQuery(sql);
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        schema = SQLTable.createSchema(tableName, metaData);
+        tidIndex = SQLTable.getTidIndex(metaData);
+        if (tidIndex == 0) {
+            tracer.info("Table does not have an TID column, use 1 as default.");
+        }
+    }
+
+    /**
+     * Gets the JDBC indexes of the columns in the opened cursor.
+     */
+    private int[] getIndexes(List<Column> columns) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int[] result = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i ++) {
+            String columnName = columns.get(i).getColumnName();
+            for (int j = 1; j <= metaData.getColumnCount(); j ++) {
+                if (metaData.getColumnName(j).equalsIgnoreCase(columnName)) {
+                    result[i] = j;
+                    break;
+                }
+            }
+
+            if (result[i] == 0) {
+                throw new IllegalStateException(
+                    "Grouping column " + columnName + " is not in the projection."
+                );
+            }
+        }
+        return result;
+    }
+
+    private Object[] getValues(int[] indexes) throws SQLException {
+        Object[] result = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i ++) {
+            result[i] = resultSet.getObject(indexes[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the block starting at the current row of the cursor. The cursor is left on the
+     * first row of the next block, or closed when there is no next block.
+     */
+    private Table nextBlock(int[] keyIndexes) throws Exception {
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema, 16);
+        Object[] keys = getValues(keyIndexes);
+        boolean hasNext;
+        do {
+            builder.add(tidIndex == 0 ? 1 : resultSet.getInt(tidIndex), resultSet);
+            position ++;
+            hasNext = resultSet.next();
+        } while (hasNext && Arrays.equals(keys, getValues(keyIndexes)));
+
+        if (!hasNext) {
+            isExhausted = true;
+            close();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Blocks which are cut from the ordered cursor while they are iterated.
+     */
+    private class BlockCollection extends AbstractCollection<Table> {
+        private List<Column> columns;
+        private String countSql;
+        private int blockCount;
+        private int size = -1;
+
+        BlockCollection(List<Column> columns, String countSql) {
+            this.columns = columns;
+            this.countSql = countSql;
+        }
+
+        @Override
+        public java.util.Iterator<Table> iterator() {
+            checkNotOpened();
+            return new AbstractIterator<Table>() {
+                private int[] keyIndexes;
+
+                @Override
+                protected Table computeNext() {
+                    try {
+                        if (keyIndexes == null) {
+                            open();
+                            keyIndexes = getIndexes(columns);
+                            if (!resultSet.next()) {
+                                isExhausted = true;
+                                close();
+                            }
+                        }
+
+                        if (isExhausted) {
+                            return endOfData();
+                        }
+
+                        blockCount ++;
+                        return nextBlock(keyIndexes);
+                    } catch (Exception ex) {
+                        close();
+                        throw new RuntimeException("Reading blocks from the cursor failed.", ex);
+                    }
+                }
+            };
+        }
+
+        /**
+         * Gets the number of blocks. Once the cursor is consumed this is the number of
+         * streamed blocks, before that the groups are counted by the database.
+         */
+        @Override
+        public int size() {
+            if (isExhausted) {
+                return blockCount;
+            }
+
+            if (size < 0) {
+                try (
+                    Connection conn = connectionFactory.getSourceConnection();
+                    Statement stat = conn.createStatement();
+                    ResultSet resultSet = stat.executeQuery(countSql)
+                ) {
+                    resultSet.next();
+                    size = resultSet.getInt(1);
+                } catch (SQLException ex) {
+                    throw new RuntimeException("Counting the blocks failed.", ex);
+                }
+            }
+            return size;
+        }
+    }
+
+    private void close() {
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+
+            if (stat != null) {
+                stat.close();
+            }
+
+            if (conn != null) {
+                conn.commit();
+                conn.close();
+            }
+        } catch (SQLException ex) {
+            tracer.error("Closing the cursor failed.", ex);
+        } finally {
+            resultSet = null;
+            stat = null;
+            conn = null;
+        }
+    }
+    //</editor-fold>
+}
@@ -15,7 +15,6 @@ package qa.qcri.nadeef.core.datamodel;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.Lists;
 
 import qa.qcri.nadeef.core.utils.sql.DBConnectionPool;
 import qa.qcri.nadeef.core.utils.sql.SQLDialectBase;
@@ -30,6 +29,7 @@ import java.nio.charset.Charset;
 import java.sql.*;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -42,7 +42,8 @@ public class SQLTable extends Table {
     private SQLDialectBase dialectManager;
     private String tableName;
     private SQLQueryBuilder sqlQuery;
-    private List<Tuple> tuples;
+    private ColumnarTable tuples;
+    private Set<Integer> newTuples;
     private long updateTimestamp = -1;
     private long changeTimestamp = System.currentTimeMillis();
     private Object lock;
@@ -68,6 +69,22 @@ public class SQLTable extends Table {
 
     //</editor-fold>
 
+    /**
+     * Marks the new tuples of an incremental detection, the groups of the table only
+     * contain the groups of the new tuples, see {@link ColumnarTable#setDelta(Set)}.
+     * @param newTuples tuple ids of the new tuples.
+     * @return this table.
+     */
+    public SQLTable setDelta(Set<Integer> newTuples) {
+        this.newTuples = Preconditions.checkNotNull(newTuples);
+        synchronized (lock) {
+            if (tuples != null) {
+                tuples.setDelta(newTuples);
+            }
+        }
+        return this;
+    }
+
     //<editor-fold desc="Table Interface">
     /**
      * Gets the size of the collection.
@@ -108,6 +125,17 @@ public class SQLTable extends Table {
         return tuples.get(i);
     }
 
+    /**
+     * Creates an in-memory view of the loaded rows. Project, order and filter on the view
+     * do not reload the table.
+     * @return table view.
+     */
+    @Override
+    public Table view() {
+        syncDataIfNeeded();
+        return tuples.view();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -160,60 +188,22 @@ public class SQLTable extends Table {
     @Override public Collection<Table> groupOn(List<Column> columns) {
         // TODO: check memory constraints
         this.syncDataIfNeeded();
-        MemoryTable table = MemoryTable.of(this.tuples);
-        return table.groupOn(columns);
+        return tuples.groupOn(columns);
     }
 
     /**
-     * Group on operation with memory constraints.
+     * Group on operation with memory constraints. The table is not loaded, instead the
+     * blocks are cut from one ordered scan of the query and streamed while the result is
+     * iterated, see {@link SQLCursorTable#groupOn(java.util.List)}.
      */
     public Collection<Table> groupOnConstrained(List<Column> columns) {
-        Collection<Table> result = Lists.newArrayList();
-        ResultSet distinctResult = null;
-
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < columns.size(); i ++) {
-            if (i > 0)
-                builder.append(",");
-            String columnName = columns.get(i).getColumnName();
-            builder.append(columnName);
-            connectionFactory.createIndexIfNotExist(tableName, columnName);
-        }
-        String sql = String.format("SELECT DISTINCT %s FROM %s", builder.toString(), tableName);
-
-        try (Connection conn = connectionFactory.getSourceConnection();
-             Statement stat = conn.createStatement()) {
+        for (Column column : columns) {
             // create index ad-hoc.
-            stat.setFetchSize(8192);
-            distinctResult = stat.executeQuery(sql);
-
-            while (distinctResult.next()) {
-                SQLTable newTable =
-                    new SQLTable(tableName, connectionFactory);
-                newTable.sqlQuery = new SQLQueryBuilder(sqlQuery);
-                for (int i = 0; i < columns.size(); i ++) {
-                    Column column = columns.get(i);
-                    Object value = distinctResult.getObject(i + 1);
-                    Predicate columnFilter =
-                        new Predicate.PredicateBuilder()
-                            .left(column)
-                            .isSingle()
-                            .constant(value)
-                            .op(Operation.EQ).build();
-                    newTable.sqlQuery.addWhere(columnFilter.toSQLString());
-                }
-                result.add(newTable);
-            }
-        } catch (Exception ex) {
-            tracer.error(ex.getMessage(), ex);
-        } finally {
-            if (distinctResult != null) {
-                try {
-                    distinctResult.close();
-                } catch (Exception ex) {}
-            }
+            connectionFactory.createIndexIfNotExist(tableName, column.getColumnName());
         }
-        return result;
+
+        SQLCursorTable cursor = new SQLCursorTable(tableName, connectionFactory, sqlQuery);
+        return cursor.groupOn(columns);
     }
 
     //</editor-fold>
@@ -272,17 +262,7 @@ public class SQLTable extends Table {
             ResultSet resultSet = stat.executeQuery(sql);
         ) {
             // tracer.verbose(sql);
-            ResultSetMetaData metaData = resultSet.getMetaData();
-            int count = metaData.getColumnCount();
-            Column[] columns = new Column[count];
-            DataType[] types = new DataType[count];
-            for (int i = 1; i <= count; i ++) {
-                String attributeName = metaData.getColumnName(i);
-                columns[i - 1] = new Column(tableName, attributeName);
-                types[i - 1] = DataType.getDataType(metaData.getColumnTypeName(i));
-            }
-
-            schema = new Schema(tableName, columns, types);
+            schema = createSchema(tableName, resultSet.getMetaData());
         } catch (Exception ex) {
             tracer.error("Cannot get valid schema.", ex);
         }
@@ -308,38 +288,24 @@ public class SQLTable extends Table {
 
             // fill the schema
             ResultSetMetaData metaData = resultSet.getMetaData();
-            int count = metaData.getColumnCount();
-            int tidIndex = 0;
-            Column[] columns = new Column[count];
-            DataType[] types = new DataType[count];
-            for (int i = 1; i <= count; i ++) {
-                String columnName = metaData.getColumnName(i);
-                columns[i - 1] = new Column(tableName, columnName);
-                types[i - 1] = DataType.getDataType(metaData.getColumnTypeName(i));
-                if (tidIndex == 0 && columnName.equalsIgnoreCase("tid")) {
-                    tidIndex = i;
-                }
-            }
-            schema  = new Schema(tableName, columns, types);
+            int tidIndex = getTidIndex(metaData);
+            schema = createSchema(tableName, metaData);
 
-            // fill the tuples
-            tuples = Lists.newArrayList();
+            // fill the tuples, values are read with the typed getters into the columns.
+            ColumnarTable.Builder builder = new ColumnarTable.Builder(schema);
             int tupleId = -1;
             while (resultSet.next()) {
-                List<byte[]> values = Lists.newArrayList();
                 if (tidIndex != 0) {
                     tupleId = resultSet.getInt(tidIndex);
                 } else {
                     tracer.info("Table does not have an TID column, use 1 as default.");
                     tupleId = 1;
                 }
-
-                for (int i = 1; i <= count; i ++) {
-                    Object object = resultSet.getObject(i);
-                    values.add(serialize(object));
-                }
-
-                tuples.add(new Tuple(tupleId, schema, values));
+                builder.add(tupleId, resultSet);
+            }
+            tuples = builder.build();
+            if (newTuples != null) {
+                tuples.setDelta(newTuples);
             }
         } catch (Exception ex) {
             tracer.error("Synchronization failed.", ex);
@@ -368,10 +334,42 @@ public class SQLTable extends Table {
         }
     }
 
+    /**
+     * Creates the schema of a query result.
+     * @param tableName table name.
+     * @param metaData result set meta data.
+     * @return schema.
+     */
+    static Schema createSchema(String tableName, ResultSetMetaData metaData)
+        throws SQLException {
+        int count = metaData.getColumnCount();
+        Column[] columns = new Column[count];
+        DataType[] types = new DataType[count];
+        for (int i = 1; i <= count; i ++) {
+            columns[i - 1] = new Column(tableName, metaData.getColumnName(i));
+            types[i - 1] = DataType.getDataType(metaData.getColumnTypeName(i));
+        }
+        return new Schema(tableName, columns, types);
+    }
+
+    /**
+     * Gets the JDBC index of the TID column.
+     * @param metaData result set meta data.
+     * @return JDBC column index, 0 when the result does not have a TID column.
+     */
+    static int getTidIndex(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i ++) {
+            if (metaData.getColumnName(i).equalsIgnoreCase("tid")) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
     /**
      * Serialize object to a bytes array.
      */
-    private static byte[] serialize(Object obj) throws IOException {
+    static byte[] serialize(Object obj) throws IOException {
         byte[] result = null;
         String stringValue;
         if (obj != null) {
@@ -389,7 +387,9 @@ public class SQLTable extends Table {
 
     //<editor-fold desc="Finalization methods">
     public void recycle() {
-        tuples.clear();
+        if (tuples != null) {
+            tuples.recycle();
+        }
         tuples = null;
         tableName = null;
         updateTimestamp = Long.MAX_VALUE;
@@ -20,12 +20,19 @@ import com.google.common.collect.Lists;
 import java.util.List;
 
 /**
- * Schema class provides a mapping between column and value for a table.
+ * Schema class provides a mapping between column and value for a table. Columns are
+ * resolved to their ordinals through an open addressing index on the column ids, which is
+ * sized by the number of columns of the schema.
  */
 public class Schema {
     private String tableName;
     private Column[] columns;
     private DataType[] types;
+    // column id + 1 of each slot of the index, 0 is an empty slot.
+    private int[] slotIds;
+    // ordinal of the column in each slot of the index.
+    private int[] slotOrdinals;
+    private int tidIndex;
 
     //<editor-fold desc="Builder">
     /**
@@ -84,6 +91,7 @@ public class Schema {
         Preconditions.checkArgument(columns != null && columns.length > 0);
         this.columns = columns;
         this.types = types;
+        buildIndex();
     }
 
     /**
@@ -95,6 +103,7 @@ public class Schema {
         this.tableName = schema.tableName;
         this.columns = schema.getColumns().clone();
         this.types = schema.getTypes().clone();
+        buildIndex();
     }
 
     /**
@@ -111,12 +120,7 @@ public class Schema {
      * @return <code>True</code> when the map contains the column.
      */
     public boolean hasColumn(Column column) {
-        for (Column column_ : columns) {
-            if (column_.equals(column)) {
-                return true;
-            }
-        }
-        return false;
+        return ordinalOf(column) >= 0;
     }
 
     /**
@@ -148,12 +152,7 @@ public class Schema {
      * @return column type collection.
      */
     public DataType getType(Column column) {
-        for (int i = 0; i < columns.length; i ++) {
-            if (columns[i].equals(column)) {
-                return types[i];
-            }
-        }
-        throw new IllegalArgumentException("Cannot find the column.");
+        return types[get(column)];
     }
 
     /**
@@ -175,12 +174,11 @@ public class Schema {
      * @return Get the index from column.
      */
     public int get(Column column) {
-        for (int i = 0; i < columns.length; i ++) {
-            if (columns[i].equals(column)) {
-                return i;
-            }
+        int result = ordinalOf(column);
+        if (result < 0) {
+            throw new IllegalArgumentException("Cannot find the column.");
         }
-        throw new IllegalArgumentException("Cannot find the column.");
+        return result;
     }
 
     /**
@@ -188,12 +186,7 @@ public class Schema {
      * @return Returns the TID index of the schema. It returns absent when there is no TID column.
      */
     public Optional<Integer> getTidIndex() {
-        for (int i = 0; i < columns.length; i ++) {
-            if (columns[i].getColumnName().equalsIgnoreCase("tid")) {
-                return Optional.of(i);
-            }
-        }
-        return Optional.absent();
+        return tidIndex < 0 ? Optional.<Integer>absent() : Optional.of(tidIndex);
     }
 
     /**
@@ -210,5 +203,62 @@ public class Schema {
         }
         columns = new Column[tmp.size()];
         tmp.toArray(columns);
+
+        DataType[] ntypes = new DataType[columns.length];
+        for (int i = 0, j = 0; i < types.length; i ++) {
+            if (i != result) {
+                ntypes[j ++] = types[i];
+            }
+        }
+        types = ntypes;
+        buildIndex();
+    }
+
+    /**
+     * Gets the ordinal of a column through the column id index.
+     */
+    private int ordinalOf(Column column) {
+        int key = column.getId() + 1;
+        int mask = slotIds.length - 1;
+        int slot = getSlot(key, mask);
+        while (slotIds[slot] != 0) {
+            if (slotIds[slot] == key) {
+                return slotOrdinals[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int getSlot(int key, int mask) {
+        return (key * 0x9E3779B9 >>> 16) & mask;
+    }
+
+    /**
+     * Builds the column id to ordinal index.
+     */
+    private void buildIndex() {
+        int capacity = Integer.highestOneBit(Math.max(columns.length, 4) * 2 - 1) << 1;
+        int mask = capacity - 1;
+        slotIds = new int[capacity];
+        slotOrdinals = new int[capacity];
+        tidIndex = -1;
+        for (int i = 0; i < columns.length; i ++) {
+            int key = columns[i].getId() + 1;
+            int slot = getSlot(key, mask);
+            while (slotIds[slot] != 0 && slotIds[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            // keep the first one for duplicated columns.
+            if (slotIds[slot] == 0) {
+                slotIds[slot] = key;
+                slotOrdinals[slot] = i;
+            }
+
+            if (tidIndex < 0 && columns[i].getColumnName().equalsIgnoreCase("tid")) {
+                tidIndex = i;
+            }
+        }
     }
 }
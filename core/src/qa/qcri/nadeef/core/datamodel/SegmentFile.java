@@ -0,0 +1,175 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.core.datamodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * SegmentFile is an append-only file which is memory mapped in fixed size segments once it
+ * is completely written. It keeps column data outside of the Java heap.
+ */
+class SegmentFile {
+    // segment size is a multiple of 8, so a fixed width value never crosses two segments.
+    private static final int SEGMENT_SHIFT = 28;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = (int)(SEGMENT_SIZE - 1);
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private File file;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private long position;
+    private MappedByteBuffer[] segments;
+
+    /**
+     * Creates a new segment file in the spill directory.
+     * @param prefix file name prefix.
+     */
+    SegmentFile(String prefix) throws IOException {
+        Path directory = getSpillDirectory();
+        Files.createDirectories(directory);
+        file = Files.createTempFile(directory, prefix, ".seg").toFile();
+        file.deleteOnExit();
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * Gets the number of written bytes.
+     * @return number of written bytes.
+     */
+    long position() {
+        return position;
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+        position += 4;
+    }
+
+    void writeLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+        position += 8;
+    }
+
+    void writeDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+        position += 8;
+    }
+
+    void write(byte[] value) throws IOException {
+        int offset = 0;
+        while (offset < value.length) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), value.length - offset);
+            buffer.put(value, offset, length);
+            offset += length;
+        }
+        position += value.length;
+    }
+
+    /**
+     * Finishes writing and maps the file into memory.
+     */
+    void finish() throws IOException {
+        flush();
+        int count = (int)((position + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i ++) {
+            long start = (long)i << SEGMENT_SHIFT;
+            long length = Math.min(SEGMENT_SIZE, position - start);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        channel.close();
+        buffer = null;
+    }
+
+    int getInt(long offset) {
+        return segments[(int)(offset >>> SEGMENT_SHIFT)].getInt((int)offset & SEGMENT_MASK);
+    }
+
+    long getLong(long offset) {
+        return segments[(int)(offset >>> SEGMENT_SHIFT)].getLong((int)offset & SEGMENT_MASK);
+    }
+
+    double getDouble(long offset) {
+        return segments[(int)(offset >>> SEGMENT_SHIFT)].getDouble((int)offset & SEGMENT_MASK);
+    }
+
+    byte[] get(long offset, int length) {
+        byte[] result = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long current = offset + copied;
+            // duplicate the segment, so that reading from multiple threads is safe.
+            ByteBuffer segment = segments[(int)(current >>> SEGMENT_SHIFT)].duplicate();
+            segment.position((int)current & SEGMENT_MASK);
+            int size = Math.min(length - copied, segment.remaining());
+            segment.get(result, copied, size);
+            copied += size;
+        }
+        return result;
+    }
+
+    /**
+     * Deletes the file. Segments which are already mapped stay readable until they are
+     * garbage collected, so tuples which still refer to the vector remain valid.
+     */
+    void delete() {
+        try {
+            if (channel.isOpen()) {
+                channel.close();
+            }
+        } catch (IOException ex) {
+            // ignore
+        }
+        file.delete();
+    }
+
+    //<editor-fold desc="Private methods">
+    private void ensure(int size) throws IOException {
+        if (buffer.remaining() < size) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static Path getSpillDirectory() {
+        Path outputPath = NadeefConfiguration.getOutputPath();
+        if (outputPath == null) {
+            outputPath = Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+        return outputPath.resolve("spill");
+    }
+    //</editor-fold>
+}
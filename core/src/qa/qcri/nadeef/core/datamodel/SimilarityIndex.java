@@ -0,0 +1,395 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.datamodel;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * SimilarityIndex generates the candidate tuple pairs of a similarity predicate, e.g.
+ * <code>QG(t.a, t.b) > 0.8</code> of an ER rule, without comparing all the pairs.
+ *
+ * The compared values are tokenized into q-grams (or into one token for the equal metric),
+ * and a pair can only pass the threshold when both values share a minimum number of
+ * tokens. With the tokens of every value ordered by their global frequency, such a pair
+ * always shares a token in the short prefixes of the two values (prefix filtering), so only
+ * the prefixes are put into an inverted index. The candidates are a superset of the pairs
+ * which pass the predicate, the predicate itself is still evaluated in <code>detect</code>.
+ */
+public class SimilarityIndex {
+    // slack for the float similarity returned by the metrics.
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Similarity metrics which can be indexed.
+     */
+    public enum Metric {
+        /** Equal value. */
+        EQ,
+        /** QGramsDistance, the dice coefficient of the padded 3-grams. */
+        QG,
+        /** Levenshtein, one minus the edit distance over the longer length. */
+        LS
+    }
+
+    private Metric metric;
+    private double threshold;
+    private String leftTable;
+    private String leftColumn;
+    private String rightTable;
+    private String rightColumn;
+
+    //<editor-fold desc="Constructor">
+    /**
+     * Constructor of the index of predicate <code>metric(leftTable.leftColumn,
+     * rightTable.rightColumn) >= threshold</code>.
+     * @param metric metric name.
+     * @param threshold minimum similarity.
+     * @param leftTable left table name.
+     * @param leftColumn left column name.
+     * @param rightTable right table name.
+     * @param rightColumn right column name.
+     */
+    public SimilarityIndex(
+        String metric,
+        double threshold,
+        String leftTable,
+        String leftColumn,
+        String rightTable,
+        String rightColumn
+    ) {
+        this.metric = Metric.valueOf(Preconditions.checkNotNull(metric));
+        this.threshold = threshold - EPSILON;
+        this.leftTable = Preconditions.checkNotNull(leftTable);
+        this.leftColumn = Preconditions.checkNotNull(leftColumn);
+        this.rightTable = Preconditions.checkNotNull(rightTable);
+        this.rightColumn = Preconditions.checkNotNull(rightColumn);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Public methods">
+    /**
+     * Returns <code>True</code> when the predicate <code>metric(a, b) op threshold</code>
+     * can be answered by the index, i.e. it only passes above a similarity where values
+     * need to share tokens.
+     * @param metric metric name.
+     * @param op comparison operator.
+     * @param threshold threshold.
+     * @return <code>True</code> when the predicate can be indexed.
+     */
+    public static boolean isIndexable(String metric, String op, double threshold) {
+        switch (metric) {
+            case "EQ":
+                // the equal metric is either 0 or 1.
+                return compare(1.0, op, threshold) && !compare(0.0, op, threshold);
+            case "QG":
+                return isLowerBound(op) && threshold > 0.0;
+            case "LS":
+                // below one half values without a common 2-gram can still pass.
+                return isLowerBound(op) && threshold >= 0.5;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Emits the candidate pairs of one table, in the same orientation as the nested loop
+     * over <code>i &lt; j</code>.
+     * @param table input table.
+     * @param output output handler.
+     */
+    public void iterator(Table table, IteratorResultHandler output) {
+        String[] leftValues = getValues(table, leftColumn);
+        String[] rightValues =
+            leftColumn.equalsIgnoreCase(rightColumn) ? leftValues : getValues(table, rightColumn);
+        join(table, leftValues, table, rightValues, true, output);
+    }
+
+    /**
+     * Emits the candidate pairs between two tables.
+     * @param left left table.
+     * @param right right table.
+     * @param output output handler.
+     */
+    public void iterator(Table left, Table right, IteratorResultHandler output) {
+        if (left.size() == 0 || right.size() == 0) {
+            return;
+        }
+
+        // the predicate columns are resolved by table, as the rule does.
+        boolean isSwapped =
+            !left.get(0).isFromTable(leftTable) && left.get(0).isFromTable(rightTable);
+        String[] leftValues = getValues(left, isSwapped ? rightColumn : leftColumn);
+        String[] rightValues = getValues(right, isSwapped ? leftColumn : rightColumn);
+        join(left, leftValues, right, rightValues, false, output);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Private methods">
+    private void join(
+        Table left,
+        String[] leftValues,
+        Table right,
+        String[] rightValues,
+        boolean isSelf,
+        IteratorResultHandler output
+    ) {
+        // tokenize the values, tokens are numbered in the order they show up.
+        HashMap<String, Integer> dictionary = Maps.newHashMap();
+        int[][] leftTokens = tokenize(leftValues, dictionary);
+        int[][] rightTokens =
+            leftValues == rightValues ? leftTokens : tokenize(rightValues, dictionary);
+
+        int[] frequency = new int[dictionary.size()];
+        count(leftTokens, frequency);
+        if (rightTokens != leftTokens) {
+            count(rightTokens, frequency);
+        }
+        sort(leftTokens, frequency);
+        if (rightTokens != leftTokens) {
+            sort(rightTokens, frequency);
+        }
+
+        // inverted index on the prefixes of the right values.
+        int[][] postings = new int[frequency.length][];
+        int[] postingSizes = new int[frequency.length];
+        for (int j = 0; j < rightTokens.length; j ++) {
+            int[] tokens = rightTokens[j];
+            if (tokens == null) {
+                continue;
+            }
+
+            int prefixLength = getPrefixLength(tokens.length);
+            for (int k = 0; k < prefixLength; k ++) {
+                int token = tokens[k];
+                if (postings[token] == null) {
+                    postings[token] = new int[4];
+                } else if (postingSizes[token] == postings[token].length) {
+                    postings[token] = Arrays.copyOf(postings[token], postingSizes[token] * 2);
+                }
+                postings[token][postingSizes[token] ++] = j;
+            }
+        }
+
+        // probe with the prefixes of the left values.
+        int[] seen = new int[rightTokens.length];
+        Arrays.fill(seen, -1);
+        for (int i = 0; i < leftTokens.length; i ++) {
+            int[] tokens = leftTokens[i];
+            if (tokens == null) {
+                continue;
+            }
+
+            Tuple leftTuple = null;
+            int prefixLength = getPrefixLength(tokens.length);
+            for (int k = 0; k < prefixLength; k ++) {
+                int token = tokens[k];
+                for (int p = 0; p < postingSizes[token]; p ++) {
+                    int j = postings[token][p];
+                    if (seen[j] == i || (isSelf && j <= i)) {
+                        continue;
+                    }
+
+                    seen[j] = i;
+                    if (!canMatch(leftValues[i], tokens, rightValues[j], rightTokens[j])) {
+                        continue;
+                    }
+
+                    if (leftTuple == null) {
+                        leftTuple = left.get(i);
+                    }
+                    output.handle(new TuplePair(leftTuple, right.get(j)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of leading tokens which any value passing the threshold with a value of
+     * the given token count shares a token with.
+     */
+    private int getPrefixLength(int tokenCount) {
+        return tokenCount - getMinOverlap(tokenCount) + 1;
+    }
+
+    /**
+     * Gets the minimum number of common tokens between a value of the given token count and
+     * any value it passes the threshold with.
+     */
+    private int getMinOverlap(int tokenCount) {
+        switch (metric) {
+            case QG:
+                // 2c / (n + m) >= t and c <= m gives c >= t * n / (2 - t).
+                return Math.max(1, (int)Math.ceil(threshold * tokenCount / (2.0 - threshold)));
+            case LS:
+                // an edit changes at most 2 of the padded 2-grams, so c >= L + 1 - 2 * ed with
+                // ed <= (1 - t) * L, where the longer length L is between l and l / t.
+                int length = tokenCount - 1;
+                double bound =
+                    Math.min(
+                        getLSOverlap(length),
+                        getLSOverlap(length / Math.max(threshold, EPSILON))
+                    );
+                // a similarity of at least one half always shares a gram.
+                return Math.max(1, (int)Math.ceil(bound - EPSILON));
+            default:
+                return 1;
+        }
+    }
+
+    private double getLSOverlap(double length) {
+        return length * (1.0 - 2.0 * (1.0 - threshold)) + 1.0;
+    }
+
+    /**
+     * Length filter on a candidate pair.
+     */
+    private boolean canMatch(String left, int[] leftTokens, String right, int[] rightTokens) {
+        switch (metric) {
+            case QG: {
+                int n = leftTokens.length;
+                int m = rightTokens.length;
+                return threshold * (n + m) / 2.0 <= Math.min(n, m);
+            }
+            case LS: {
+                int n = left.length();
+                int m = right.length();
+                return Math.abs(n - m) <= (1.0 - threshold) * Math.max(n, m);
+            }
+            default:
+                return true;
+        }
+    }
+
+    private int[][] tokenize(String[] values, HashMap<String, Integer> dictionary) {
+        int[][] result = new int[values.length][];
+        HashMap<String, Integer> occurrences = Maps.newHashMap();
+        for (int i = 0; i < values.length; i ++) {
+            String value = values[i];
+            if (value == null) {
+                // a NULL value does not pass any similarity threshold.
+                continue;
+            }
+
+            String[] grams = getGrams(value);
+            int[] tokens = new int[grams.length];
+            occurrences.clear();
+            for (int k = 0; k < grams.length; k ++) {
+                // repeated grams become distinct tokens, so a set overlap equals the
+                // multiset overlap of the grams.
+                Integer occurrence = occurrences.get(grams[k]);
+                occurrence = occurrence == null ? 0 : occurrence + 1;
+                occurrences.put(grams[k], occurrence);
+                String key = occurrence == 0 ? grams[k] : grams[k] + '\0' + occurrence;
+                Integer token = dictionary.get(key);
+                if (token == null) {
+                    token = dictionary.size();
+                    dictionary.put(key, token);
+                }
+                tokens[k] = token;
+            }
+            result[i] = tokens;
+        }
+        return result;
+    }
+
+    private String[] getGrams(String value) {
+        switch (metric) {
+            case QG:
+                // the same padded 3-grams as QGramsDistance.
+                return getGrams("##" + value + "##", 3);
+            case LS:
+                return getGrams("#" + value + "#", 2);
+            default:
+                return new String[] { value };
+        }
+    }
+
+    private static String[] getGrams(String padded, int q) {
+        String[] result = new String[padded.length() - q + 1];
+        for (int i = 0; i < result.length; i ++) {
+            result[i] = padded.substring(i, i + q);
+        }
+        return result;
+    }
+
+    private static void count(int[][] tokens, int[] frequency) {
+        for (int[] record : tokens) {
+            if (record != null) {
+                for (int token : record) {
+                    frequency[token] ++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Orders the tokens of each value from the rarest to the most frequent.
+     */
+    private static void sort(int[][] tokens, int[] frequency) {
+        long[] keys = new long[0];
+        for (int[] record : tokens) {
+            if (record == null) {
+                continue;
+            }
+
+            if (keys.length < record.length) {
+                keys = new long[record.length];
+            }
+            for (int k = 0; k < record.length; k ++) {
+                keys[k] = ((long)frequency[record[k]] << 32) | record[k];
+            }
+            Arrays.sort(keys, 0, record.length);
+            for (int k = 0; k < record.length; k ++) {
+                record[k] = (int)keys[k];
+            }
+        }
+    }
+
+    private static String[] getValues(Table table, String column) {
+        String[] result = new String[table.size()];
+        for (int i = 0; i < result.length; i ++) {
+            Object value = table.get(i).get(column);
+            result[i] = value == null ? null : value.toString();
+        }
+        return result;
+    }
+
+    private static boolean isLowerBound(String op) {
+        return op.equals(">") || op.equals(">=") || op.equals("==");
+    }
+
+    private static boolean compare(double value, String op, double threshold) {
+        switch (op) {
+            case ">":
+                return value > threshold;
+            case ">=":
+                return value >= threshold;
+            case "<":
+                return value < threshold;
+            case "<=":
+                return value <= threshold;
+            case "==":
+                return value == threshold;
+            case "!=":
+                return value != threshold;
+            default:
+                return false;
+        }
+    }
+    //</editor-fold>
+}
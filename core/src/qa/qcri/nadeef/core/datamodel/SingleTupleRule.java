@@ -54,8 +54,8 @@ public abstract class SingleTupleRule extends Rule<Tuple> {
     /**
      * Block operator.
      *
-     * Current we don't support blocking given multiple tables (co-group). So when a rule
-     * is using more than 1 table the block operator is going to be ignored.
+     * A rule using two tables is co-grouped with {@link #coGroup} instead, so the block
+     * operator is ignored.
      * @param table a collection of tables.
      * @return a collection of blocked tables.
      */
@@ -71,8 +71,8 @@ public abstract class SingleTupleRule extends Rule<Tuple> {
     @Override
     public void iterator(Collection<Table> blocks, IteratorResultHandler iteratorBlockingQueue) {
         Table table = blocks.iterator().next();
-        for (int i = 0; i < table.size(); i ++) {
-            iteratorBlockingQueue.handle(table.get(i));
+        for (Tuple tuple : table) {
+            iteratorBlockingQueue.handle(tuple);
         }
     }
 
@@ -93,8 +93,7 @@ public abstract class SingleTupleRule extends Rule<Tuple> {
         if (newTuples.containsKey(tableName)) {
             HashSet<Integer> newTuplesIDs = newTuples.get(tableName);
             // iterating all the tuples
-            for (int i = 0; i < table.size(); i++) {
-                Tuple tuple1 = table.get(i);
+            for (Tuple tuple1 : table) {
                 if (newTuplesIDs.contains(tuple1.getTid())) {
                     iteratorResultHandler.handle(tuple1);
                 }
@@ -118,4 +117,21 @@ public abstract class SingleTupleRule extends Rule<Tuple> {
         } catch (Exception ex) {}
         return result;
     }
+
+    /**
+     * Returns <code>True</code> when the rule overrides the block operator.
+     * @return <code>True</code> when the rule has its own block operator.
+     */
+    public boolean hasOwnBlock() {
+        boolean result = false;
+        try {
+            String declareClassName =
+                getClass().getMethod(
+                    "block",
+                    new Class<?>[] { Collection.class }
+                ).getDeclaringClass().getSimpleName();
+            result = !declareClassName.equalsIgnoreCase("SingleTupleRule");
+        } catch (Exception ex) {}
+        return result;
+    }
 }
\ No newline at end of file
@@ -13,17 +13,21 @@
 
 package qa.qcri.nadeef.core.datamodel;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * A Table represents a collection of {@link Tuple}.
  */
-public abstract class Table {
+public abstract class Table implements Iterable<Tuple> {
     protected Schema schema;
     protected String tableName;
 
@@ -66,6 +70,47 @@ public abstract class Table {
      */
     public abstract Tuple get(int i);
 
+    /**
+     * Gets an iterator which visits the tuples in table order.
+     * @return tuple iterator.
+     */
+    @Override
+    public java.util.Iterator<Tuple> iterator() {
+        return new java.util.Iterator<Tuple>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public Tuple next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index ++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Creates a view of the table which shares the loaded rows of this table. Project, order
+     * and filter on the view do not change this table, so that rules with different scopes
+     * can read from the same loaded table.
+     * @return table view.
+     */
+    public Table view() {
+        throw new UnsupportedOperationException(
+            getClass().getSimpleName() + " does not support views."
+        );
+    }
+
     /**
      * Clean up the resources for this <code>Table</code>. After recycling the table instance
      * should not be used any more.
@@ -167,5 +212,126 @@ public abstract class Table {
     public Collection<Table> groupOn(Column column) {
         return groupOn(Lists.newArrayList(column));
     }
+
+    /**
+     * Partitions this table and another table on the same key (co-group), only the blocks
+     * whose key values are in both tables are returned. The key columns of the two tables
+     * are matched in order, numerical columns of different types are compared on their
+     * numerical values and other columns of different types on their string values.
+     * @param columns key columns of this table.
+     * @param other the other table.
+     * @param otherColumns key columns of the other table.
+     * @return the co-grouped blocks, each block of this table is followed by the block of
+     * the other table with the same key values.
+     */
+    public List<Table> coGroupOn(List<Column> columns, Table other, List<Column> otherColumns) {
+        Preconditions.checkNotNull(other);
+        Preconditions.checkArgument(
+            columns != null && otherColumns != null && columns.size() == otherColumns.size(),
+            "The co-group keys need the same number of columns."
+        );
+
+        DataType[] keyTypes = new DataType[columns.size()];
+        for (int i = 0; i < keyTypes.length; i ++) {
+            DataType type = getSchema().getType(columns.get(i));
+            DataType otherType = other.getSchema().getType(otherColumns.get(i));
+            if (type == otherType) {
+                keyTypes[i] = type;
+            } else if (isNumerical(type) && isNumerical(otherType)) {
+                keyTypes[i] = DataType.DOUBLE;
+            } else {
+                keyTypes[i] = DataType.STRING;
+            }
+        }
+
+        // hash join of the blocks.
+        HashMap<List<Object>, Table> otherBlocks = Maps.newHashMap();
+        for (Table block : other.groupOn(otherColumns)) {
+            if (block.size() > 0) {
+                otherBlocks.put(getKey(block.get(0), otherColumns, keyTypes), block);
+            }
+        }
+
+        List<Table> result = Lists.newArrayList();
+        for (Table block : groupOn(columns)) {
+            if (block.size() > 0) {
+                Table otherBlock = otherBlocks.get(getKey(block.get(0), columns, keyTypes));
+                if (otherBlock != null) {
+                    result.add(block);
+                    result.add(otherBlock);
+                }
+            }
+        }
+        return result;
+    }
     //</editor-fold desc="Default Table behavior">
+
+    //<editor-fold desc="Private methods">
+    /**
+     * Gets the co-group key values of a tuple, the values are converted into the given key
+     * types when the two tables have different column types.
+     */
+    private static List<Object> getKey(Tuple tuple, List<Column> columns, DataType[] keyTypes) {
+        List<Object> result = Lists.newArrayListWithCapacity(columns.size());
+        for (int i = 0; i < columns.size(); i ++) {
+            Object value = tuple.get(columns.get(i));
+            if (value != null && keyTypes[i] == DataType.DOUBLE) {
+                value = toDouble(value);
+            } else if (value != null && keyTypes[i] == DataType.STRING) {
+                value = value.toString();
+            }
+            result.add(value);
+        }
+        return result;
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Float) {
+            // converted from the decimal text, so 0.1f matches 0.1.
+            return Double.valueOf(value.toString());
+        }
+        return ((Number)value).doubleValue();
+    }
+
+    private static boolean isNumerical(DataType type) {
+        return type == DataType.INTEGER || type == DataType.FLOAT || type == DataType.DOUBLE;
+    }
+
+    /**
+     * Gets the schema after a projection. Same as the select list of a {@link SQLTable},
+     * the first projection keeps the given columns together with the TID column, later
+     * projections add more columns. Columns keep the order of the source schema.
+     * @param source schema of the stored rows.
+     * @param current current projected schema, <code>null</code> when not yet projected.
+     * @param columns projected columns.
+     * @return projected schema.
+     */
+    static Schema projectSchema(Schema source, Schema current, List<Column> columns) {
+        Column[] allColumns = source.getColumns();
+        boolean[] selected = new boolean[allColumns.length];
+        if (current != null) {
+            for (Column column : current.getColumns()) {
+                selected[source.get(column)] = true;
+            }
+        } else {
+            Optional<Integer> tidIndex = source.getTidIndex();
+            if (tidIndex.isPresent()) {
+                selected[tidIndex.get()] = true;
+            }
+        }
+
+        for (Column column : columns) {
+            selected[source.get(column)] = true;
+        }
+
+        Schema.Builder builder = new Schema.Builder().table(source.getTableName());
+        DataType[] types = source.getTypes();
+        for (int i = 0; i < allColumns.length; i ++) {
+            if (selected[i]) {
+                builder.column(allColumns[i], types[i]);
+            }
+        }
+        return builder.build();
+    }
+    //</editor-fold>
 }
@@ -13,26 +13,32 @@
 
 package qa.qcri.nadeef.core.datamodel;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import qa.qcri.nadeef.tools.Logger;
 
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 
 
 /**
- * Tuple class represents a tuple (row) in a table.
+ * Tuple class represents a tuple (row) in a table. A tuple either owns its values, or
+ * it is a light-weight view on a row of a {@link ColumnarTable}.
  */
 public class Tuple {
-    private Logger tracer = Logger.getLogger(Tuple.class);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
 
     //<editor-fold desc="Private Fields">
     private List<byte[]> values;
     private Schema schema;
     private int tid;
+
+    // column storage when the tuple is a view on a ColumnarTable row.
+    private ColumnVector[] vectors;
+    private int row;
     //</editor-fold>
 
     //<editor-fold desc="Public Members">
@@ -65,14 +71,29 @@ public class Tuple {
         this.values = values;
     }
 
+    /**
+     * Construct a tuple view on a row of column storage.
+     * @param tupleId tuple id.
+     * @param schema tuple schema.
+     * @param vectors column storage, one vector per schema column.
+     * @param row row position in the storage.
+     */
+    Tuple(int tupleId, Schema schema, ColumnVector[] vectors, int row) {
+        this.tid = tupleId;
+        this.schema = schema;
+        this.vectors = vectors;
+        this.row = row;
+    }
+
 	public List<byte[]> getValues(){
+		detach();
 		return values;
 	}
 
 	public Tuple cloneObj(){
 		List<byte[]> clonedValues = new ArrayList<byte[]>();
-		for (byte[] v : this.values){
-			clonedValues.add((byte[])v.clone());
+		for (byte[] v : copyValues()){
+			clonedValues.add(v == null ? null : (byte[])v.clone());
 		}
 		Tuple tuple = new Tuple(tid,schema, clonedValues);
 		return tuple;
@@ -82,6 +103,7 @@ public class Tuple {
 	public void setCell(String columnName, byte[] value){
 		Column column = new Column(schema.getTableName(), columnName);
 		 int index = schema.get(column);
+		 detach();
 		 values.set(index, value);
 	}
 
@@ -92,12 +114,84 @@ public class Tuple {
      * @return Output Value
      */
     public Object get(Column key) {
-        int index = schema.get(key);
-        byte[] bytes = values.get(index);
+        return get(schema.get(key));
+    }
+
+    /**
+     * Gets the value from the tuple.
+     * @param ordinal The attribute ordinal in the schema.
+     * @return Output Value
+     */
+    public Object get(int ordinal) {
+        if (vectors != null) {
+            return vectors[ordinal].get(row);
+        }
+        return decode(values.get(ordinal), schema.getTypes()[ordinal]);
+    }
+
+    /**
+     * Returns <code>True</code> when the value is NULL.
+     * @param ordinal The attribute ordinal in the schema.
+     * @return <code>True</code> when the value is NULL.
+     */
+    public boolean isNull(int ordinal) {
+        if (vectors != null) {
+            return vectors[ordinal].isNull(row);
+        }
+        return values.get(ordinal) == null;
+    }
+
+    /**
+     * Gets an INTEGER value without boxing. The value must not be NULL.
+     * @param ordinal The attribute ordinal in the schema.
+     * @return int value.
+     */
+    public int getInt(int ordinal) {
+        if (vectors != null) {
+            return vectors[ordinal].getInt(row);
+        }
+
+        DataType type = schema.getTypes()[ordinal];
+        if (type != DataType.INTEGER) {
+            throw new UnsupportedOperationException(type + " column cannot be read as int.");
+        }
+        return Integer.parseInt(new String(values.get(ordinal), UTF8));
+    }
+
+    /**
+     * Gets a numerical value without boxing. The value must not be NULL.
+     * @param ordinal The attribute ordinal in the schema.
+     * @return double value.
+     */
+    public double getDouble(int ordinal) {
+        if (vectors != null) {
+            return vectors[ordinal].getDouble(row);
+        }
+
+        String stringValue = new String(values.get(ordinal), UTF8);
+        DataType type = schema.getTypes()[ordinal];
+        switch (type) {
+            case INTEGER:
+                return Integer.parseInt(stringValue);
+            case FLOAT:
+                return Float.parseFloat(stringValue);
+            case DOUBLE:
+                return Double.parseDouble(stringValue);
+            default:
+                throw new UnsupportedOperationException(type + " column cannot be read as double.");
+        }
+    }
+
+    /**
+     * Decodes a serialized value.
+     * @param bytes UTF-8 value.
+     * @param type value type.
+     * @return decoded value.
+     */
+    static Object decode(byte[] bytes, DataType type) {
         Object result = null;
         if (bytes != null) {
-            DataType type = schema.getTypes()[index];
-            String stringValue = new String(bytes, Charset.forName("UTF-8"));
+            String stringValue = new String(bytes, UTF8);
             switch (type) {
                 case STRING:
                     result = stringValue;
@@ -216,11 +310,11 @@ public class Tuple {
             return false;
         }
 
-        if (this == tuple || this.values == tuple.values) {
+        if (this == tuple || (values != null && values == tuple.values)) {
             return true;
         }
 
-        if (values.size() != tuple.values.size()) {
+        if (schema.size() != tuple.schema.size()) {
             return false;
         }
 
@@ -233,42 +327,77 @@ public class Tuple {
         }
 
         Optional<Integer> tidIndex = schema.getTidIndex();
-        for (int i = 0; i < values.size(); i ++) {
+        for (int i = 0; i < schema.size(); i ++) {
             // skip the TID compare because we know that they are different.
             if (tidIndex.isPresent() && i == tidIndex.get()) {
                 continue;
             }
 
-            if (values.get(i) == tuple.values.get(i)) {
-                continue;
-            }
-
-            if (values.get(i).length != tuple.values.get(i).length) {
-                return false;
-            }
-
-            for (int j = 0; j < values.get(i).length; j ++) {
-                if (values.get(i)[j] != tuple.values.get(i)[j]) {
+            if (values != null && tuple.values != null) {
+                if (!Arrays.equals(values.get(i), tuple.values.get(i))) {
+                    return false;
+                }
+            } else if (vectors != null && tuple.vectors != null) {
+                if (!vectors[i].equals(row, tuple.vectors[i], tuple.row)) {
                     return false;
                 }
+            } else if (!Objects.equal(get(i), tuple.get(i))) {
+                return false;
             }
         }
         return true;
     }
 
     /**
-     * Project the Tuple on a new schema.
+     * Project the Tuple on a new schema. The projected tuple shares the values of this
+     * tuple, and this tuple is not changed.
      * @param newSchema new schema.
+     * @return projected tuple.
      */
-    void project(Schema newSchema) {
+    Tuple project(Schema newSchema) {
         Column[] columns = newSchema.getColumns();
-        List<byte[]> nvalues = Lists.newArrayList();
+        if (vectors != null) {
+            ColumnVector[] nvectors = new ColumnVector[columns.length];
+            for (int i = 0; i < columns.length; i ++) {
+                nvectors[i] = vectors[schema.get(columns[i])];
+            }
+            return new Tuple(tid, newSchema, nvectors, row);
+        }
+
+        List<byte[]> nvalues = Lists.newArrayListWithCapacity(columns.length);
         for (Column column : columns) {
-            int index = schema.get(column);
-            nvalues.add(values.get(index));
+            nvalues.add(values.get(schema.get(column)));
+        }
+        return new Tuple(tid, newSchema, nvalues);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Private methods">
+
+    /**
+     * Copies the values of the tuple in serialized form.
+     */
+    private List<byte[]> copyValues() {
+        if (vectors == null) {
+            return values;
+        }
+
+        List<byte[]> result = Lists.newArrayListWithCapacity(vectors.length);
+        for (ColumnVector vector : vectors) {
+            Object value = vector.get(row);
+            result.add(value == null ? null : value.toString().getBytes(UTF8));
+        }
+        return result;
+    }
+
+    /**
+     * Detaches a tuple view from its column storage, so that the tuple owns its values.
+     */
+    private void detach() {
+        if (vectors != null) {
+            values = copyValues();
+            vectors = null;
         }
-        values = nvalues;
-        schema = newSchema;
     }
     //</editor-fold>
 }
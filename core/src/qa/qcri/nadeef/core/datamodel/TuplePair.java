@@ -46,6 +46,16 @@ public class TuplePair {
         return new TuplePair(values[0], values[1]);
     }
 
+    /**
+     * Points the pair to other tuples, used by the reused pair of a {@link PairBatch}.
+     * @param left left tuple.
+     * @param right right tuple.
+     */
+    void set(Tuple left, Tuple right) {
+        this.left = left;
+        this.right = right;
+    }
+
     //<editor-fold desc="Getters">
 
     /**
@@ -18,11 +18,16 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Sets;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Set;
 
 /**
  * Violation class.
+ *
+ * Tuples added through {@link #addTuple(Tuple)} are kept as tuple references together with a
+ * bitmask of their violated column ordinals. The {@link Cell}s of those tuples are only
+ * created when the cells are requested, e.g. by the violation export or the rule repair.
  */
 public class Violation {
     public static final int UnknownId = -1;
@@ -30,6 +35,11 @@ public class Violation {
     private Set<Cell> cells;
     private Optional<Integer> vid;
 
+    // tuples which are not yet materialized into cells.
+    private Tuple[] tuples;
+    private long[] masks;
+    private int tupleCount;
+
     /**
      * Gets the rule Id of this violation.
      * @return rule Id.
@@ -45,7 +55,6 @@ public class Violation {
     public Violation(String ruleId) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(ruleId));
         this.ruleId = ruleId;
-        this.cells = Sets.newHashSet();
         this.vid = Optional.absent();
     }
 
@@ -56,7 +65,6 @@ public class Violation {
     public Violation(String ruleId, int vid) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(ruleId));
         this.ruleId = ruleId;
-        this.cells = Sets.newHashSet();
         this.vid = Optional.of(vid);
     }
 
@@ -65,6 +73,7 @@ public class Violation {
      * @return collection row.
      */
     public Collection<Cell> getCells() {
+        materialize();
         return cells;
     }
 
@@ -77,7 +86,7 @@ public class Violation {
      */
     public Cell getCell(String tableName, String columnName) {
         // TODO: buggy
-        for (Cell cell : cells) {
+        for (Cell cell : getCells()) {
             Column column = cell.getColumn();
             if (
                 column.isFromTable(tableName) &&
@@ -95,6 +104,7 @@ public class Violation {
      */
     public void addCell(Cell cell) {
         Preconditions.checkNotNull(cell);
+        materialize();
         cells.add(cell);
     }
 
@@ -104,7 +114,30 @@ public class Violation {
      */
     public void addTuple(Tuple tuple) {
         Preconditions.checkNotNull(tuple);
-        cells.addAll(tuple.getCells());
+        Schema schema = tuple.getSchema();
+        int size = schema.size();
+        if (size > Long.SIZE) {
+            materialize();
+            cells.addAll(tuple.getCells());
+            return;
+        }
+
+        long mask = size == Long.SIZE ? -1L : (1L << size) - 1;
+        Optional<Integer> tidIndex = schema.getTidIndex();
+        if (tidIndex.isPresent()) {
+            mask &= ~(1L << tidIndex.get());
+        }
+
+        if (tuples == null) {
+            tuples = new Tuple[2];
+            masks = new long[2];
+        } else if (tupleCount == tuples.length) {
+            tuples = Arrays.copyOf(tuples, tupleCount * 2);
+            masks = Arrays.copyOf(masks, tupleCount * 2);
+        }
+        tuples[tupleCount] = tuple;
+        masks[tupleCount] = mask;
+        tupleCount ++;
     }
 
     /**
@@ -122,4 +155,27 @@ public class Violation {
     public void setVid(int vid) {
         this.vid = Optional.of(vid);
     }
+
+    /**
+     * Creates the cells of the pending tuples.
+     */
+    private void materialize() {
+        if (cells == null) {
+            cells = Sets.newHashSet();
+        }
+
+        for (int i = 0; i < tupleCount; i ++) {
+            Tuple tuple = tuples[i];
+            Column[] columns = tuple.getSchema().getColumns();
+            long mask = masks[i];
+            while (mask != 0) {
+                int ordinal = Long.numberOfTrailingZeros(mask);
+                cells.add(new Cell(columns[ordinal], tuple.getTid(), tuple.get(ordinal)));
+                mask &= mask - 1;
+            }
+        }
+        tuples = null;
+        masks = null;
+        tupleCount = 0;
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.pipeline;
+
+import qa.qcri.nadeef.core.datamodel.PairTupleRule;
+import qa.qcri.nadeef.core.datamodel.Rule;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * BlockSplitter splits the pairs of an oversized block into row ranges, so one block with a
+ * hot blocking key is iterated by all the threads instead of holding one of them. A range
+ * <code>[from, to)</code> covers the pairs <code>(i, j)</code> with
+ * <code>from &lt;= i &lt; to</code> and <code>i &lt; j</code>, the ranges are cut so each one
+ * holds about the same number of pairs.
+ */
+final class BlockSplitter {
+    private BlockSplitter() {}
+
+    /**
+     * Returns <code>True</code> when the blocks of the rule can be split, i.e. the rule
+     * iterates all the pairs of a block with the default pair iterator.
+     * @param rule rule.
+     * @param newTuples new tuples of an incremental detection.
+     * @return <code>True</code> when the blocks can be split.
+     */
+    static boolean canSplit(Rule<?> rule, ConcurrentMap<String, HashSet<Integer>> newTuples) {
+        return
+            rule instanceof PairTupleRule &&
+            !rule.supportTwoTables() &&
+            (newTuples == null || newTuples.size() == 0) &&
+            ((PairTupleRule)rule).hasPairIterator();
+    }
+
+    /**
+     * Gets the number of pairs of a block.
+     * @param size block size.
+     * @return number of pairs.
+     */
+    static long getPairCount(int size) {
+        return (long)size * (size - 1) / 2;
+    }
+
+    /**
+     * Splits the pairs of a block into row ranges with about <code>threshold</code> pairs.
+     * @param size block size.
+     * @param threshold maximum number of pairs of a range, 0 disables the split.
+     * @return range boundaries, range k is <code>[result[k], result[k + 1])</code>.
+     */
+    static int[] split(int size, long threshold) {
+        if (threshold <= 0 || getPairCount(size) <= threshold) {
+            return new int[] { 0, size };
+        }
+
+        int[] result = new int[16];
+        int count = 1;
+        long pairs = 0;
+        // the row i pairs with the rows after it.
+        for (int i = 0; i < size - 1; i ++) {
+            pairs += size - 1 - i;
+            if (pairs >= threshold) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count ++] = i + 1;
+                pairs = 0;
+            }
+        }
+
+        // the last row does not start any pair.
+        if (result[count - 1] >= size - 1) {
+            result[count - 1] = size;
+        } else {
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count + 1);
+            }
+            result[count ++] = size;
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
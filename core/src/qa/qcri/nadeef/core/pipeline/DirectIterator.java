@@ -13,22 +13,26 @@
 
 package qa.qcri.nadeef.core.pipeline;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.collect.Lists;
+import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
 import qa.qcri.nadeef.core.datamodel.NonBlockingCollectionIterator;
+import qa.qcri.nadeef.core.datamodel.PairTupleRule;
 import qa.qcri.nadeef.core.datamodel.Rule;
 import qa.qcri.nadeef.core.datamodel.Table;
 import qa.qcri.nadeef.core.datamodel.Violation;
+import qa.qcri.nadeef.core.utils.TaskScheduler;
 import qa.qcri.nadeef.tools.PerfReport;
 import qa.qcri.nadeef.tools.Logger;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.*;
 
 public class DirectIterator extends Operator<Collection<Table>, java.util.Iterator<Violation>> {
-    private static final int MAX_THREAD_NUM = Runtime.getRuntime().availableProcessors();
     public DirectIterator(ExecutionContext context) {
         super(context);
     }
@@ -36,7 +40,7 @@ public class DirectIterator extends Operator<Collection<Table>, java.util.Iterat
     /**
      * IteratorCallable is a {@link Callable} class for iteration operation on each block.
      */
-    class IteratorCallable implements Callable<Integer> {
+    static class IteratorCallable implements Callable<Integer> {
         private DirectIteratorResultHandler directIteratorResultHandler;
         private Collection<Table> tables;
         private ConcurrentMap<String, HashSet<Integer>> newTuples;
@@ -50,9 +54,16 @@ public class DirectIterator extends Operator<Collection<Table>, java.util.Iterat
         ) {
             this.newTuples = newTuples;
             this.tables = tables;
-            this.directIteratorResultHandler =
-                new DirectIteratorResultHandler(rule, outputIterator);
             this.rule = rule;
+            if (newTuples == null || newTuples.size() == 0 || !rule.hasOwnIterator()) {
+                this.directIteratorResultHandler =
+                    new DirectIteratorResultHandler(rule, outputIterator);
+            } else {
+                // the rule iterates the whole blocks of the new tuples, the violations of
+                // old tuples only were already reported.
+                this.directIteratorResultHandler =
+                    new DirectIteratorResultHandler(rule, outputIterator, newTuples);
+            }
         }
 
         /**
@@ -73,34 +84,137 @@ public class DirectIterator extends Operator<Collection<Table>, java.util.Iterat
         }
     }
 
+    /**
+     * RangeCallable is a {@link Callable} class for iteration operation on a row range of
+     * an oversized block, see {@link BlockSplitter}.
+     */
+    static class RangeCallable implements Callable<Integer> {
+        private DirectIteratorResultHandler directIteratorResultHandler;
+        private Table block;
+        private PairTupleRule rule;
+        private int from;
+        private int to;
+
+        RangeCallable(
+            Table block,
+            PairTupleRule rule,
+            int from,
+            int to,
+            NonBlockingCollectionIterator<Violation> outputIterator
+        ) {
+            this.block = block;
+            this.rule = rule;
+            this.from = from;
+            this.to = to;
+            this.directIteratorResultHandler =
+                new DirectIteratorResultHandler(rule, outputIterator);
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            rule.iterator(block, from, to, directIteratorResultHandler);
+            return 0;
+        }
+    }
+
+    /**
+     * Creates the job which iterates the blocks on the shared pool.
+     */
+    static ExecutorService createExecutorService(String name) {
+        return TaskScheduler.createJob(name);
+    }
+
+    /**
+     * Gets the block pairs of a rule over two tables, see {@link Rule#coGroup}. Each pair
+     * holds a block of the first table of the rule followed by a block of the second table.
+     */
+    static List<List<Table>> getCoGroups(Rule<?> rule, Collection<Table> blocks) {
+        List<String> tableNames = rule.getTableNames();
+        List<List<Table>> result = Lists.newArrayList();
+        java.util.Iterator<Table> iterator = blocks.iterator();
+        while (iterator.hasNext()) {
+            Table left = iterator.next();
+            Preconditions.checkArgument(
+                iterator.hasNext(),
+                "Blocks of a rule over two tables need to be paired."
+            );
+            Table right = iterator.next();
+            Preconditions.checkArgument(
+                isFromTable(left, tableNames.get(0)) && isFromTable(right, tableNames.get(1)),
+                "A block pair needs one block of each table of the rule."
+            );
+            result.add(Lists.newArrayList(left, right));
+        }
+        return result;
+    }
+
+    private static boolean isFromTable(Table block, String tableName) {
+        return block.getSchema().getTableName().equalsIgnoreCase(tableName);
+    }
+
+    /**
+     * Submits the iteration of the blocks of a rule, the violations are appended to the
+     * output. The blocks are iterated once, so streamed blocks are only counted here.
+     * @return number of submitted blocks.
+     */
+    static int submit(
+        ExecutorService executor,
+        Rule<?> rule,
+        Collection<Table> blocks,
+        ConcurrentMap<String, HashSet<Integer>> newTuples,
+        NonBlockingCollectionIterator<Violation> output
+    ) {
+        int blockCount = 0;
+        if (rule.supportTwoTables()) {
+            // Rule runs on two tables, only the paired blocks are iterated.
+            for (List<Table> coGroup : getCoGroups(rule, blocks)) {
+                executor.submit(new IteratorCallable(coGroup, rule, newTuples, output));
+                blockCount ++;
+            }
+        } else {
+            // Rule runs on each table, the ranges of an oversized block are queued as
+            // separate tasks so the idle threads share it.
+            boolean canSplit = BlockSplitter.canSplit(rule, newTuples);
+            long threshold = NadeefConfiguration.getBlockSplitThreshold();
+            for (Table table : blocks) {
+                blockCount ++;
+                int[] ranges =
+                    canSplit ? BlockSplitter.split(table.size(), threshold) : null;
+                if (ranges == null || ranges.length <= 2) {
+                    executor.submit(
+                        new IteratorCallable(Arrays.asList(table), rule, newTuples, output)
+                    );
+                    continue;
+                }
+
+                for (int i = 0; i + 1 < ranges.length; i ++) {
+                    executor.submit(
+                        new RangeCallable(
+                            table,
+                            (PairTupleRule)rule,
+                            ranges[i],
+                            ranges[i + 1],
+                            output
+                        )
+                    );
+                }
+            }
+        }
+        return blockCount;
+    }
+
     @Override
     protected java.util.Iterator<Violation> execute(Collection<Table> blocks) throws Exception {
         Logger tracer = Logger.getLogger(DirectIterator.class);
-        ThreadFactory factory =
-            new ThreadFactoryBuilder().setNameFormat("iterator-#" + MAX_THREAD_NUM + "-%d").build();
-        ExecutorService executor = Executors.newFixedThreadPool(MAX_THREAD_NUM, factory);
         Stopwatch stopwatch = Stopwatch.createStarted();
 
         ExecutionContext context = getCurrentContext();
         Rule rule = context.getRule();
+        ExecutorService executor = createExecutorService("iterator-" + rule.getRuleName());
         NonBlockingCollectionIterator<Violation> output = new NonBlockingCollectionIterator<>();
         try {
-            if (rule.supportTwoTables()) {
-                // Rule runs on two tables.
-                executor.submit(
-                    new IteratorCallable(blocks, rule, context.getNewTuples(), output));
-            } else {
-                // Rule runs on each table.
-                for (Table table : blocks)
-                    executor.submit(
-                        new IteratorCallable(
-                            Arrays.asList(table),
-                            rule,
-                            context.getNewTuples(),
-                            output
-                        )
-                    );
-            }
+            int blockCount = submit(executor, rule, blocks, context.getNewTuples(), output);
+            PerfReport.appendMetric(PerfReport.Metric.Blocks, blockCount);
 
             // wait until all the tasks are finished
             executor.shutdown();
@@ -13,18 +13,28 @@
 
 package qa.qcri.nadeef.core.pipeline;
 
+import com.google.common.collect.Lists;
+import qa.qcri.nadeef.core.datamodel.Cell;
 import qa.qcri.nadeef.core.datamodel.IteratorResultHandler;
 import qa.qcri.nadeef.core.datamodel.NonBlockingCollectionIterator;
+import qa.qcri.nadeef.core.datamodel.PairBatch;
+import qa.qcri.nadeef.core.datamodel.PairTupleRule;
 import qa.qcri.nadeef.core.datamodel.Rule;
+import qa.qcri.nadeef.core.datamodel.Table;
 import qa.qcri.nadeef.core.datamodel.Violation;
 import qa.qcri.nadeef.tools.Logger;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 public class DirectIteratorResultHandler implements IteratorResultHandler {
+    private static Logger tracer = Logger.getLogger(DirectIteratorResultHandler.class);
     private Rule rule;
     private NonBlockingCollectionIterator<Violation> violations;
     //private LinkedBlockingQueue<Violation> violations;
+    private Map<String, HashSet<Integer>> newTuples;
 
     public DirectIteratorResultHandler(
         Rule rule,
@@ -34,12 +44,39 @@ public class DirectIteratorResultHandler implements IteratorResultHandler {
         this.violations = violations;
     }
 
+    /**
+     * Constructor of an incremental detection on whole blocks, only the violations with a
+     * new tuple are reported.
+     * @param rule rule.
+     * @param violations output violations.
+     * @param newTuples new tuple ids of each table.
+     */
+    public DirectIteratorResultHandler(
+        Rule<?> rule,
+        NonBlockingCollectionIterator<Violation> violations,
+        Map<String, HashSet<Integer>> newTuples
+    ) {
+        this(rule, violations);
+        this.newTuples = newTuples;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> void handle(T item) {
-        Logger tracer = Logger.getLogger(DirectIteratorResultHandler.class);
         try {
-            Collection<Violation> detectResult = rule.detect(item);
+            Collection<Violation> detectResult;
+            if (item instanceof PairBatch) {
+                detectResult = ((PairTupleRule)rule).detect((PairBatch)item);
+            } else if (rule instanceof PairTupleRule && item instanceof Table) {
+                detectResult = ((PairTupleRule)rule).detect((Table)item);
+            } else {
+                detectResult = rule.detect(item);
+            }
+
+            if (newTuples != null) {
+                detectResult = getNewViolations(detectResult);
+            }
+
             if (detectResult.size() != 0) {
                 violations.appendCollection(detectResult);
             }
@@ -47,4 +84,21 @@ public class DirectIteratorResultHandler implements IteratorResultHandler {
             tracer.error("Exception during detection", ex);
         }
     }
+
+    /**
+     * Gets the violations with at least one new tuple.
+     */
+    private Collection<Violation> getNewViolations(Collection<Violation> detectResult) {
+        List<Violation> result = Lists.newArrayList();
+        for (Violation violation : detectResult) {
+            for (Cell cell : violation.getCells()) {
+                HashSet<Integer> tids = newTuples.get(cell.getColumn().getTableName());
+                if (tids != null && tids.contains(cell.getTid())) {
+                    result.add(violation);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
 }
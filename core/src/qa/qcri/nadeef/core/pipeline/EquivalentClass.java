@@ -16,6 +16,7 @@ package qa.qcri.nadeef.core.pipeline;
 import com.google.common.collect.*;
 import qa.qcri.nadeef.core.datamodel.Cell;
 import qa.qcri.nadeef.core.datamodel.Fix;
+import qa.qcri.nadeef.tools.collection.LongIntHashMap;
 
 import java.util.*;
 
@@ -37,89 +38,72 @@ public class EquivalentClass extends FixDecisionMaker {
      */
     @Override
     public Collection<Fix> decide(Collection<Fix> fixes) {
-        List<HashSet<Cell>> clusters = Lists.newArrayList();
-        // a map between a cell and n
-        HashMap<Cell, HashSet<Cell>> clusterMap = Maps.newHashMap();
-        HashMap<Cell, String> assignMap = Maps.newHashMap();
+        // cells are numbered in the order they show up, the packed cell key maps to the
+        // cell number.
+        LongIntHashMap cellIndex = new LongIntHashMap(fixes.size() * 2);
+        List<Cell> cells = Lists.newArrayList();
         // a map between cell and fix, used for getting the original vid.
-        HashMap<Cell, Fix> fixMap = Maps.newHashMap();
+        List<Fix> fixMap = Lists.newArrayList();
+        // constant assignment of a cell, null when there is none.
+        List<String> assignMap = Lists.newArrayList();
+        // union-find forest of the clusters, -1 when the cell is not in any cluster.
+        int[] parent = grow(new int[0], 16);
 
         // Clustering all the fixes.
-        int count = 0;
         for (Fix fix : fixes) {
             Cell leftCell = fix.getLeft();
-            fixMap.put(leftCell, fix);
+            int left = indexOf(leftCell, cellIndex, cells, fixMap, assignMap);
+            fixMap.set(left, fix);
+            if (parent.length < cells.size()) {
+                parent = grow(parent, cells.size() * 2);
+            }
 
             if (fix.isRightConstant()) {
                 // TODO: do a statistic on the assign count.
-                assignMap.put(leftCell, fix.getRightValue());
+                assignMap.set(left, fix.getRightValue());
                 continue;
             }
 
             Cell rightCell = fix.getRight();
-            fixMap.put(rightCell, fix);
-            if (assignMap.containsKey(leftCell)) {
-                assignMap.remove(leftCell);
+            int right = indexOf(rightCell, cellIndex, cells, fixMap, assignMap);
+            fixMap.set(right, fix);
+            if (parent.length < cells.size()) {
+                parent = grow(parent, cells.size() * 2);
             }
 
-            if (assignMap.containsKey(rightCell)) {
-                assignMap.remove(rightCell);
+            assignMap.set(left, null);
+            assignMap.set(right, null);
+
+            if (parent[left] < 0) {
+                parent[left] = left;
             }
 
-            HashSet<Cell> leftCluster = null;
-            HashSet<Cell> rightCluster = null;
-
-            // when the left column is already in a cluster
-            if (clusterMap.containsKey(leftCell)) {
-                leftCluster = clusterMap.get(leftCell);
-                if (!leftCluster.contains(rightCell)) {
-                    // union of two cluster of cell sets.
-                    if (clusterMap.containsKey(rightCell)) {
-                        rightCluster = clusterMap.get(rightCell);
-                        for (Cell cell : rightCluster) {
-                            leftCluster.add(cell);
-                            clusterMap.put(cell, leftCluster);
-                        }
-
-                        rightCluster.clear();
-                        clusters.remove(rightCluster);
-                    } else {
-                        clusterMap.put(rightCell, leftCluster);
-                        leftCluster.add(rightCell);
-                    }
-                }
-            } else if (clusterMap.containsKey(rightCell)) {
-                // when the right column is already in the cluster
-                rightCluster = clusterMap.get(rightCell);
-                if (!rightCluster.contains(leftCell)) {
-                    // union of two cluster of cell sets.
-                    if (clusterMap.containsKey(leftCell)) {
-                        leftCluster = clusterMap.get(leftCell);
-                        for (Cell cell : leftCluster) {
-                            rightCluster.add(cell);
-                            clusterMap.put(cell, rightCluster);
-                        }
-
-                        for (Cell cell : leftCluster) {
-                            leftCluster.remove(cell);
-                        }
-
-                        clusters.remove(leftCluster);
-                    } else {
-                        clusterMap.put(leftCell, rightCluster);
-                        rightCluster.add(leftCell);
-                    }
-                }
-            } else {
-                // both left and right are not in any of the cluster
-                // create a new cluster of containing both.
-                HashSet<Cell> cluster = Sets.newHashSet();
-                cluster.add(leftCell);
-                cluster.add(rightCell);
-                clusterMap.put(leftCell, cluster);
-                clusterMap.put(rightCell, cluster);
-                clusters.add(cluster);
+            if (parent[right] < 0) {
+                parent[right] = right;
+            }
+
+            int leftRoot = find(parent, left);
+            int rightRoot = find(parent, right);
+            if (leftRoot != rightRoot) {
+                parent[rightRoot] = leftRoot;
+            }
+        }
+
+        // collect the clusters in the order of their first cell.
+        int[] clusterIndex = new int[cells.size()];
+        Arrays.fill(clusterIndex, -1);
+        List<List<Cell>> clusters = Lists.newArrayList();
+        for (int i = 0; i < cells.size(); i ++) {
+            if (parent[i] < 0) {
+                continue;
             }
+
+            int root = find(parent, i);
+            if (clusterIndex[root] < 0) {
+                clusterIndex[root] = clusters.size();
+                clusters.add(Lists.<Cell>newArrayList());
+            }
+            clusters.get(clusterIndex[root]).add(cells.get(i));
         }
 
         // start to count each cluster and decide the final fix based on
@@ -127,8 +111,7 @@ public class EquivalentClass extends FixDecisionMaker {
         List<Fix> result = Lists.newArrayList();
         // for final execution of all the fixes, we use 0 as default as the fix id.
         Fix.Builder fixBuilder = new Fix.Builder();
-        count = 0;
-        for (HashSet<Cell> cluster : clusters) {
+        for (List<Cell> cluster : clusters) {
             Multiset<Object> countSet = HashMultiset.create();
             for (Cell cell : cluster) {
                 countSet.add(cell.getValue());
@@ -141,7 +124,7 @@ public class EquivalentClass extends FixDecisionMaker {
                     // skip the correct value.
                     continue;
                 }
-                Fix originalFix = fixMap.get(cell);
+                Fix originalFix = fixMap.get(cellIndex.get(cell.getKey(), -1));
                 Fix newFix =
                     fixBuilder.vid(originalFix.getVid())
                         .left(cell)
@@ -149,17 +132,59 @@ public class EquivalentClass extends FixDecisionMaker {
                         .build();
                 result.add(newFix);
             }
-            count ++;
         }
 
         // collect the remaining constant assign fix.
-        Set<Map.Entry<Cell, String>> entries = assignMap.entrySet();
-        for (Map.Entry<Cell, String> entry : entries) {
-            Fix newFix = fixBuilder.left(entry.getKey()).right(entry.getValue()).build();
-            result.add(newFix);
+        for (int i = 0; i < cells.size(); i ++) {
+            String value = assignMap.get(i);
+            if (value != null) {
+                Fix newFix = fixBuilder.left(cells.get(i)).right(value).build();
+                result.add(newFix);
+            }
         }
 
         setPercentage(1.0f);
         return result;
     }
+
+    /**
+     * Gets the number of a cell, a new number is given when the cell shows up the first time.
+     */
+    private static int indexOf(
+        Cell cell,
+        LongIntHashMap cellIndex,
+        List<Cell> cells,
+        List<Fix> fixMap,
+        List<String> assignMap
+    ) {
+        int index = cellIndex.putIfAbsent(cell.getKey(), cells.size());
+        if (index == cells.size()) {
+            cells.add(cell);
+            fixMap.add(null);
+            assignMap.add(null);
+        }
+        return index;
+    }
+
+    private static int find(int[] parent, int i) {
+        int root = i;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+
+        // path compression.
+        while (parent[i] != root) {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    private static int[] grow(int[] parent, int size) {
+        int oldSize = parent.length;
+        int[] result = Arrays.copyOf(parent, size);
+        Arrays.fill(result, oldSize, size, -1);
+        return result;
+    }
 }
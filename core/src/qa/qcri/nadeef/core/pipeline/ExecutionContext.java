@@ -15,6 +15,8 @@ package qa.qcri.nadeef.core.pipeline;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
+import qa.qcri.nadeef.core.datamodel.IteratorChannel;
+import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
 import qa.qcri.nadeef.core.datamodel.Rule;
 import qa.qcri.nadeef.core.utils.sql.DBConnectionPool;
 
@@ -28,9 +30,15 @@ public class ExecutionContext {
     private ConcurrentMap<String, HashSet<Integer>> newTuples;
     private DBConnectionPool connectionPool;
     private Rule rule;
+    private IteratorChannel iteratorChannel;
 
     private ExecutionContext() {
         newTuples = Maps.newConcurrentMap();
+        iteratorChannel =
+            new IteratorChannel(
+                NadeefConfiguration.getIteratorChannelCapacity(),
+                NadeefConfiguration.getIteratorBufferSize()
+            );
     }
 
     static ExecutionContext createExecutorContext() {
@@ -62,6 +70,14 @@ public class ExecutionContext {
         this.rule = Preconditions.checkNotNull(rule);
     }
 
+    /**
+     * Gets the channel from the iterator to the detector of this execution.
+     * @return iterator channel.
+     */
+    public IteratorChannel getIteratorChannel() {
+        return iteratorChannel;
+    }
+
     public DBConnectionPool getConnectionPool() {
         if (connectionPool== null) {
             throw new RuntimeException("Connection pool in the context is not initialized.");
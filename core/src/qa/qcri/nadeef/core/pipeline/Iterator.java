@@ -17,15 +17,19 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.*;
 import qa.qcri.nadeef.core.datamodel.IteratorBlockingQueue;
+import qa.qcri.nadeef.core.datamodel.IteratorChannel;
+import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
 import qa.qcri.nadeef.core.datamodel.PairTupleRule;
 import qa.qcri.nadeef.core.datamodel.Rule;
 import qa.qcri.nadeef.core.datamodel.Table;
+import qa.qcri.nadeef.core.utils.TaskScheduler;
 import qa.qcri.nadeef.tools.PerfReport;
 import qa.qcri.nadeef.tools.Logger;
 
 import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
@@ -33,7 +37,6 @@ import java.util.concurrent.*;
  */
 public class Iterator extends Operator<Collection<Table>, Boolean> {
     //<editor-fold desc="Private members">
-    private static final int MAX_THREAD_NUM = Runtime.getRuntime().availableProcessors();
     private int blockCount;
 
     //</editor-fold>
@@ -47,14 +50,14 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
     /**
      * Callback class for progress report.
      */
-    class IteratorCallback implements FutureCallback<Integer> {
+    class IteratorCallback implements FutureCallback<Object> {
         private int tableSize;
 
         public IteratorCallback(int tableSize) {
             this.tableSize = tableSize;
         }
         @Override
-        public void onSuccess(Integer integer) {
+        public void onSuccess(Object result) {
             synchronized (Iterator.class) {
                 blockCount ++;
                 setPercentage(blockCount / tableSize);
@@ -81,7 +84,7 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
         ) {
             this.newTupleRef = new WeakReference<>(newTuples);
             this.ref = new WeakReference<>(tables);
-            this.iteratorBlockingQueue = new IteratorBlockingQueue();
+            this.iteratorBlockingQueue = new IteratorBlockingQueue(getChannel());
             this.rule = rule;
         }
 
@@ -101,7 +104,7 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
 
             Collection<Table> value;
             if (Table.class.isAssignableFrom(instance.getClass())) {
-                value = Lists.newArrayList((Table)instance);
+                value = Lists.<Table>newArrayList((Table)instance);
             } else {
                 value = (Collection<Table>)instance;
             }
@@ -122,6 +125,33 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
             return size;
         }
     }
+
+    /**
+     * RangeCallable is a {@link Callable} class for iteration operation on a row range of
+     * an oversized block, see {@link BlockSplitter}.
+     */
+    class RangeCallable implements Callable<Integer> {
+        private IteratorBlockingQueue iteratorBlockingQueue;
+        private Table block;
+        private PairTupleRule rule;
+        private int from;
+        private int to;
+
+        RangeCallable(Table block, PairTupleRule rule, int from, int to) {
+            this.iteratorBlockingQueue = new IteratorBlockingQueue(getChannel());
+            this.block = block;
+            this.rule = rule;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            rule.iterator(block, from, to, iteratorBlockingQueue);
+            iteratorBlockingQueue.flush();
+            return to - from;
+        }
+    }
     //</editor-fold>
 
     /**
@@ -134,28 +164,57 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
     @SuppressWarnings("unchecked")
     public Boolean execute(Collection<Table> blocks) {
         Logger tracer = Logger.getLogger(Iterator.class);
-        ThreadFactory factory =
-            new ThreadFactoryBuilder().setNameFormat("iterator-pool-%d").build();
-        ExecutorService executor = Executors.newFixedThreadPool(MAX_THREAD_NUM, factory);
-        ListeningExecutorService service = MoreExecutors.listeningDecorator(executor);
-
         Stopwatch stopwatch = Stopwatch.createStarted();
         blockCount = 0;
 
         ExecutionContext context = getCurrentContext();
         Rule rule = context.getRule();
+        ExecutorService executor = TaskScheduler.createJob("iterator-" + rule.getRuleName());
+        ListeningExecutorService service = MoreExecutors.listeningDecorator(executor);
+        // the callables only hold weak references of the block pairs.
+        List<List<Table>> coGroups = null;
         try {
             if (rule.supportTwoTables()) {
-                // Rule runs on two tables.
-                ListenableFuture<Integer> future =
-                    service.submit(new IteratorCallable(blocks, rule, context.getNewTuples()));
-                blockCount ++;
-                setPercentage(1.0f);
+                // Rule runs on two tables, only the paired blocks are iterated.
+                coGroups = DirectIterator.getCoGroups(rule, blocks);
+                for (List<Table> coGroup : coGroups) {
+                    ListenableFuture<Integer> future =
+                        service.submit(
+                            new IteratorCallable(coGroup, rule, context.getNewTuples())
+                        );
+                    Futures.addCallback(future, new IteratorCallback(coGroups.size()));
+                }
             } else {
-                // Rule runs on each table.
+                // Rule runs on each table, the ranges of an oversized block are queued as
+                // separate tasks so the idle threads share it.
+                boolean canSplit = BlockSplitter.canSplit(rule, context.getNewTuples());
+                long threshold = NadeefConfiguration.getBlockSplitThreshold();
                 for (Table table : blocks) {
-                    ListenableFuture<Integer> future =
-                        service.submit(new IteratorCallable(table, rule, context.getNewTuples()));
+                    int[] ranges =
+                        canSplit ? BlockSplitter.split(table.size(), threshold) : null;
+                    ListenableFuture<?> future;
+                    if (ranges == null || ranges.length <= 2) {
+                        future =
+                            service.submit(
+                                new IteratorCallable(table, rule, context.getNewTuples())
+                            );
+                    } else {
+                        List<ListenableFuture<Integer>> rangeFutures = Lists.newArrayList();
+                        for (int i = 0; i + 1 < ranges.length; i ++) {
+                            rangeFutures.add(
+                                service.submit(
+                                    new RangeCallable(
+                                        table,
+                                        (PairTupleRule)rule,
+                                        ranges[i],
+                                        ranges[i + 1]
+                                    )
+                                )
+                            );
+                        }
+                        // the progress counts a split block once all its ranges are done.
+                        future = Futures.allAsList(rangeFutures);
+                    }
                     Futures.addCallback(future, new IteratorCallback(blocks.size()));
                 }
             }
@@ -163,6 +222,9 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
             // wait until all the tasks are finished
             service.shutdown();
             while (!service.awaitTermination(10l, TimeUnit.MINUTES));
+            if (coGroups != null) {
+                coGroups.clear();
+            }
 
             // recycle the collection when dealing with pairs. This is mainly used to remove refs.
             if (rule instanceof PairTupleRule) {
@@ -172,7 +234,7 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
             }
 
             // mark the end of the iteration output
-            IteratorBlockingQueue.markEnd();
+            getChannel().markEnd();
         } catch (InterruptedException ex) {
             tracer.error("Iterator is interrupted.", ex);
         } finally {
@@ -194,7 +256,7 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
      */
     @Override
     public void interrupt() {
-        IteratorBlockingQueue.markEnd();
+        getChannel().markEnd();
     }
 
     /**
@@ -202,6 +264,10 @@ public class Iterator extends Operator<Collection<Table>, Boolean> {
      */
     @Override
     public void reset() {
-        IteratorBlockingQueue.clear();
+        getChannel().clear();
+    }
+
+    private IteratorChannel getChannel() {
+        return getCurrentContext().getIteratorChannel();
     }
 }
@@ -24,6 +24,7 @@ import org.sat4j.specs.IProblem;
 import qa.qcri.nadeef.core.datamodel.Cell;
 import qa.qcri.nadeef.core.datamodel.Fix;
 import qa.qcri.nadeef.tools.Logger;
+import qa.qcri.nadeef.tools.collection.LongObjectHashMap;
 
 import java.io.PrintWriter;
 import java.util.Collection;
@@ -32,22 +33,27 @@ import java.util.HashSet;
 import java.util.List;
 
 public class SatSolver extends FixDecisionMaker {
-    private HashMap<SatVariable, Integer> variableIndexMap;
+    // packed cell key -> assigned value -> variable index.
+    private LongObjectHashMap<HashMap<Object, Integer>> variableIndexMap;
     private List<SatVariable> satVariableList;
 
     private class SatVariableFactory {
         public int createSatVariable(Cell cell, Object value) {
-            SatVariable variable = new SatVariable();
-            variable.cell = cell;
-            variable.assignedValue = value;
+            long cellKey = cell.getKey();
+            HashMap<Object, Integer> valueMap = variableIndexMap.get(cellKey);
+            if (valueMap == null) {
+                valueMap = Maps.newHashMap();
+                variableIndexMap.put(cellKey, valueMap);
+            }
 
-            int index;
-            if (variableIndexMap.containsKey(variable)) {
-                index = variableIndexMap.get(variable);
-            } else {
+            Integer index = valueMap.get(value);
+            if (index == null) {
+                SatVariable variable = new SatVariable();
+                variable.cell = cell;
+                variable.assignedValue = value;
                 satVariableList.add(variable);
                 index = satVariableList.size() - 1;
-                variableIndexMap.put(variable, index);
+                valueMap.put(value, index);
             }
             return index;
         }
@@ -58,26 +64,11 @@ public class SatSolver extends FixDecisionMaker {
         Object assignedValue;
 
         private SatVariable() {}
-
-        @Override
-        public int hashCode() {
-            return cell.hashCode() * assignedValue.hashCode();
-        }
-
-        @Override
-        public boolean equals(Object object) {
-            if (object == null || !(object instanceof SatVariable))
-                return false;
-            SatVariable variable = (SatVariable)object;
-            return
-                cell.equals(variable.cell) &&
-                assignedValue.equals(variable.assignedValue);
-        }
     }
 
     public SatSolver(ExecutionContext context) {
         super(context);
-        variableIndexMap = Maps.newHashMap();
+        variableIndexMap = new LongObjectHashMap<>();
         satVariableList = Lists.newArrayList();
 
         // insert a dummy entry to prevent a value of 0, which
@@ -90,20 +81,19 @@ public class SatSolver extends FixDecisionMaker {
         // cluster of Fixes based on sharing cells.
         List<HashSet<Fix>> clusters = Lists.newArrayList();
         // map between cell and related fixes.
-        HashMap<Cell, HashSet<Fix>> clusterMap = Maps.newHashMap();
+        LongObjectHashMap<HashSet<Fix>> clusterMap = new LongObjectHashMap<>();
 
         // cluster fixes by sharing cells.
         for (Fix fix : fixes) {
             Cell leftCell = fix.getLeft();
-            HashSet<Fix> leftFixCluster = null;
-            if (clusterMap.containsKey(leftCell)) {
-                leftFixCluster = clusterMap.get(leftCell);
-            }
+            long leftKey = leftCell.getKey();
+            HashSet<Fix> leftFixCluster = clusterMap.get(leftKey);
 
             Cell rightCell = fix.isRightConstant() ? null : fix.getRight();
+            long rightKey = rightCell == null ? 0L : rightCell.getKey();
             HashSet<Fix> rightFixCluster = null;
-            if (rightCell != null && clusterMap.containsKey(rightCell)) {
-                rightFixCluster = clusterMap.get(rightCell);
+            if (rightCell != null) {
+                rightFixCluster = clusterMap.get(rightKey);
             }
 
             if (rightCell == null) {
@@ -111,27 +101,26 @@ public class SatSolver extends FixDecisionMaker {
                 if (leftFixCluster == null) {
                     HashSet<Fix> newCluster = Sets.newHashSet();
                     newCluster.add(fix);
-                    clusterMap.put(leftCell, newCluster);
+                    clusterMap.put(leftKey, newCluster);
                     clusters.add(newCluster);
                 } else {
-                    HashSet<Fix> cluster = clusterMap.get(leftCell);
-                    cluster.add(fix);
+                    leftFixCluster.add(fix);
                 }
             } else if (leftFixCluster == null && rightFixCluster == null) {
                 // left cell is new and right cell is new
                 HashSet<Fix> newCluster = Sets.newHashSet();
                 newCluster.add(fix);
-                clusterMap.put(leftCell, newCluster);
-                clusterMap.put(rightCell, newCluster);
+                clusterMap.put(leftKey, newCluster);
+                clusterMap.put(rightKey, newCluster);
                 clusters.add(newCluster);
             } else if (leftFixCluster == null) {
                 // left cell is new but right cell is not new
                 rightFixCluster.add(fix);
-                clusterMap.put(leftCell, rightFixCluster);
+                clusterMap.put(leftKey, rightFixCluster);
             } else if (rightFixCluster == null) {
                 // left cell is not new but right cell is new
                 leftFixCluster.add(fix);
-                clusterMap.put(rightCell, leftFixCluster);
+                clusterMap.put(rightKey, leftFixCluster);
             }
         }
 
@@ -140,8 +129,7 @@ public class SatSolver extends FixDecisionMaker {
         List<VecInt> hardClauses = Lists.newArrayList();
 
         for (HashSet<Fix> cluster : clusters) {
-            HashMap<Cell, HashSet<Integer>> litmap = Maps.newHashMap();
-            HashSet<Cell> cells = Sets.newHashSet();
+            LongObjectHashMap<HashSet<Integer>> litmap = new LongObjectHashMap<>();
 
             for (Fix fix : cluster) {
                 // generate inclusive clauses
@@ -163,17 +151,14 @@ public class SatSolver extends FixDecisionMaker {
                 softClauses.add(new VecInt(new int[]{lit1, lit2}));
                 // softClauses.add(new VecInt(new int[]{-lit1, lit2}));
 
-                HashSet<Integer> lits;
-                if (!litmap.containsKey(leftCell)) {
+                HashSet<Integer> lits = litmap.get(leftCell.getKey());
+                if (lits == null) {
                     lits = Sets.newHashSet();
-                    litmap.put(leftCell, lits);
-                } else {
-                    lits = litmap.get(leftCell);
+                    litmap.put(leftCell.getKey(), lits);
                 }
 
                 lits.add(lit1);
                 lits.add(lit2);
-                cells.add(leftCell);
 
                 if (!fix.isRightConstant()) {
                     // for non-constant assignment
@@ -195,16 +180,14 @@ public class SatSolver extends FixDecisionMaker {
                     softClauses.add(new VecInt(new int[]{lit3, lit4}));
                     // softClauses.add(new VecInt(new int[]{-lit3, lit4}));
 
-                    if (!litmap.containsKey(rightCell)) {
+                    lits = litmap.get(rightCell.getKey());
+                    if (lits == null) {
                         lits = Sets.newHashSet();
-                        litmap.put(rightCell, lits);
-                    } else {
-                        lits = litmap.get(rightCell);
+                        litmap.put(rightCell.getKey(), lits);
                     }
 
                     lits.add(lit3);
                     lits.add(lit4);
-                    cells.add(rightCell);
                 }
             }
 
@@ -213,8 +196,7 @@ public class SatSolver extends FixDecisionMaker {
             // we need to generate exclusive clauses like
             // (~t1.a = v1 v ~t1.a = v2) for C(n, 2) pairs
             // to prevent a variable is assigned two values at the same time.
-            for (Cell cell : cells) {
-                HashSet<Integer> lits = litmap.get(cell);
+            for (HashSet<Integer> lits : litmap.values()) {
                 Object[] lists = lits.toArray();
                 for (int i = 0; i < lists.length; i ++)
                     for (int j = i + 1; j < lists.length; j ++) {
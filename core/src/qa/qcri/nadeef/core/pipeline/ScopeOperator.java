@@ -61,11 +61,13 @@ public class ScopeOperator extends Operator<Collection<Table>, Collection<Table>
         Collection<Table> result = verticalScopeResult;
 
         // Block
-        // Currently we don't support co-group, so once a rule is working with two tables we
-        // ignore the block function.
-        if (!rule.supportTwoTables()) {
+        // A rule working with two tables co-groups them into block pairs, its block function
+        // is ignored. The blocks are counted by the iterator, streamed blocks are only known
+        // once they are read.
+        if (rule.supportTwoTables()) {
+            result = rule.coGroup(verticalScopeResult);
+        } else {
             result = rule.block(verticalScopeResult);
-            PerfReport.appendMetric(PerfReport.Metric.Blocks, result.size());
         }
 
         stopwatch.stop();
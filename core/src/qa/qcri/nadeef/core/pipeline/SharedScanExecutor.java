@@ -0,0 +1,209 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.pipeline;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import qa.qcri.nadeef.core.datamodel.CleanPlan;
+import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
+import qa.qcri.nadeef.core.datamodel.ProgressReport;
+import qa.qcri.nadeef.core.datamodel.Rule;
+import qa.qcri.nadeef.core.utils.sql.DBConnectionPool;
+import qa.qcri.nadeef.core.utils.sql.DBInstaller;
+import qa.qcri.nadeef.tools.DBConfig;
+import qa.qcri.nadeef.tools.Logger;
+import qa.qcri.nadeef.tools.PerfReport;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-rule detection executor. Instead of running one {@link CleanExecutor} per
+ * {@link CleanPlan}, the clean plans on the same source database are detected together so
+ * each source table is scanned once for all the rules, see {@link SharedScanIterator}.
+ */
+public class SharedScanExecutor {
+
+    //<editor-fold desc="Private fields">
+    private static Logger tracer = Logger.getLogger(SharedScanExecutor.class);
+    private List<CleanPlan> cleanPlans;
+    private NodeCacheManager cacheManager;
+    private List<Flow> detectFlows;
+    private List<DBConnectionPool> connectionPools;
+    //</editor-fold>
+
+    //<editor-fold desc="Constructor / Deconstructor">
+
+    /**
+     * Constructor. Use default NADEEF default config as DB config.
+     *
+     * @param cleanPlans input {@link CleanPlan}s.
+     */
+    public SharedScanExecutor(List<CleanPlan> cleanPlans) throws Exception {
+        this(cleanPlans, NadeefConfiguration.getDbConfig());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cleanPlans input {@link CleanPlan}s.
+     * @param dbConfig  meta data dbconfig.
+     */
+    public SharedScanExecutor(List<CleanPlan> cleanPlans, DBConfig dbConfig) throws Exception {
+        Preconditions.checkArgument(cleanPlans != null && cleanPlans.size() > 0);
+        this.cleanPlans = cleanPlans;
+        this.cacheManager = NodeCacheManager.getInstance();
+        this.detectFlows = Lists.newArrayList();
+        this.connectionPools = Lists.newArrayList();
+        DBInstaller.install(dbConfig);
+
+        // the rules are grouped by their source database.
+        LinkedHashMap<String, List<CleanPlan>> groups = Maps.newLinkedHashMap();
+        for (CleanPlan cleanPlan : cleanPlans) {
+            DBConfig source = cleanPlan.getSourceDBConfig();
+            String key = source.getDialect() + "|" + source.getUrl() + "|" + source.getUserName();
+            List<CleanPlan> group = groups.get(key);
+            if (group == null) {
+                group = Lists.newArrayList();
+                groups.put(key, group);
+            }
+            group.add(cleanPlan);
+        }
+
+        for (List<CleanPlan> group : groups.values()) {
+            DBConnectionPool connectionPool =
+                DBConnectionPool.createDBConnectionPool(group.get(0).getSourceDBConfig(), dbConfig);
+            connectionPools.add(connectionPool);
+            ExecutionContext context = ExecutionContext.createExecutorContext();
+            context.setConnectionPool(connectionPool);
+
+            List<Rule<?>> rules = Lists.newArrayList();
+            for (CleanPlan cleanPlan : group) {
+                rules.add(cleanPlan.getRule());
+            }
+
+            Flow detectFlow = new Flow("shared-detect");
+            detectFlow
+                .setInputKey(cacheManager.getKeyForNothing())
+                .addNode(new SharedScanIterator(context, rules))
+                .addNode(new ViolationExportToCSV(context))
+                .addNode(new ViolationCSVExport(context));
+            detectFlows.add(detectFlow);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Public methods">
+
+    /**
+     * Returns <code>True</code> when the executor is running.
+     *
+     * @return <code>True</code> when the executor is running.
+     */
+    public synchronized boolean isRunning() {
+        for (Flow detectFlow : detectFlows) {
+            if (detectFlow.isRunning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shutdown the SharedScanExecutor.
+     */
+    public void shutdown() {
+        for (Flow detectFlow : detectFlows) {
+            if (detectFlow.isRunning()) {
+                detectFlow.forceStop();
+            }
+        }
+        detectFlows.clear();
+
+        for (DBConnectionPool connectionPool : connectionPools) {
+            connectionPool.shutdown();
+        }
+        connectionPools.clear();
+    }
+
+    /**
+     * SharedScanExecutor finalizer.
+     */
+    @Override
+    public void finalize() throws Throwable {
+        shutdown();
+        super.finalize();
+    }
+
+    /**
+     * Gets the CleanPlans.
+     *
+     * @return the CleanPlans.
+     */
+    public List<CleanPlan> getCleanPlans() {
+        return cleanPlans;
+    }
+
+    /**
+     * Gets the current progress percentage of Detect.
+     *
+     * @return current progress percentage of Detect.
+     */
+    public double getDetectProgress() {
+        double progress = 0.0;
+        for (Flow detectFlow : detectFlows) {
+            progress += detectFlow.getProgress();
+        }
+        return progress / detectFlows.size();
+    }
+
+    /**
+     * Gets the detail progress information of Detection.
+     *
+     * @return the detail progress information of Detection.
+     */
+    public List<ProgressReport> getDetailDetectProgress() {
+        List<ProgressReport> result = Lists.newArrayList();
+        for (Flow detectFlow : detectFlows) {
+            result.addAll(detectFlow.getDetailProgress());
+        }
+        return result;
+    }
+
+    /**
+     * Runs the violation detection of all the clean plans.
+     */
+    public SharedScanExecutor detect() {
+        Stopwatch sw = Stopwatch.createStarted();
+        for (Flow detectFlow : detectFlows) {
+            detectFlow.reset();
+            detectFlow.start();
+            detectFlow.waitUntilFinish();
+        }
+
+        PerfReport.appendMetric(
+            PerfReport.Metric.DetectTime,
+            sw.elapsed(TimeUnit.MILLISECONDS)
+        );
+        sw.stop();
+        tracer.info(
+            "Detected " + cleanPlans.size() + " rules in " + detectFlows.size() + " scans."
+        );
+        return this;
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,113 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.pipeline;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import qa.qcri.nadeef.core.datamodel.ColumnarTable;
+import qa.qcri.nadeef.core.datamodel.NonBlockingCollectionIterator;
+import qa.qcri.nadeef.core.datamodel.Rule;
+import qa.qcri.nadeef.core.datamodel.SQLTable;
+import qa.qcri.nadeef.core.datamodel.Table;
+import qa.qcri.nadeef.core.datamodel.Violation;
+import qa.qcri.nadeef.core.utils.sql.DBConnectionPool;
+import qa.qcri.nadeef.tools.Logger;
+import qa.qcri.nadeef.tools.PerfReport;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SharedScanIterator detects the violations of many rules with one scan of each source table.
+ * Every table is loaded once, each rule scopes and blocks its own in-memory view of it, and
+ * the blocks of all the rules are iterated on one thread pool. Rules blocking the same rows
+ * on the same columns share one grouping, see {@link ColumnarTable#shareGroups()}.
+ */
+public class SharedScanIterator extends Operator<Optional<?>, java.util.Iterator<Violation>> {
+    private List<Rule<?>> rules;
+
+    /**
+     * Constructor.
+     * @param context execution context with the connection pool of the source database.
+     * @param rules rules on the tables of the source database.
+     */
+    public SharedScanIterator(ExecutionContext context, List<Rule<?>> rules) {
+        super(context);
+        Preconditions.checkArgument(rules != null && rules.size() > 0);
+        this.rules = rules;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected java.util.Iterator<Violation> execute(Optional<?> emptyInput) throws Exception {
+        Logger tracer = Logger.getLogger(SharedScanIterator.class);
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        DBConnectionPool connectionPool = getCurrentContext().getConnectionPool();
+        HashMap<String, ColumnarTable> tables = Maps.newHashMap();
+        NonBlockingCollectionIterator<Violation> output = new NonBlockingCollectionIterator<>();
+        ExecutorService executor = DirectIterator.createExecutorService("shared-scan");
+        try {
+            for (int i = 0; i < rules.size(); i ++) {
+                Rule<?> rule = rules.get(i);
+                ExecutionContext context = ExecutionContext.createExecutorContext();
+                context.setConnectionPool(connectionPool);
+                context.setRule(rule);
+
+                List<String> tableNames = rule.getTableNames();
+                List<Table> views = Lists.newArrayList();
+                for (String tableName : tableNames) {
+                    ColumnarTable table = tables.get(tableName);
+                    if (table == null) {
+                        // SQLTable keeps the loaded rows in a ColumnarTable.
+                        table = (ColumnarTable)new SQLTable(tableName, connectionPool).view();
+                        table.shareGroups();
+                        tables.put(tableName, table);
+                    }
+                    views.add(table.view());
+                }
+
+                Collection<Table> blocks = new ScopeOperator(context).execute(views);
+                int blockCount =
+                    DirectIterator.submit(executor, rule, blocks, context.getNewTuples(), output);
+                PerfReport.appendMetric(PerfReport.Metric.Blocks, blockCount);
+                setPercentage(0.5 * (i + 1) / rules.size());
+            }
+
+            tracer.info(rules.size() + " rules share the scan of " + tables.size() + " tables.");
+
+            // wait until all the tasks are finished
+            executor.shutdown();
+            while (!executor.awaitTermination(10l, TimeUnit.MINUTES));
+        } catch (InterruptedException ex) {
+            tracer.error("Iterator is interrupted.", ex);
+        } finally {
+            executor.shutdown();
+        }
+
+        PerfReport.appendMetric(
+            PerfReport.Metric.IteratorTime,
+            stopwatch.elapsed(TimeUnit.MILLISECONDS)
+        );
+        stopwatch.stop();
+        return output;
+    }
+}
@@ -14,12 +14,17 @@
 package qa.qcri.nadeef.core.pipeline;
 
 import com.google.common.base.Optional;
+import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
+import qa.qcri.nadeef.core.datamodel.PairTupleRule;
 import qa.qcri.nadeef.core.datamodel.Rule;
+import qa.qcri.nadeef.core.datamodel.SQLCursorTable;
 import qa.qcri.nadeef.core.datamodel.SQLTable;
+import qa.qcri.nadeef.core.datamodel.SingleTupleRule;
 import qa.qcri.nadeef.core.datamodel.Table;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -44,13 +49,41 @@ public class SourceImport extends Operator<Optional, Collection<Table>> {
         @SuppressWarnings("unchecked")
         List<String> tableNames = rule.getTableNames();
         List<Table> collections = new ArrayList<>();
+        HashSet<Integer> newTuples = context.getNewTuples().get(tableNames.get(0));
         if (tableNames.size() == 2) {
             collections.add(new SQLTable(tableNames.get(0), context.getConnectionPool()));
             collections.add(new SQLTable(tableNames.get(1), context.getConnectionPool()));
+        } else if (newTuples != null && rule instanceof PairTupleRule) {
+            // only the blocks of the new tuples are detected incrementally, so the blocks
+            // of old tuples only are not built.
+            SQLTable table = new SQLTable(tableNames.get(0), context.getConnectionPool());
+            collections.add(table.setDelta(newTuples));
+        } else if (isStreamable(rule)) {
+            // single tuple rules visit each tuple once and blocked pair rules visit each
+            // block once, so the tuples are streamed from a database cursor instead of being
+            // loaded into memory.
+            collections.add(new SQLCursorTable(tableNames.get(0), context.getConnectionPool()));
         } else {
             collections.add(new SQLTable(tableNames.get(0), context.getConnectionPool()));
         }
 
         return collections;
     }
+
+    /**
+     * Returns <code>True</code> when the rule only needs a forward-only pass on the table.
+     */
+    private static boolean isStreamable(Rule<?> rule) {
+        if (rule instanceof PairTupleRule) {
+            // the blocks of a pair rule are cut from one ordered scan.
+            return NadeefConfiguration.isStreamingBlock() && ((PairTupleRule)rule).hasOwnBlock();
+        }
+
+        if (!(rule instanceof SingleTupleRule)) {
+            return false;
+        }
+
+        SingleTupleRule singleTupleRule = (SingleTupleRule)rule;
+        return !singleTupleRule.hasOwnBlock() && !singleTupleRule.hasOwnIterator();
+    }
 }
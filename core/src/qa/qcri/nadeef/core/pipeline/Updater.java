@@ -14,7 +14,6 @@
 package qa.qcri.nadeef.core.pipeline;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.mysql.jdbc.log.Log;
 import qa.qcri.nadeef.core.datamodel.Cell;
 import qa.qcri.nadeef.core.datamodel.Column;
@@ -24,29 +23,31 @@ import qa.qcri.nadeef.core.utils.sql.DBConnectionPool;
 import qa.qcri.nadeef.tools.CommonTools;
 import qa.qcri.nadeef.tools.PerfReport;
 import qa.qcri.nadeef.tools.Logger;
+import qa.qcri.nadeef.tools.collection.LongHashSet;
+import qa.qcri.nadeef.tools.collection.LongObjectHashMap;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Updater fixes the source data and exports it in the database.
  */
 public class Updater extends Operator<Collection<Fix>, Collection<Fix>> {
     private static Logger tracer = Logger.getLogger(Updater.class);
-    private ConcurrentMap<Cell, String> updateHistory;
-    private ConcurrentMap<Cell, Boolean> unknownTag;
+    // updated value and ambiguous (unknown) tag of cells, keyed by the packed cell key.
+    private LongObjectHashMap<String> updateHistory;
+    private LongHashSet unknownTag;
 
     /**
      * Constructor.
      */
     public Updater(ExecutionContext context) {
         super(context);
-        updateHistory = Maps.newConcurrentMap();
-        unknownTag = Maps.newConcurrentMap();
+        updateHistory = new LongObjectHashMap<>();
+        unknownTag = new LongHashSet();
     }
 
     /**
@@ -78,6 +79,7 @@ public class Updater extends Operator<Collection<Fix>, Collection<Fix>> {
                     " VALUES (default, ?, ?, ?, ?, ?, ?, current_timestamp)");
             for (Fix fix : fixes) {
                 Cell cell = fix.getLeft();
+                long cellKey = cell.getKey();
                 Object oldValue_ = cell.getValue();
                 if (oldValue_ == null) {
                     oldValue = null;
@@ -86,24 +88,24 @@ public class Updater extends Operator<Collection<Fix>, Collection<Fix>> {
                 }
 
                 // this cell has already been changed to unknown
-                if (unknownTag.containsKey(cell)) {
+                if (unknownTag.contains(cellKey)) {
                     continue;
                 }
 
                 realFixes.add(fix);
                 // check whether this cell has been changed before
-                if (updateHistory.containsKey(cell)) {
-                    String value = updateHistory.get(cell);
+                String value = updateHistory.get(cellKey);
+                if (value != null) {
                     if (value.equals(fix.getRightValue())) {
                         continue;
                     }
                     // when a cell is set twice with different value,
                     // we set it to null for ambiguous value.
-                    unknownTag.put(cell, true);
+                    unknownTag.add(cellKey);
                     rightValue = "?";
                 } else {
                     rightValue = fix.getRightValue();
-                    updateHistory.put(cell, rightValue);
+                    updateHistory.put(cellKey, rightValue);
                 }
 
                 // check for numerical type.
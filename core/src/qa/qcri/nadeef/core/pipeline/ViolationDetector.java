@@ -19,14 +19,13 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.*;
 import qa.qcri.nadeef.core.datamodel.*;
+import qa.qcri.nadeef.core.utils.TaskScheduler;
 import qa.qcri.nadeef.tools.PerfReport;
 import qa.qcri.nadeef.tools.Logger;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -34,10 +33,7 @@ import java.util.concurrent.TimeUnit;
  */
 public class ViolationDetector
     extends Operator<Optional, Collection<Violation>> {
-    private static final int MAX_THREAD_NUM = Runtime.getRuntime().availableProcessors();
-
     private Collection<Violation> resultCollection;
-    private ListeningExecutorService service;
 
     private int totalThreadCount;
     private int finishedThreadCount;
@@ -49,11 +45,6 @@ public class ViolationDetector
     public ViolationDetector(ExecutionContext context) {
         super(context);
         resultCollection = Lists.newArrayList();
-        ThreadFactory factory = new ThreadFactoryBuilder().setNameFormat("detect-pool-%d").build();
-        service =
-            MoreExecutors.listeningDecorator(
-                Executors.newFixedThreadPool(MAX_THREAD_NUM, factory)
-            );
     }
 
     /**
@@ -111,8 +102,16 @@ public class ViolationDetector
                         Tuple tuple = (Tuple)item;
                         violations = rule.detect(tuple);
                     } else if (rule instanceof PairTupleRule) {
-                        TuplePair pair = (TuplePair)item;
-                        violations = rule.detect(pair);
+                        if (item instanceof PairBatch) {
+                            PairBatch batch = (PairBatch)item;
+                            violations = ((PairTupleRule)rule).detect(batch);
+                            count += batch.size() - 1;
+                        } else if (item instanceof Table) {
+                            violations = ((PairTupleRule)rule).detect((Table)item);
+                        } else {
+                            TuplePair pair = (TuplePair)item;
+                            violations = rule.detect(pair);
+                        }
                     } else {
                         Table collection = (Table)item;
                         violations = rule.detect(collection);
@@ -148,13 +147,17 @@ public class ViolationDetector
         finishedThreadCount = 0;
 
         Rule rule = getCurrentContext().getRule();
-        IteratorBlockingQueue iteratorBlockingQueue = new IteratorBlockingQueue();
+        ListeningExecutorService service =
+            MoreExecutors.listeningDecorator(
+                TaskScheduler.createJob("detect-" + rule.getRuleName())
+            );
+        IteratorChannel iteratorChannel = getCurrentContext().getIteratorChannel();
         resultCollection.clear();
         List<Object> tupleList;
         Stopwatch stopwatch = Stopwatch.createStarted();
         List<ListenableFuture<Integer>> futures = Lists.newArrayList();
         while (true) {
-            tupleList = iteratorBlockingQueue.poll();
+            tupleList = iteratorChannel.poll();
             if (tupleList.size() == 0) {
                 break;
             }
@@ -169,6 +172,7 @@ public class ViolationDetector
         for (ListenableFuture<Integer> future : futures) {
             future.get();
         }
+        service.shutdown();
 
         PerfReport.appendMetric(
             PerfReport.Metric.DetectTimeOnly,
@@ -179,12 +183,4 @@ public class ViolationDetector
         stopwatch.stop();
         return resultCollection;
     }
-
-    @Override
-    public void finalize() throws Throwable {
-        super.finalize();
-        if (!service.isShutdown()) {
-            service.shutdownNow();
-        }
-    }
 }
\ No newline at end of file
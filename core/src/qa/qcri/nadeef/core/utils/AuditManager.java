@@ -13,7 +13,6 @@
 
 package qa.qcri.nadeef.core.utils;
 
-import com.google.common.collect.Sets;
 import qa.qcri.nadeef.core.datamodel.Cell;
 import qa.qcri.nadeef.core.datamodel.Column;
 import qa.qcri.nadeef.core.datamodel.Fix;
@@ -24,12 +23,12 @@ import qa.qcri.nadeef.core.utils.sql.DBConnectionPool;
 import qa.qcri.nadeef.tools.CommonTools;
 import qa.qcri.nadeef.tools.Logger;
 import qa.qcri.nadeef.tools.PerfReport;
+import qa.qcri.nadeef.tools.collection.LongHashSet;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Set;
 
 /**
  * This class is responsible of updating database with suggested values as well as maintaining Audit table
@@ -42,15 +41,16 @@ public class AuditManager {
 
     private ExecutionContext context;
 
-    private Set<Cell> changedCells;
+    // packed keys of the changed cells.
+    private LongHashSet changedCells;
 
     public AuditManager(ExecutionContext context) {
         this.context = context;
-        this.changedCells = Sets.newHashSet();
+        this.changedCells = new LongHashSet();
     }
 
     public boolean isAlreadyUpdated(Cell cell) {
-        return this.changedCells.contains(cell);
+        return this.changedCells.contains(cell.getKey());
     }
 
 
@@ -126,7 +126,7 @@ public class AuditManager {
 
             count++;
             // add cell to hash set
-            this.changedCells.add(fix.getLeft());
+            this.changedCells.add(fix.getLeft().getKey());
 
             PerfReport.appendMetric(PerfReport.Metric.UpdatedCellNumber, count);
         } finally {
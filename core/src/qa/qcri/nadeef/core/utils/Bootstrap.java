@@ -42,6 +42,7 @@ public class Bootstrap {
         if (isStarted) {
             NodeCacheManager cacheManager = NodeCacheManager.getInstance();
             cacheManager.clear();
+            TaskScheduler.shutdown();
             // try to collect the resources if possible
             System.gc();
             isStarted = false;
@@ -71,6 +72,7 @@ public class Bootstrap {
 
         try {
             NadeefConfiguration.initialize(new FileReader(configFile));
+            TaskScheduler.start(NadeefConfiguration.getParallelism());
 
             // set the logging directory
             Path outputPath = NadeefConfiguration.getOutputPath();
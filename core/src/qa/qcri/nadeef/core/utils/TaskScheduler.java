@@ -0,0 +1,275 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.core.utils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskScheduler runs the tasks of all the operators on one process-wide work-stealing
+ * {@link ForkJoinPool}, which is started and shut down by {@link Bootstrap}.
+ *
+ * Operators submit their tasks through a {@link Job}, an executor tagged with the name of
+ * the job. The jobs with queued or running tasks share the pool fairly: a job runs at most
+ * its share of the parallelism at a time and keeps the rest of its tasks queued, so a job
+ * with many tasks does not hold back the jobs started after it.
+ */
+public final class TaskScheduler {
+    private static ForkJoinPool pool;
+    private static Set<Job> activeJobs = new CopyOnWriteArraySet<>();
+
+    private TaskScheduler() {}
+
+    /**
+     * Job is an executor of the tasks of one operator run. Shutting down a job only stops
+     * the job, the pool keeps running.
+     */
+    public static class Job extends AbstractExecutorService {
+        private String name;
+        private ArrayDeque<Runnable> pending;
+        private int running;
+        private long taskCount;
+        private long completedTaskCount;
+        private boolean isShutdown;
+
+        private Job(String name) {
+            this.name = Preconditions.checkNotNull(name);
+            this.pending = new ArrayDeque<>();
+        }
+
+        /**
+         * Gets the name of the job.
+         * @return job name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of submitted tasks.
+         * @return number of submitted tasks.
+         */
+        public synchronized long getTaskCount() {
+            return taskCount;
+        }
+
+        /**
+         * Gets the number of finished tasks.
+         * @return number of finished tasks.
+         */
+        public synchronized long getCompletedTaskCount() {
+            return completedTaskCount;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void execute(Runnable command) {
+            Preconditions.checkNotNull(command);
+            synchronized (this) {
+                if (isShutdown) {
+                    throw new RejectedExecutionException("Job " + name + " is shut down.");
+                }
+                pending.add(command);
+                taskCount ++;
+                activeJobs.add(this);
+            }
+            dispatch();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized void shutdown() {
+            isShutdown = true;
+            notifyAll();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Runnable> shutdownNow() {
+            List<Runnable> result;
+            synchronized (this) {
+                isShutdown = true;
+                result = Lists.newArrayList(pending);
+                pending.clear();
+                if (running == 0) {
+                    activeJobs.remove(this);
+                }
+                notifyAll();
+            }
+            dispatchAll();
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized boolean isShutdown() {
+            return isShutdown;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized boolean isTerminated() {
+            return isShutdown && running == 0 && pending.isEmpty();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+
+        /**
+         * Starts the queued tasks up to the share of the job.
+         */
+        private void dispatch() {
+            List<Runnable> ready = Lists.newArrayList();
+            synchronized (this) {
+                int share = getShare();
+                while (running < share && !pending.isEmpty()) {
+                    ready.add(pending.poll());
+                    running ++;
+                }
+            }
+
+            ForkJoinPool currentPool = getPool();
+            for (final Runnable task : ready) {
+                currentPool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.run();
+                        } finally {
+                            finish();
+                        }
+                    }
+                });
+            }
+        }
+
+        private void finish() {
+            boolean isIdle;
+            synchronized (this) {
+                running --;
+                completedTaskCount ++;
+                isIdle = running == 0 && pending.isEmpty();
+                if (isIdle) {
+                    activeJobs.remove(this);
+                    notifyAll();
+                }
+            }
+
+            // an idle job leaves its share to the other jobs.
+            if (isIdle) {
+                dispatchAll();
+            } else {
+                dispatch();
+            }
+        }
+    }
+
+    /**
+     * Starts the pool.
+     * @param parallelism number of worker threads.
+     */
+    static synchronized void start(int parallelism) {
+        Preconditions.checkArgument(parallelism > 0);
+        if (pool == null) {
+            // FIFO order of the submitted tasks.
+            pool =
+                new ForkJoinPool(
+                    parallelism,
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                    null,
+                    true
+                );
+        }
+    }
+
+    /**
+     * Shuts down the pool, the submitted tasks are still finished.
+     */
+    static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Gets the pool, it is started with the configured parallelism on the first use.
+     * @return the shared pool.
+     */
+    public static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            start(NadeefConfiguration.getParallelism());
+        }
+        return pool;
+    }
+
+    /**
+     * Creates a job on the shared pool.
+     * @param name job name.
+     * @return new job.
+     */
+    public static Job createJob(String name) {
+        return new Job(name);
+    }
+
+    /**
+     * Gets the number of tasks a job runs at a time, the parallelism is shared by the jobs
+     * with queued or running tasks.
+     */
+    private static int getShare() {
+        int parallelism = getPool().getParallelism();
+        int jobCount = Math.max(1, activeJobs.size());
+        return Math.max(1, (parallelism + jobCount - 1) / jobCount);
+    }
+
+    private static void dispatchAll() {
+        for (Job job : activeJobs) {
+            job.dispatch();
+        }
+    }
+}
@@ -81,6 +81,10 @@ public class SQLQueryBuilder implements Cloneable {
         this.orders.add(order);
     }
 
+    public void clearOrder() {
+        this.orders.clear();
+    }
+
     public void addWhere(String where) {
         Preconditions.checkNotNull(where);
         this.wheres.add(where);
@@ -13,6 +13,7 @@
 
 package qa.qcri.nadeef.ruleext;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import org.stringtemplate.v4.ST;
@@ -34,101 +35,41 @@ public class CFDRuleBuilder extends RuleBuilder {
     protected List<String>                 lhs;
     protected List<String>                 rhs;
     protected List<List<Predicate>> filterExpressions;
-    protected STGroupFile                  singleSTGroup;
-    protected STGroupFile                  pairSTGroup;
 
     @Override
     public Collection<File> generate() throws Exception {
-        List<File> result = Lists.newArrayList();
-        singleSTGroup = new STGroupFile(
-            "qa/qcri/nadeef/ruleext/template/SingleCFDRuleBuilder.stg",
+        STGroupFile stFile = new STGroupFile(
+            "qa/qcri/nadeef/ruleext/template/CFDRuleBuilder.stg",
             '$', '$'
         );
 
-        pairSTGroup = new STGroupFile(
-            "qa/qcri/nadeef/ruleext/template/PairCFDRuleBuilder.stg",
-            '$', '$'
-        );
-
-        ST sst = singleSTGroup.getInstanceOf("cfdTemplate");
-        ST pst = pairSTGroup.getInstanceOf("cfdTemplate");
-        ST targetST;
-
-        sst.add("leftHandSide", lhs);
-        pst.add("leftHandSide", lhs);
-
-        for (int i = 0; i < filterExpressions.size(); i++) {
-            List<Predicate> filters = filterExpressions.get(i);
-            ST leftExpressionST = singleSTGroup.getInstanceOf("lExpressionItem");
-            List<String> leftExpressions = Lists.newArrayList();
-
-            // Pass over items of lhs
-            for (int j = 0; j < lhs.size(); j++) {
-                Predicate expression = filters.get(j);
+        // the whole tableau goes into one rule.
+        List<String> patterns = Lists.newArrayList();
+        for (List<Predicate> filters : filterExpressions) {
+            List<String> values = Lists.newArrayList();
+            for (Predicate expression : filters) {
                 String eValue = (String)expression.getValue();
-                if (!eValue.equals("_")) {
-                    leftExpressionST.add("columnName", expression.getLeft()
-                            .getFullColumnName());
-                    leftExpressionST.add("value", eValue);
-                    leftExpressions.add(leftExpressionST.render());
-                    leftExpressionST.remove("columnName");
-                    leftExpressionST.remove("value");
-                }
+                values.add('"' + eValue.replace("\\", "\\\\").replace("\"", "\\\"") + '"');
             }
+            patterns.add(Joiner.on(", ").join(values));
+        }
 
-            // Normalize CFD; create a file for each column in RHS
-            for (int j = 0; j < rhs.size(); j++) {
-                String rhsCol = rhs.get(j);
-
-                Predicate expression = filters.get(j + lhs.size());
-                String eValue = (String)expression.getValue();
-                if (!eValue.equals("_")) {
-                    ST rightExpressionST = singleSTGroup.getInstanceOf("rExpressionItem");
-                    rightExpressionST.add("columnName", expression.getLeft().getFullColumnName());
-                    rightExpressionST.add("value", eValue);
-                    List<String> rightExpressions = Lists.newArrayList();
-                    rightExpressions.add(rightExpressionST.render());
-                    rightExpressionST.remove("columnName");
-                    rightExpressionST.remove("value");
-
-                    sst.add("lExpression", leftExpressions);
-                    sst.add("rExpression", rightExpressions);
-                    targetST = sst;
-                } else {
-                    pst.add("lExpression", leftExpressions);
-                    targetST = pst;
-                }
-
-                targetST.add("rightHandSide", rhsCol);
-
-                if (Strings.isNullOrEmpty(originalRuleName)) {
-                    ruleName = "DefaultCFD"
-                            + CommonTools.toHashCode(value.get(i + 1)) + "_"
-                            + rhsCol.substring(rhsCol.lastIndexOf('.') + 1)
-                            + "_" + i;
-                } else {
-                    // remove all the empty spaces to make it a valid class
-                    // name.
-                    ruleName = originalRuleName.replace(" ", "") + "_"
-                            + rhsCol.substring(rhsCol.lastIndexOf('.') + 1)
-                            + "_" + i;
-                }
-
-                targetST.add("CFDName", ruleName);
-
-                File outputFile = getOutputFile();
-                targetST.write(outputFile, null);
-                result.add(outputFile);
+        ST st = stFile.getInstanceOf("cfdTemplate");
+        st.add("leftHandSide", lhs);
+        st.add("rightHandSide", rhs);
+        st.add("patterns", patterns);
 
-                targetST.remove("CFDName");
-                targetST.remove("lExpression");
-                if (targetST == sst) {
-                    targetST.remove("rExpression");
-                }
-                targetST.remove("rightHandSide");
-            }
+        if (Strings.isNullOrEmpty(originalRuleName)) {
+            ruleName = "DefaultCFD" + CommonTools.toHashCode(Joiner.on('\n').join(value));
+        } else {
+            // remove all the empty spaces to make it a valid class name.
+            ruleName = originalRuleName.replace(" ", "");
         }
-        return result;
+        st.add("CFDName", ruleName);
+
+        File outputFile = getOutputFile();
+        st.write(outputFile, null);
+        return Lists.newArrayList(outputFile);
     }
 
     /**
@@ -206,8 +147,6 @@ public class CFDRuleBuilder extends RuleBuilder {
         }
 
         // parse condition line
-        // TODO: currently we recreate a new FDRule per condition line, but
-        // it would have more optimizations based on a buck of lines.
         for (int i = 1; i < value.size(); i++) {
             List<Predicate> filter = Lists.newArrayList();
             String line = value.get(i);
@@ -17,7 +17,9 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import org.stringtemplate.v4.ST;
 import org.stringtemplate.v4.STGroupFile;
+import qa.qcri.nadeef.core.datamodel.InequalityJoin;
 import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
+import qa.qcri.nadeef.core.datamodel.Operation;
 import qa.qcri.nadeef.core.datamodel.Predicate;
 import qa.qcri.nadeef.core.utils.RuleBuilder;
 import qa.qcri.nadeef.tools.CommonTools;
@@ -84,6 +86,10 @@ public class DCRuleBuilder extends RuleBuilder {
         st.add("DCName", ruleName);
         st.add("template", predicates);
         st.add("tableName", tableNames.get(0));
+        if (!isSingle()) {
+            st.add("blockPredicates", getBlockPredicates());
+            st.add("inequalityJoin", getInequalityJoin());
+        }
         List<File> result = Lists.newArrayList();
         File outputFile = getOutputFile();
         st.write(outputFile, null);
@@ -93,6 +99,49 @@ public class DCRuleBuilder extends RuleBuilder {
 
 	
 	
+    /**
+     * Gets the equality predicates between the same column of the two tuples, the DC is
+     * blocked on their columns.
+     * @return indexes of the blocking predicates.
+     */
+    private List<Integer> getBlockPredicates() {
+        List<Integer> result = Lists.newArrayList();
+        for (int i = 0; i < predicateList.size(); i ++) {
+            Predicate predicate = predicateList.get(i);
+            if (
+                predicate.getOperation() == Operation.EQ &&
+                !predicate.isSingle() &&
+                !predicate.isRightConstant() &&
+                predicate.getLeft().equals(predicate.getRight())
+            ) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the code creating the inequality join of the first two range predicates.
+     * @return inequality join code, null when the DC has less than two range predicates.
+     */
+    private String getInequalityJoin() {
+        List<Integer> ranges = Lists.newArrayList();
+        for (int i = 0; i < predicateList.size(); i ++) {
+            if (InequalityJoin.isRange(predicateList.get(i))) {
+                ranges.add(i);
+            }
+        }
+
+        if (ranges.size() < 2) {
+            return null;
+        }
+        return String.format(
+            "new InequalityJoin(predicates.get(%d), predicates.get(%d))",
+            ranges.get(0),
+            ranges.get(1)
+        );
+    }
+
     public boolean isSingle() {
         boolean isSingle = true;
         for (Predicate predicate : predicateList) {
@@ -122,6 +171,8 @@ public class DCRuleBuilder extends RuleBuilder {
         String predicatesStr =
             line.substring(line.indexOf("not(") + 4, line.indexOf(")")).trim();
         predicates = predicatesStr.split("&");
+        // the builder is shared by all the DC rules.
+        predicateList.clear();
         String tableName = tableNames.get(0);
         for (int i = 0; i < predicates.length; i++) {
 			predicateList.add(Predicate.valueOf(predicates[i].trim(), tableName));
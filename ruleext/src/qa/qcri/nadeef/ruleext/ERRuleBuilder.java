@@ -18,6 +18,7 @@ import com.google.common.collect.Lists;
 import org.stringtemplate.v4.ST;
 import org.stringtemplate.v4.STGroupFile;
 import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
+import qa.qcri.nadeef.core.datamodel.SimilarityIndex;
 import qa.qcri.nadeef.core.utils.RuleBuilder;
 import qa.qcri.nadeef.tools.CommonTools;
 
@@ -57,6 +58,11 @@ public class ERRuleBuilder extends RuleBuilder  {
     @Override
     public Collection<File> generate() throws IOException {
         List<String> predicates = Lists.newArrayList();
+        // the most selective similarity predicate which can generate the candidate pairs.
+        String candidateIndex = null;
+        double candidateThreshold = Double.NEGATIVE_INFINITY;
+        // the equality predicates between the two tables, the tables are co-grouped on them.
+        List<String> coGroupKeys = Lists.newArrayList();
         for (String predicateText : value) {
             Matcher matcher = pattern.matcher(predicateText);
             if (!matcher.matches()) {
@@ -74,6 +80,42 @@ public class ERRuleBuilder extends RuleBuilder  {
                 op = "==";
             String threshold = matcher.group(7);
 
+            double thresholdValue = Double.parseDouble(threshold);
+            if (
+                metric.equals("EQ") &&
+                SimilarityIndex.isIndexable(metric, op, thresholdValue) &&
+                !leftTable.equalsIgnoreCase(rightTable)
+            ) {
+                coGroupKeys.add(
+                    String.format(
+                        "\"%s\", \"%s\", \"%s\", \"%s\"",
+                        leftTable,
+                        leftAttribute,
+                        rightTable,
+                        rightAttribute
+                    )
+                );
+            }
+
+            if (SimilarityIndex.isIndexable(metric, op, thresholdValue)) {
+                // equality is always the most selective one.
+                double selectivity =
+                    metric.equals("EQ") ? Double.POSITIVE_INFINITY : thresholdValue;
+                if (candidateIndex == null || selectivity > candidateThreshold) {
+                    candidateThreshold = selectivity;
+                    candidateIndex =
+                        String.format(
+                            "new SimilarityIndex(\"%s\", %s, \"%s\", \"%s\", \"%s\", \"%s\")",
+                            metric,
+                            threshold,
+                            leftTable,
+                            leftAttribute,
+                            rightTable,
+                            rightAttribute
+                        );
+                }
+            }
+
             StringBuilder sb = new StringBuilder();
             String left =
                 String.format("getValue(tuplePair, \"%s\", \"%s\", 0)", leftTable, leftAttribute);
@@ -114,6 +156,8 @@ public class ERRuleBuilder extends RuleBuilder  {
             new STGroupFile("qa/qcri/nadeef/ruleext/template/ERRuleBuilder.stg", '$', '$');
         ST st = stFile.getInstanceOf("erTemplate");
         st.add("predicates", predicates);
+        st.add("candidateIndex", candidateIndex);
+        st.add("coGroupKeys", coGroupKeys);
         if (Strings.isNullOrEmpty(ruleName)) {
             ruleName = "DefaultER" + CommonTools.toHashCode(value.get(0));
         } else {
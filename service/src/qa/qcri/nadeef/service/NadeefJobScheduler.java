@@ -20,6 +20,7 @@ import com.google.common.util.concurrent.*;
 import qa.qcri.nadeef.core.datamodel.CleanPlan;
 import qa.qcri.nadeef.core.datamodel.ProgressReport;
 import qa.qcri.nadeef.core.pipeline.CleanExecutor;
+import qa.qcri.nadeef.core.pipeline.SharedScanExecutor;
 import qa.qcri.nadeef.service.thrift.TJobStatus;
 import qa.qcri.nadeef.service.thrift.TJobStatusType;
 import qa.qcri.nadeef.tools.Logger;
@@ -64,6 +65,7 @@ public class NadeefJobScheduler {
 
     private enum JobType {
         Detect,
+        SharedDetect,
         Repair
     }
 
@@ -77,8 +79,15 @@ public class NadeefJobScheduler {
             this.type = type;
         }
 
+        NadeefJob(String key, SharedScanExecutor sharedExecutor) {
+            this.key = key;
+            this.sharedExecutor = sharedExecutor;
+            this.type = JobType.SharedDetect;
+        }
+
         public String key;
         public CleanExecutor executor;
+        public SharedScanExecutor sharedExecutor;
         public JobType type;
     }
 
@@ -103,6 +112,9 @@ public class NadeefJobScheduler {
                 case Detect:
                     job.executor.detect();
                     break;
+                case SharedDetect:
+                    job.sharedExecutor.detect();
+                    break;
                 case Repair:
                     job.executor.repair();
                     break;
@@ -153,6 +165,20 @@ public class NadeefJobScheduler {
         return job.key;
     }
 
+    /**
+     * Submits a detection job of many clean plans, the clean plans on the same table are
+     * detected with one scan of the table.
+     * @param cleanPlans clean plans.
+     * @return job key.
+     */
+    public String submitDetectJob(List<CleanPlan> cleanPlans) throws Exception {
+        NadeefJob job = createNewJob(cleanPlans);
+        ListenableFuture<String> future =
+            service.submit(new CleanExecutorCaller(new WeakReference<>(job)));
+        Futures.addCallback(future, new CleanCallback());
+        return job.key;
+    }
+
     /**
      * Submits a repair job.
      * @param cleanPlan clean plan.
@@ -184,11 +210,16 @@ public class NadeefJobScheduler {
         CleanExecutor executor = job.executor;
         double progress = 0f;
         List<ProgressReport> detailProgress = null;
+        boolean isRunning;
         switch(job.type) {
             case Detect:
                 progress = executor.getDetectProgress();
                 detailProgress = executor.getDetailDetectProgress();
                 break;
+            case SharedDetect:
+                progress = job.sharedExecutor.getDetectProgress();
+                detailProgress = job.sharedExecutor.getDetailDetectProgress();
+                break;
             case Repair:
                 progress = executor.getRepairProgress();
                 detailProgress = executor.getDetailRepairProgress();
@@ -206,7 +237,13 @@ public class NadeefJobScheduler {
         result.setNames(names);
         result.setProgress(progresses);
         // a hack to determine whether the job is executing or not.
-        if (executor.isRunning()) {
+        if (job.type == JobType.SharedDetect) {
+            isRunning = job.sharedExecutor.isRunning();
+        } else {
+            isRunning = executor.isRunning();
+        }
+
+        if (isRunning) {
             result.setStatus(TJobStatusType.RUNNING);
         } else {
             result.setStatus(TJobStatusType.WAITING);
@@ -239,14 +276,7 @@ public class NadeefJobScheduler {
             tracer.info("Submitting duplicate rules.");
         }
 
-        String key;
-
-        while (true) {
-            key = hostname + "_" + UUID.randomUUID().toString();
-            if (!runningCleaner.containsKey(key)) {
-                break;
-            }
-        }
+        String key = createKey();
         NadeefJob job =
             new NadeefJob(
                 key,
@@ -259,4 +289,34 @@ public class NadeefJobScheduler {
         runningRules.put(key, ruleName);
         return job;
     }
+
+    private static synchronized NadeefJob createNewJob(
+        List<CleanPlan> cleanPlans
+    ) throws Exception {
+        Preconditions.checkArgument(cleanPlans != null && cleanPlans.size() > 0);
+
+        // the job uses the source database of the clean plans as the output database.
+        String key = createKey();
+        NadeefJob job =
+            new NadeefJob(
+                key,
+                new SharedScanExecutor(cleanPlans, cleanPlans.get(0).getSourceDBConfig())
+            );
+
+        keys.add(key);
+        runningCleaner.put(key, job);
+        runningRules.put(key, cleanPlans.get(0).getRule().getRuleName());
+        return job;
+    }
+
+    private static String createKey() {
+        String key;
+        while (true) {
+            key = hostname + "_" + UUID.randomUUID().toString();
+            if (!runningCleaner.containsKey(key)) {
+                break;
+            }
+        }
+        return key;
+    }
 }
@@ -197,10 +197,17 @@ public class NadeefServiceHandler implements TNadeefService.Iface {
                 // TODO: declarative rule only supports 1 table
                 Collection<Rule> rules =
                     buildAbstractRule(dbConfig,  rule, table1);
+                List<CleanPlan> cleanPlans = Lists.newArrayList();
                 for (Rule rule_ : rules) {
                     rule_.initialize(rule.getName(), tables);
-                    cleanPlan = new CleanPlan(dbConfig, rule_);
-                    key = scheduler.submitDetectJob(cleanPlan);
+                    cleanPlans.add(new CleanPlan(dbConfig, rule_));
+                }
+
+                if (cleanPlans.size() == 1) {
+                    key = scheduler.submitDetectJob(cleanPlans.get(0));
+                } else if (cleanPlans.size() > 1) {
+                    // the rules are detected in one job with one scan of the table.
+                    key = scheduler.submitDetectJob(cleanPlans);
                 }
             }
 
@@ -13,11 +13,12 @@
 
 package qa.qcri.nadeef.test;
 
-import qa.qcri.nadeef.core.datamodel.CleanPlan;
-import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
+import com.google.common.collect.Lists;
+import qa.qcri.nadeef.core.datamodel.*;
 
 import java.io.File;
 import java.io.FileReader;
+import java.nio.charset.Charset;
 import java.util.List;
 
 /**
@@ -95,6 +96,10 @@ public class TestDataRepository {
         return new File("test/src/qa/qcri/nadeef/test/input/CleanPlan9.json");
     }
 
+    public static File getCleanPlan13File() {
+        return new File("test/src/qa/qcri/nadeef/test/input/CleanPlan13.json");
+    }
+
     public static File getHolisticPlan1File() {
         return new File("test/src/qa/qcri/nadeef/test/input/HolisticTestPlan1.json");
     }
@@ -141,6 +146,14 @@ public class TestDataRepository {
         return new File("test/src/qa/qcri/nadeef/test/input/DCCleanPlan5.json");
     }
 
+    public static File getRangeDCTestFile(){
+        return new File("test/src/qa/qcri/nadeef/test/input/DCCleanPlan6.json");
+    }
+
+    public static File getBlockDCTestFile(){
+        return new File("test/src/qa/qcri/nadeef/test/input/DCCleanPlan7.json");
+    }
+
     public static File getIncCleanPlanFile() {
         return new File("test/src/qa/qcri/nadeef/test/input/IncCleanPlan1.json");
     }
@@ -149,6 +162,10 @@ public class TestDataRepository {
         return new File("test/src/qa/qcri/nadeef/test/input/IncCleanPlan2.json");
     }
 
+    public static File getIncCleanPlanFile3() {
+        return new File("test/src/qa/qcri/nadeef/test/input/IncCleanPlan3.json");
+    }
+
     public static CleanPlan getCleanPlan()
         throws Exception {
         return CleanPlan.create(
@@ -204,6 +221,12 @@ public class TestDataRepository {
             new FileReader(getCleanPlan9File()), NadeefConfiguration.getDbConfig()).get(0);
     }
 
+    public static List<CleanPlan> getCleanPlan13()
+        throws Exception {
+        return CleanPlan.create(
+            new FileReader(getCleanPlan13File()), NadeefConfiguration.getDbConfig());
+    }
+
     public static CleanPlan getStressPlan10k() throws Exception {
         return CleanPlan.create(
             new FileReader(getStressPlan10kFile()), NadeefConfiguration.getDbConfig()).get(0);
@@ -268,6 +291,18 @@ public class TestDataRepository {
             NadeefConfiguration.getDbConfig()).get(0);
     }
 
+    public static CleanPlan getRangeDCTestPlan() throws Exception {
+        return CleanPlan.create(
+            new FileReader(getRangeDCTestFile()),
+            NadeefConfiguration.getDbConfig()).get(0);
+    }
+
+    public static CleanPlan getBlockDCTestPlan() throws Exception {
+        return CleanPlan.create(
+            new FileReader(getBlockDCTestFile()),
+            NadeefConfiguration.getDbConfig()).get(0);
+    }
+
     public static CleanPlan getIncCleanPlan1() throws Exception {
         return CleanPlan.create(
             new FileReader(getIncCleanPlanFile()),
@@ -280,9 +315,35 @@ public class TestDataRepository {
             NadeefConfiguration.getDbConfig()).get(0);
     }
 
+    public static CleanPlan getIncCleanPlan3() throws Exception {
+        return CleanPlan.create(
+            new FileReader(getIncCleanPlanFile3()),
+            NadeefConfiguration.getDbConfig()).get(0);
+    }
+
     public static List<CleanPlan> getPlan(String relativeFileName) throws Exception {
         File inputFile = new File("test/src/qa/qcri/nadeef/test/input/" + relativeFileName);
         return CleanPlan.create(new FileReader(inputFile), NadeefConfiguration.getDbConfig());
     }
+
+    /**
+     * Creates an in-memory table, the tid column is filled with the row number.
+     * @param schema table schema with the tid as the first column.
+     * @param rows column values after the tid, a null value is stored as NULL.
+     * @return table.
+     */
+    public static Table createTable(Schema schema, List<Object[]> rows) {
+        Charset utf8 = Charset.forName("UTF-8");
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema);
+        for (int i = 1; i <= rows.size(); i ++) {
+            List<byte[]> values = Lists.newArrayList();
+            values.add(Integer.toString(i).getBytes(utf8));
+            for (Object value : rows.get(i - 1)) {
+                values.add(value == null ? null : value.toString().getBytes(utf8));
+            }
+            builder.add(i, values);
+        }
+        return builder.build();
+    }
 }
 
@@ -0,0 +1,517 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.test.core;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import qa.qcri.nadeef.core.datamodel.*;
+import qa.qcri.nadeef.core.utils.Bootstrap;
+import qa.qcri.nadeef.core.utils.CSVTools;
+import qa.qcri.nadeef.test.NadeefTestBase;
+import qa.qcri.nadeef.test.TestDataRepository;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ColumnarTable test.
+ */
+@RunWith(Parameterized.class)
+public class ColumnarTableTest extends NadeefTestBase {
+    public ColumnarTableTest(String testConfig_) {
+        super(testConfig_);
+    }
+
+    private List<Tuple> testTuples;
+
+    @Before
+    public void setup() {
+        try {
+            Bootstrap.start(testConfig);
+
+            Schema schema =
+                new Schema.Builder()
+                    .table("test")
+                    .column("C", Types.VARCHAR)
+                    .column("A", Types.VARCHAR)
+                    .column("B", Types.VARCHAR)
+                    .build();
+            File dumpFile = TestDataRepository.getDumpTestCSVFile();
+            List<String[]> content = CSVTools.read(dumpFile, ",");
+            testTuples = Lists.newArrayList();
+            List<byte[]> values = Lists.newArrayList();
+            for (int i = 0; i < content.size(); i ++) {
+                String[] tokens = content.get(i);
+                for (String token : tokens) {
+                    values.add(token.getBytes(Charset.forName("UTF-8")));
+                }
+
+                testTuples.add(new Tuple(i + 1, schema, Lists.newArrayList(values)));
+                values.clear();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            Assert.fail();
+        }
+    }
+
+    @After
+    public void teardown() {
+        Bootstrap.shutdown();
+    }
+
+    @Test
+    public void testProjection() {
+        ColumnarTable table = ColumnarTable.of(testTuples);
+        table.project("C");
+        Assert.assertEquals(12, table.size());
+        Tuple tuple = table.get(0);
+        Set cellSets = tuple.getCells();
+        Assert.assertEquals(1, cellSets.size());
+        Cell cell = (Cell)cellSets.iterator().next();
+        Assert.assertEquals("test.C", cell.getColumn().getFullColumnName());
+    }
+
+    @Test
+    public void testFilter() {
+        ColumnarTable table = ColumnarTable.of(testTuples);
+        table.filter(
+            Predicate.createEq(new Column("test", "C"), "c1")
+        ).project(new Column("test", "C"));
+        Assert.assertEquals(7, table.size());
+        Tuple tuple = table.get(0);
+        Set cellSets = tuple.getCells();
+        Assert.assertEquals(1, cellSets.size());
+        Cell cell = (Cell)cellSets.iterator().next();
+        Assert.assertEquals("test.C", cell.getColumn().getFullColumnName());
+    }
+
+    @Test
+    public void testView() {
+        Table table = ColumnarTable.of(testTuples);
+        Table left = table.view();
+        left.project(new Column("test", "A"));
+        Table right = table.view();
+        right.project(new Column("test", "B"))
+            .filter(Predicate.createEq(new Column("test", "B"), "b1"));
+
+        Assert.assertEquals(1, left.get(0).getSchema().size());
+        Assert.assertTrue(left.get(0).getSchema().hasColumn(new Column("test", "A")));
+        Assert.assertEquals(12, left.size());
+        Assert.assertEquals(1, right.get(0).getSchema().size());
+        Assert.assertEquals(7, right.size());
+
+        // the source table and its tuples are not changed.
+        Assert.assertEquals(12, table.size());
+        Assert.assertEquals(3, table.get(0).getSchema().size());
+        Assert.assertEquals(3, testTuples.get(0).getSchema().size());
+    }
+
+    @Test
+    public void testChainedFilter() {
+        Table table = ColumnarTable.of(testTuples);
+        Column a = new Column("test", "A");
+        Column b = new Column("test", "B");
+        Column c = new Column("test", "C");
+        table.filter(
+            Lists.newArrayList(
+                Predicate.createEq(c, "c1"),
+                new Predicate.PredicateBuilder()
+                    .left(b).op(Operation.GT).constant("b1").isSingle().build()
+            )
+        );
+        Assert.assertEquals(5, table.size());
+
+        table.filter(
+            new Predicate.PredicateBuilder()
+                .left(a).op(Operation.GTE).constant("a2").isSingle().build()
+        );
+        Assert.assertEquals(1, table.size());
+        Assert.assertEquals("b3", table.get(0).get(b));
+
+        table = ColumnarTable.of(testTuples);
+        table.filter(
+            new Predicate.PredicateBuilder().left(c).op(Operation.GT).right(a).isSingle().build()
+        );
+        Assert.assertEquals(12, table.size());
+        table.filter(
+            new Predicate.PredicateBuilder().left(c).op(Operation.LT).right(a).isSingle().build()
+        );
+        Assert.assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testGroup() {
+        ColumnarTable table = ColumnarTable.of(testTuples);
+        Collection<Table> result = table.groupOn("C");
+        Assert.assertEquals(3, result.size());
+        for (Table t : result) {
+            Tuple tuple = t.get(0);
+            String value =(String) tuple.get("c");
+            switch (value) {
+                case "c1":
+                    Assert.assertEquals(7, t.size());
+                    break;
+                case "c3":
+                    Assert.assertEquals(1, t.size());
+                    break;
+                case "c2":
+                    Assert.assertEquals(4, t.size());
+                    break;
+            }
+
+        }
+    }
+
+    @Test
+    public void testSharedGroup() {
+        ColumnarTable table = ColumnarTable.of(testTuples).shareGroups();
+        List<Table> groups = Lists.newArrayList(table.view().groupOn("C"));
+        List<String> tids = getTids(groups);
+
+        // ordering the blocks of another view does not change the shared grouping.
+        for (Table block : table.view().groupOn("C")) {
+            block.orderBy("B");
+        }
+        Assert.assertEquals(tids, getTids(Lists.newArrayList(table.view().groupOn("C"))));
+
+        // a filtered view groups its own rows.
+        Table filtered = table.view().filter(Predicate.createEq(new Column("test", "A"), "a1"));
+        int count = 0;
+        for (Table block : filtered.groupOn("C")) {
+            count += block.size();
+        }
+        Assert.assertEquals(filtered.size(), count);
+        Assert.assertTrue(count < table.size());
+    }
+
+    @Test
+    public void testDeltaGroup() {
+        // the new tuples are in the c3 and the c2 group.
+        ColumnarTable table = ColumnarTable.of(testTuples).setDelta(Sets.newHashSet(8, 9, 11));
+        List<Table> groups = Lists.newArrayList(table.view().groupOn("C"));
+        Assert.assertEquals(2, groups.size());
+        Assert.assertEquals("c3", groups.get(0).get(0).get("C"));
+        Assert.assertEquals(1, groups.get(0).size());
+        Assert.assertEquals("c2", groups.get(1).get(0).get("C"));
+        Assert.assertEquals(4, groups.get(1).size());
+
+        // a new tuple filtered out does not bring its group.
+        Table filtered = table.view().filter(Predicate.createEq(new Column("test", "A"), "a1"));
+        groups = Lists.newArrayList(filtered.groupOn("C"));
+        Assert.assertEquals(1, groups.size());
+        Assert.assertEquals("9,10,11,12,", getTids(groups).get(0));
+    }
+
+    @Test
+    public void testCoGroup() {
+        Schema schema =
+            new Schema.Builder()
+                .table("ref")
+                .column("tid", DataType.INTEGER)
+                .column("code", DataType.STRING)
+                .build();
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema);
+        String[] codes = { "c3", "c9", "c1", "c3" };
+        for (int i = 0; i < codes.length; i ++) {
+            List<byte[]> values = Lists.newArrayList();
+            values.add(Integer.toString(i + 1).getBytes(Charset.forName("UTF-8")));
+            values.add(codes[i].getBytes(Charset.forName("UTF-8")));
+            builder.add(i + 1, values);
+        }
+        Table reference = builder.build();
+
+        // only c1 and c3 are in both tables, the blocks come in pairs.
+        Table table = ColumnarTable.of(testTuples);
+        List<Table> blocks =
+            table.coGroupOn(
+                Lists.newArrayList(new Column("test", "C")),
+                reference,
+                Lists.newArrayList(new Column("ref", "code"))
+            );
+        Assert.assertEquals(4, blocks.size());
+        int count = 0;
+        for (int i = 0; i < blocks.size(); i += 2) {
+            Table block = blocks.get(i);
+            Table referenceBlock = blocks.get(i + 1);
+            for (Tuple tuple : block) {
+                Assert.assertEquals(referenceBlock.get(0).get("code"), tuple.get("C"));
+            }
+            for (Tuple tuple : referenceBlock) {
+                Assert.assertEquals(block.get(0).get("C"), tuple.get("code"));
+            }
+            int expectSize = block.get(0).get("C").equals("c1") ? 1 : 2;
+            Assert.assertEquals(expectSize, referenceBlock.size());
+            count += block.size();
+        }
+        Assert.assertEquals(8, count);
+    }
+
+    @Test
+    public void testCoGroupNumerical() {
+        Schema schema =
+            new Schema.Builder()
+                .table("item")
+                .column("tid", DataType.INTEGER)
+                .column("code", DataType.INTEGER)
+                .build();
+        List<Object[]> rows = Lists.newArrayList();
+        for (int code : new int[] { 1, 2, 3, 3 }) {
+            rows.add(new Object[] { code });
+        }
+        Table table = TestDataRepository.createTable(schema, rows);
+
+        Schema referenceSchema =
+            new Schema.Builder()
+                .table("ref")
+                .column("tid", DataType.INTEGER)
+                .column("code", DataType.DOUBLE)
+                .build();
+        rows = Lists.newArrayList();
+        for (double code : new double[] { 1.0, 3.0, 4.5 }) {
+            rows.add(new Object[] { code });
+        }
+        Table reference = TestDataRepository.createTable(referenceSchema, rows);
+
+        // INTEGER 1 and 3 match DOUBLE 1.0 and 3.0.
+        List<Table> blocks =
+            table.coGroupOn(
+                Lists.newArrayList(new Column("item", "code")),
+                reference,
+                Lists.newArrayList(new Column("ref", "code"))
+            );
+        Assert.assertEquals(4, blocks.size());
+        for (int i = 0; i < blocks.size(); i += 2) {
+            int code = (Integer)blocks.get(i).get(0).get("code");
+            Assert.assertEquals(code, (Double)blocks.get(i + 1).get(0).get("code"), 0.0);
+            Assert.assertEquals(code == 3 ? 2 : 1, blocks.get(i).size());
+        }
+    }
+
+    private static List<String> getTids(List<Table> groups) {
+        List<String> result = Lists.newArrayList();
+        for (Table group : groups) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < group.size(); i ++) {
+                builder.append(group.get(i).getTid()).append(",");
+            }
+            result.add(builder.toString());
+        }
+        return result;
+    }
+
+    @Test
+    public void testOrderBy() {
+        ColumnarTable table = ColumnarTable.of(testTuples);
+        table.orderBy("A");
+        Assert.assertEquals(12, table.size());
+        for (int i = 1; i < table.size(); i ++) {
+            String prev = (String)table.get(i - 1).get("A");
+            String next = (String)table.get(i).get("A");
+            Assert.assertTrue(prev.compareTo(next) <= 0);
+        }
+    }
+
+    @Test
+    public void testOrderByTyped() {
+        Schema schema =
+            new Schema.Builder()
+                .table("sorted")
+                .column("tid", DataType.INTEGER)
+                .column("s", DataType.STRING)
+                .column("d", DataType.DOUBLE)
+                .build();
+        String[] strings = { "b", null, "a", "b", "a", "c" };
+        String[] doubles = { "-1.5", "2", null, "-3", "0", "2" };
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema);
+        for (int i = 0; i < strings.length; i ++) {
+            List<byte[]> values = Lists.newArrayList();
+            values.add(Integer.toString(i).getBytes(Charset.forName("UTF-8")));
+            values.add(strings[i] == null ? null : strings[i].getBytes(Charset.forName("UTF-8")));
+            values.add(doubles[i] == null ? null : doubles[i].getBytes(Charset.forName("UTF-8")));
+            builder.add(i, values);
+        }
+
+        ColumnarTable table = builder.build();
+        table.orderBy("d");
+        int[] expected = { 2, 3, 0, 4, 1, 5 };
+        for (int i = 0; i < expected.length; i ++) {
+            Assert.assertEquals(expected[i], table.get(i).getTid());
+        }
+
+        table.orderBy(Lists.newArrayList(new Column("sorted.s"), new Column("sorted.d")));
+        expected = new int[] { 1, 2, 4, 3, 0, 5 };
+        for (int i = 0; i < expected.length; i ++) {
+            Assert.assertEquals(expected[i], table.get(i).getTid());
+        }
+    }
+
+    @Test
+    public void testTupleView() {
+        ColumnarTable table = ColumnarTable.of(testTuples);
+        for (int i = 0; i < table.size(); i ++) {
+            Tuple tuple = table.get(i);
+            Tuple original = testTuples.get(i);
+            Assert.assertEquals(original.getTid(), tuple.getTid());
+            Assert.assertEquals(original.getCells(), tuple.getCells());
+            Assert.assertTrue(tuple.hasSameValue(original));
+        }
+
+        Collection<Table> groups = table.groupOn("C");
+        for (Table group : groups) {
+            Tuple first = group.get(0);
+            for (int i = 1; i < group.size(); i ++) {
+                Assert.assertEquals(first.get("C"), group.get(i).get("C"));
+            }
+        }
+    }
+
+    @Test
+    public void testTypedAccess() {
+        Schema schema =
+            new Schema.Builder()
+                .table("typed")
+                .column("tid", DataType.INTEGER)
+                .column("i", DataType.INTEGER)
+                .column("d", DataType.DOUBLE)
+                .column("f", DataType.FLOAT)
+                .build();
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema);
+        for (int i = 1; i <= 10; i ++) {
+            List<byte[]> values = Lists.newArrayList();
+            values.add(Integer.toString(i).getBytes(Charset.forName("UTF-8")));
+            values.add(i % 5 == 0 ? null : Integer.toString(i * 10).getBytes(Charset.forName("UTF-8")));
+            values.add(Double.toString(i / 4.0).getBytes(Charset.forName("UTF-8")));
+            values.add(Float.toString(i / 3.0f).getBytes(Charset.forName("UTF-8")));
+            builder.add(i, values);
+        }
+
+        ColumnarTable table = builder.build();
+        Assert.assertEquals(10, table.size());
+        for (int i = 0; i < table.size(); i ++) {
+            Tuple tuple = table.get(i);
+            int n = i + 1;
+            if (n % 5 == 0) {
+                Assert.assertTrue(tuple.isNull(1));
+                Assert.assertNull(tuple.get("i"));
+            } else {
+                Assert.assertFalse(tuple.isNull(1));
+                Assert.assertEquals(n * 10, tuple.getInt(1));
+                Assert.assertEquals(n * 10, tuple.get("i"));
+            }
+            Assert.assertEquals(n / 4.0, tuple.getDouble(2), 0.0);
+            Assert.assertEquals(n / 4.0, tuple.get("d"));
+            Assert.assertEquals(n / 3.0f, tuple.get("f"));
+        }
+
+        table.filter(
+            new Predicate.PredicateBuilder()
+                .left(new Column("typed", "d"))
+                .op(Operation.GT)
+                .constant("1.0")
+                .isSingle()
+                .build()
+        );
+        Assert.assertEquals(6, table.size());
+    }
+
+    @Test
+    public void testGroupLarge() {
+        Schema schema =
+            new Schema.Builder()
+                .table("large")
+                .column("tid", DataType.INTEGER)
+                .column("a", DataType.INTEGER)
+                .column("b", DataType.STRING)
+                .build();
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema);
+        int n = 100000;
+        for (int i = 0; i < n; i ++) {
+            List<byte[]> values = Lists.newArrayList();
+            values.add(Integer.toString(i).getBytes(Charset.forName("UTF-8")));
+            values.add(Integer.toString(i % 1000).getBytes(Charset.forName("UTF-8")));
+            values.add(("b" + i % 7).getBytes(Charset.forName("UTF-8")));
+            builder.add(i, values);
+        }
+
+        ColumnarTable table = builder.build();
+        List<Table> groups =
+            Lists.newArrayList(
+                table.groupOn(Lists.newArrayList(new Column("large.a"), new Column("large.b")))
+            );
+        Assert.assertEquals(7000, groups.size());
+        int total = 0;
+        for (int i = 0; i < groups.size(); i ++) {
+            Table group = groups.get(i);
+            // groups are in the order of their first row.
+            Assert.assertEquals(i, group.get(0).getTid());
+            for (int j = 0; j < group.size(); j ++) {
+                Tuple tuple = group.get(j);
+                Assert.assertEquals(i % 1000, tuple.getInt(1));
+                Assert.assertEquals("b" + i % 7, tuple.get("b"));
+            }
+            total += group.size();
+        }
+        Assert.assertEquals(n, total);
+    }
+
+    @Test
+    public void testSpill() {
+        Schema schema =
+            new Schema.Builder()
+                .table("spill")
+                .column("tid", DataType.INTEGER)
+                .column("s", DataType.STRING)
+                .column("d", DataType.DOUBLE)
+                .build();
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema).heapBudget(0);
+        int n = 10000;
+        for (int i = 1; i <= n; i ++) {
+            List<byte[]> values = Lists.newArrayList();
+            values.add(Integer.toString(i).getBytes(Charset.forName("UTF-8")));
+            values.add(i % 7 == 0 ? null : ("value" + i).getBytes(Charset.forName("UTF-8")));
+            values.add(Double.toString(i / 2.0).getBytes(Charset.forName("UTF-8")));
+            builder.add(i, values);
+        }
+
+        ColumnarTable table = builder.build();
+        Assert.assertEquals(n, table.size());
+        for (int i = 0; i < n; i ++) {
+            Tuple tuple = table.get(i);
+            int k = i + 1;
+            Assert.assertEquals(k, tuple.getTid());
+            Assert.assertEquals(k, tuple.getInt(0));
+            if (k % 7 == 0) {
+                Assert.assertNull(tuple.get("s"));
+            } else {
+                Assert.assertEquals("value" + k, tuple.get("s"));
+            }
+            Assert.assertEquals(k / 2.0, tuple.getDouble(2), 0.0);
+        }
+
+        Collection<Table> groups = table.groupOn("s");
+        Assert.assertEquals(n - n / 7 + 1, groups.size());
+        table.recycle();
+    }
+}
@@ -119,6 +119,42 @@ public class DCDetectionTest extends NadeefTestBase {
         }
     }
 
+    @Test
+    public void cleanExecutorRangeDCTest() {
+        CleanExecutor executor = null;
+        try{
+            CleanPlan cleanPlan = TestDataRepository.getRangeDCTestPlan();
+            executor = new CleanExecutor(cleanPlan);
+            executor.detect();
+            verifyViolationResult(172);
+        } catch(Exception e){
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void cleanExecutorBlockDCTest() {
+        CleanExecutor executor = null;
+        try{
+            CleanPlan cleanPlan = TestDataRepository.getBlockDCTestPlan();
+            executor = new CleanExecutor(cleanPlan);
+            executor.detect();
+            verifyViolationResult(72);
+        } catch(Exception e){
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
     @Test
     public void dcGeneratedFileTest() {
         CleanExecutor executor = null;
@@ -22,6 +22,7 @@ import org.junit.runners.Parameterized;
 import qa.qcri.nadeef.core.datamodel.CleanPlan;
 import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
 import qa.qcri.nadeef.core.pipeline.CleanExecutor;
+import qa.qcri.nadeef.core.pipeline.SharedScanExecutor;
 import qa.qcri.nadeef.core.utils.Bootstrap;
 import qa.qcri.nadeef.core.utils.CSVTools;
 import qa.qcri.nadeef.core.utils.Violations;
@@ -90,6 +91,54 @@ public class DetectionTest extends NadeefTestBase {
         }
     }
 
+    @Test
+    public void cleanExecutorTestGroupedFD() {
+        try {
+            NadeefConfiguration.setGroupedFD(true);
+            CleanPlan cleanPlan = TestDataRepository.getCleanPlan();
+            executor = new CleanExecutor(cleanPlan);
+            executor.detect();
+            verifyViolationResult(9);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        } finally {
+            NadeefConfiguration.setGroupedFD(false);
+        }
+    }
+
+    @Test
+    public void cleanExecutorTestStreamingBlock() {
+        try {
+            NadeefConfiguration.setStreamingBlock(true);
+            CleanPlan cleanPlan = TestDataRepository.getCleanPlan();
+            executor = new CleanExecutor(cleanPlan);
+            executor.detect();
+            verifyViolationResult(12);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        } finally {
+            NadeefConfiguration.setStreamingBlock(false);
+        }
+    }
+
+    @Test
+    public void cleanExecutorSplitBlockTest() {
+        try {
+            NadeefConfiguration.setBlockSplitThreshold(5);
+            CleanPlan cleanPlan = TestDataRepository.getIncCleanPlan1();
+            executor = new CleanExecutor(cleanPlan);
+            executor.detect();
+            verifyViolationResult(162);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        } finally {
+            NadeefConfiguration.setBlockSplitThreshold(1000000);
+        }
+    }
+
     @Test
     public void cleanExecutorTest2() {
         try {
@@ -148,6 +197,26 @@ public class DetectionTest extends NadeefTestBase {
         }
     }
 
+    @Test
+    public void sharedScanTest() {
+        SharedScanExecutor sharedExecutor = null;
+        try {
+            // the FD and the CFD block on the same column of the same table.
+            List<CleanPlan> cleanPlans = TestDataRepository.getCleanPlan13();
+            Assert.assertEquals(2, cleanPlans.size());
+            sharedExecutor = new SharedScanExecutor(cleanPlans);
+            sharedExecutor.detect();
+            verifyViolationResult(84 + 104);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        } finally {
+            if (sharedExecutor != null) {
+                sharedExecutor.shutdown();
+            }
+        }
+    }
+
     @Test
     public void cleanExecutorTest6() {
         try {
@@ -25,6 +25,7 @@ import qa.qcri.nadeef.core.datamodel.Rule;
 import qa.qcri.nadeef.core.pipeline.CleanExecutor;
 import qa.qcri.nadeef.core.utils.Bootstrap;
 import qa.qcri.nadeef.core.utils.CSVTools;
+import qa.qcri.nadeef.core.utils.Violations;
 import qa.qcri.nadeef.core.utils.sql.DBInstaller;
 import qa.qcri.nadeef.core.utils.sql.SQLDialectBase;
 import qa.qcri.nadeef.core.utils.sql.SQLDialectFactory;
@@ -68,8 +69,7 @@ public class IncrementalTest extends NadeefTestBase {
         try {
             CleanPlan cleanPlan = TestDataRepository.getIncCleanPlan1();
             executor = new CleanExecutor(cleanPlan);
-            executor.detect();
-            int count = executor.getDetectViolation().size();
+            int count = detect(executor);
             Assert.assertEquals(27, count);
 
             DBConfig dbConfig = cleanPlan.getSourceDBConfig();
@@ -81,22 +81,19 @@ public class IncrementalTest extends NadeefTestBase {
             HashSet<Integer> newTuples =
                 CSVTools.append(dbConfig, dialectManager, tableName, incFile);
             executor.incrementalAppend(tableName, newTuples);
-            executor.detect();
-
-            count = executor.getDetectViolation().size();
+            count = detect(executor);
             Assert.assertEquals(12, count);
 
             incFile = new File("test/src/qa/qcri/nadeef/test/input/dumptest_inc2.csv");
             newTuples =
                 CSVTools.append(dbConfig, dialectManager, tableName, incFile);
             executor.incrementalAppend(tableName, newTuples);
-            executor.detect();
-
-            count = executor.getDetectViolation().size();
+            count = detect(executor);
             Assert.assertEquals(14, count);
 
         } catch (Exception ex) {
             ex.printStackTrace();
+            Assert.fail(ex.getMessage());
         } finally {
             if (executor != null) {
                 executor.shutdown();
@@ -110,8 +107,7 @@ public class IncrementalTest extends NadeefTestBase {
         try {
             CleanPlan cleanPlan = TestDataRepository.getIncCleanPlan2();
             executor = new CleanExecutor(cleanPlan);
-            executor.detect();
-            int count = executor.getDetectViolation().size();
+            int count = detect(executor);
             Assert.assertEquals(8, count);
 
             DBConfig dbConfig = cleanPlan.getSourceDBConfig();
@@ -131,9 +127,7 @@ public class IncrementalTest extends NadeefTestBase {
                 CSVTools.append(dbConfig, dialectManager, transTableName, tranFile);
             executor.incrementalAppend(transTableName, newTuples2);
 
-            executor.detect();
-
-            count = executor.getDetectViolation().size();
+            count = detect(executor);
             Assert.assertEquals(40, count);
 
             // append data into two tables
@@ -146,17 +140,59 @@ public class IncrementalTest extends NadeefTestBase {
                 CSVTools.append(dbConfig, dialectManager, transTableName, tranFile);
             executor.incrementalAppend(transTableName, newTuples4);
 
-            executor.detect();
-
-            count = executor.getDetectViolation().size();
+            count = detect(executor);
             Assert.assertEquals(72, count);
 
         } catch (Exception ex) {
             ex.printStackTrace();
+            Assert.fail(ex.getMessage());
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testIncCFD() {
+        CleanExecutor executor = null;
+        try {
+            CleanPlan cleanPlan = TestDataRepository.getIncCleanPlan3();
+            executor = new CleanExecutor(cleanPlan);
+            int count = detect(executor);
+            Assert.assertEquals(7, count);
+
+            DBConfig dbConfig = cleanPlan.getSourceDBConfig();
+            Rule rule = cleanPlan.getRule();
+            String tableName = (String)rule.getTableNames().get(0);
+            SQLDialectBase dialectManager =
+                SQLDialectFactory.getDialectManagerInstance(dbConfig.getDialect());
+
+            // a constant violation in an old group, a new tuple alone in its group and a
+            // new tuple conflicting with the old tuples of its group.
+            File incFile = new File("test/src/qa/qcri/nadeef/test/input/dumptest_inc3.csv");
+            HashSet<Integer> newTuples =
+                CSVTools.append(dbConfig, dialectManager, tableName, incFile);
+            executor.incrementalAppend(tableName, newTuples);
+            count = detect(executor);
+            Assert.assertEquals(6, count);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            Assert.fail(ex.getMessage());
         } finally {
             if (executor != null) {
                 executor.shutdown();
             }
         }
     }
+
+    /**
+     * Runs the detection and gets the number of violations it found.
+     */
+    private static int detect(CleanExecutor executor) throws Exception {
+        DBConfig dbConfig = NadeefConfiguration.getDbConfig();
+        int startId = Violations.generateViolationId(dbConfig);
+        executor.detect();
+        return Violations.generateViolationId(dbConfig) - startId;
+    }
 }
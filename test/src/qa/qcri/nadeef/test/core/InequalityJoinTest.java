@@ -0,0 +1,107 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.test.core;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.core.datamodel.*;
+import qa.qcri.nadeef.test.TestDataRepository;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * InequalityJoin test.
+ */
+public class InequalityJoinTest {
+    @Test
+    public void testJoin() {
+        Table table = createEmpTable(300, new Random(5));
+        int total = 300 * 299 / 2;
+        Assert.assertTrue(verify(table, "t1.salary>t2.salary", "t1.tax<t2.tax") < total);
+        Assert.assertTrue(verify(table, "t1.salary>=t2.salary", "t1.tax<=t2.tax") < total);
+        Assert.assertTrue(verify(table, "t1.salary<t2.tax", "t1.tax>t2.salary") < total);
+        Assert.assertTrue(verify(table, "t1.tax<=t2.tax", "t1.salary>=t2.salary") < total);
+        Assert.assertTrue(verify(table, "t1.salary>t2.salary", "t1.salary>=t2.tax") < total);
+    }
+
+    @Test
+    public void testRange() {
+        Assert.assertTrue(InequalityJoin.isRange(Predicate.valueOf("t1.salary>t2.tax", "emp")));
+        Assert.assertTrue(InequalityJoin.isRange(Predicate.valueOf("t1.tax<=t2.tax", "emp")));
+        Assert.assertFalse(InequalityJoin.isRange(Predicate.valueOf("t1.tax=t2.tax", "emp")));
+        Assert.assertFalse(InequalityJoin.isRange(Predicate.valueOf("t1.tax>t1.salary", "emp")));
+        Assert.assertFalse(InequalityJoin.isRange(Predicate.valueOf("t1.tax>2", "emp")));
+    }
+
+    /**
+     * Checks that every pair satisfying the predicates in any orientation is emitted once.
+     * @return number of emitted pairs.
+     */
+    private static int verify(Table table, String firstText, String secondText) {
+        Predicate first = Predicate.valueOf(firstText, "emp");
+        Predicate second = Predicate.valueOf(secondText, "emp");
+        final Set<String> pairs = Sets.newHashSet();
+        IteratorResultHandler handler = new IteratorResultHandler() {
+            @Override
+            public <T> void handle(T item) {
+                TuplePair pair = (TuplePair)item;
+                int left = pair.getLeft().getTid();
+                int right = pair.getRight().getTid();
+                Assert.assertTrue(left < right);
+                Assert.assertTrue(pairs.add(left + ":" + right));
+            }
+        };
+        new InequalityJoin(first, second).iterator(table, handler);
+
+        for (int i = 0; i < table.size(); i ++) {
+            for (int j = i + 1; j < table.size(); j ++) {
+                Tuple left = table.get(i);
+                Tuple right = table.get(j);
+                if (
+                    first.isValid(left, right) && second.isValid(left, right) ||
+                    first.isValid(right, left) && second.isValid(right, left)
+                ) {
+                    String key = left.getTid() + ":" + right.getTid();
+                    Assert.assertTrue(
+                        firstText + " & " + secondText + " misses " + key,
+                        pairs.contains(key)
+                    );
+                }
+            }
+        }
+        return pairs.size();
+    }
+
+    private static Table createEmpTable(int size, Random random) {
+        Schema schema =
+            new Schema.Builder()
+                .table("emp")
+                .column("tid", DataType.INTEGER)
+                .column("salary", DataType.INTEGER)
+                .column("tax", DataType.DOUBLE)
+                .build();
+        List<Object[]> rows = Lists.newArrayList();
+        for (int i = 1; i <= size; i ++) {
+            // small domains to get ties, and a few NULL values.
+            int salary = random.nextInt(50) * 1000;
+            double tax = salary * 0.2 + random.nextInt(5) * 500.0;
+            rows.add(new Object[] { salary, random.nextInt(30) == 0 ? null : tax });
+        }
+        return TestDataRepository.createTable(schema, rows);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.test.core;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.core.datamodel.IteratorBlockingQueue;
+import qa.qcri.nadeef.core.datamodel.IteratorChannel;
+
+import java.util.List;
+
+/**
+ * IteratorChannel test.
+ */
+public class IteratorChannelTest {
+    @Test
+    public void testChannels() throws Exception {
+        // two executions at the same time do not see each other's output.
+        IteratorChannel first = new IteratorChannel(2, 3);
+        IteratorChannel second = new IteratorChannel(2, 5);
+        Thread firstProducer = produce(first, "a", 100);
+        Thread secondProducer = produce(second, "b", 70);
+
+        Assert.assertEquals(100, consume(first, "a", 3));
+        Assert.assertEquals(70, consume(second, "b", 5));
+        firstProducer.join();
+        secondProducer.join();
+    }
+
+    private static Thread produce(final IteratorChannel channel, final String id, final int n) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                IteratorBlockingQueue buffer = new IteratorBlockingQueue(channel);
+                for (int i = 0; i < n; i ++) {
+                    buffer.handle(id + i);
+                }
+                buffer.flush();
+                channel.markEnd();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static int consume(IteratorChannel channel, String id, int bufferSize) {
+        List<Object> items = Lists.newArrayList();
+        List<Object> buffer;
+        while (!(buffer = channel.poll()).isEmpty()) {
+            Assert.assertTrue(buffer.size() <= bufferSize);
+            items.addAll(buffer);
+        }
+
+        for (int i = 0; i < items.size(); i ++) {
+            Assert.assertEquals(id + i, items.get(i));
+        }
+        return items.size();
+    }
+}
@@ -106,6 +106,105 @@ public class MemoryTableTest extends NadeefTestBase {
         Assert.assertEquals("test.C", cell.getColumn().getFullColumnName());
     }
 
+    @Test
+    public void testOrderBy() {
+        MemoryTable table = MemoryTable.of(testTuples);
+        table.orderBy(Lists.newArrayList(new Column("test", "B"), new Column("test", "A")));
+        Assert.assertEquals(12, table.size());
+        for (int i = 1; i < table.size(); i ++) {
+            Tuple prev = table.get(i - 1);
+            Tuple next = table.get(i);
+            int result = ((String)prev.get("B")).compareTo((String)next.get("B"));
+            if (result == 0) {
+                result = ((String)prev.get("A")).compareTo((String)next.get("A"));
+            }
+            Assert.assertTrue(result <= 0);
+        }
+    }
+
+    @Test
+    public void testGroupKeys() {
+        Schema schema =
+            new Schema.Builder()
+                .table("test")
+                .column("A", Types.VARCHAR)
+                .column("B", Types.VARCHAR)
+                .build();
+        List<Tuple> tuples = Lists.newArrayList();
+        String[][] rows = { { "a_", "b" }, { "a", "_b" }, { "a_", "b" } };
+        for (int i = 0; i < rows.length; i ++) {
+            tuples.add(
+                new Tuple(
+                    i + 1,
+                    schema,
+                    Lists.newArrayList(
+                        rows[i][0].getBytes(Charset.forName("UTF-8")),
+                        rows[i][1].getBytes(Charset.forName("UTF-8"))
+                    )
+                )
+            );
+        }
+
+        MemoryTable table = MemoryTable.of(tuples);
+        Collection<Table> groups =
+            table.groupOn(Lists.newArrayList(new Column("test", "A"), new Column("test", "B")));
+        Assert.assertEquals(2, groups.size());
+    }
+
+    @Test
+    public void testView() {
+        Table table = MemoryTable.of(testTuples);
+        Table left = table.view();
+        left.project(new Column("test", "A"));
+        Table right = table.view();
+        right.project(new Column("test", "B"))
+            .filter(Predicate.createEq(new Column("test", "B"), "b1"));
+
+        Assert.assertEquals(1, left.get(0).getSchema().size());
+        Assert.assertTrue(left.get(0).getSchema().hasColumn(new Column("test", "A")));
+        Assert.assertEquals(12, left.size());
+        Assert.assertEquals(1, right.get(0).getSchema().size());
+        Assert.assertEquals(7, right.size());
+
+        // the source table and its tuples are not changed.
+        Assert.assertEquals(12, table.size());
+        Assert.assertEquals(3, table.get(0).getSchema().size());
+        Assert.assertEquals(3, testTuples.get(0).getSchema().size());
+    }
+
+    @Test
+    public void testChainedFilter() {
+        Table table = MemoryTable.of(testTuples);
+        Column a = new Column("test", "A");
+        Column b = new Column("test", "B");
+        Column c = new Column("test", "C");
+        table.filter(
+            Lists.newArrayList(
+                Predicate.createEq(c, "c1"),
+                new Predicate.PredicateBuilder()
+                    .left(b).op(Operation.GT).constant("b1").isSingle().build()
+            )
+        );
+        Assert.assertEquals(5, table.size());
+
+        table.filter(
+            new Predicate.PredicateBuilder()
+                .left(a).op(Operation.GTE).constant("a2").isSingle().build()
+        );
+        Assert.assertEquals(1, table.size());
+        Assert.assertEquals("b3", table.get(0).get(b));
+
+        table = MemoryTable.of(testTuples);
+        table.filter(
+            new Predicate.PredicateBuilder().left(c).op(Operation.GT).right(a).isSingle().build()
+        );
+        Assert.assertEquals(12, table.size());
+        table.filter(
+            new Predicate.PredicateBuilder().left(c).op(Operation.LT).right(a).isSingle().build()
+        );
+        Assert.assertEquals(0, table.size());
+    }
+
     @Test
     public void testGroup() {
         MemoryTable table = MemoryTable.of(testTuples);
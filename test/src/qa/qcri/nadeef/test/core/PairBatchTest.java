@@ -0,0 +1,137 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.test.core;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.core.datamodel.*;
+import qa.qcri.nadeef.test.TestDataRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * PairBatch test.
+ */
+public class PairBatchTest {
+    /**
+     * Reports the pairs with the same value.
+     */
+    private static class SameValueRule extends PairTupleRule {
+        @Override
+        public Collection<Violation> detect(TuplePair pair) {
+            List<Violation> result = Lists.newArrayList();
+            if (pair.getLeft().get("v").equals(pair.getRight().get("v"))) {
+                Violation violation = new Violation(getRuleName());
+                violation.addTuple(pair.getLeft());
+                violation.addTuple(pair.getRight());
+                result.add(violation);
+            }
+            return result;
+        }
+
+        @Override
+        public Collection<Fix> repair(Violation violation) {
+            return Lists.newArrayList();
+        }
+    }
+
+    @Test
+    public void testIterator() {
+        final int size = 100;
+        Table table = createPairTable(size);
+        final SameValueRule rule = new SameValueRule();
+        rule.initialize("same", Lists.newArrayList("pair"));
+
+        final Set<String> pairs = Sets.newHashSet();
+        final List<Violation> violations = Lists.newArrayList();
+        IteratorResultHandler handler = new IteratorResultHandler() {
+            @Override
+            public <T> void handle(T item) {
+                PairBatch batch = (PairBatch)item;
+                Assert.assertTrue(batch.size() > 0);
+                Assert.assertTrue(batch.size() <= PairBatch.DEFAULT_CAPACITY);
+                for (int k = 0; k < batch.size(); k ++) {
+                    TuplePair pair = batch.get(k);
+                    // the pair is reused, the tuples are not.
+                    Assert.assertSame(batch.get(0), pair);
+                    Assert.assertSame(batch.getLeft(k), batch.get(k).getLeft());
+                    int left = batch.getLeft(k).getTid();
+                    int right = batch.getRight(k).getTid();
+                    Assert.assertTrue(left < right);
+                    Assert.assertTrue(pairs.add(left + ":" + right));
+                }
+                violations.addAll(rule.detect(batch));
+            }
+        };
+        rule.iterator(Lists.<Table>newArrayList(table), handler);
+
+        Assert.assertEquals(size * (size - 1) / 2, pairs.size());
+        // 10 values of 10 tuples each.
+        Assert.assertEquals(10 * 45, violations.size());
+        Set<String> violated = Sets.newHashSet();
+        for (Violation violation : violations) {
+            Assert.assertEquals(2, violation.getCells().size());
+            Assert.assertTrue(violated.add(violation.getCells().toString()));
+        }
+    }
+
+    @Test
+    public void testDetectNewPairs() {
+        final int size = 20;
+        Table table = createPairTable(size);
+        // a rule which only implements detect(TuplePair) keeps the pairs it is given.
+        final List<TuplePair> kept = Lists.newArrayList();
+        final SameValueRule rule = new SameValueRule() {
+            @Override
+            public Collection<Violation> detect(TuplePair pair) {
+                kept.add(pair);
+                return super.detect(pair);
+            }
+        };
+        rule.initialize("same", Lists.newArrayList("pair"));
+
+        IteratorResultHandler handler = new IteratorResultHandler() {
+            @Override
+            public <T> void handle(T item) {
+                rule.detect((PairBatch)item);
+            }
+        };
+        rule.iterator(Lists.<Table>newArrayList(table), handler);
+
+        Set<String> pairs = Sets.newHashSet();
+        for (TuplePair pair : kept) {
+            pairs.add(pair.getLeft().getTid() + ":" + pair.getRight().getTid());
+        }
+        Assert.assertEquals(size * (size - 1) / 2, kept.size());
+        Assert.assertEquals(kept.size(), pairs.size());
+    }
+
+    private static Table createPairTable(int size) {
+        Schema schema =
+            new Schema.Builder()
+                .table("pair")
+                .column("tid", DataType.INTEGER)
+                .column("v", DataType.INTEGER)
+                .build();
+        List<Object[]> rows = Lists.newArrayList();
+        for (int i = 1; i <= size; i ++) {
+            rows.add(new Object[] { i % 10 });
+        }
+        return TestDataRepository.createTable(schema, rows);
+    }
+}
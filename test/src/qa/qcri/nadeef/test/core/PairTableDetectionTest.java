@@ -13,21 +13,24 @@
 
 package qa.qcri.nadeef.test.core;
 
+import com.google.common.collect.Lists;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
-import qa.qcri.nadeef.core.datamodel.CleanPlan;
-import qa.qcri.nadeef.core.datamodel.NadeefConfiguration;
+import qa.qcri.nadeef.core.datamodel.*;
 import qa.qcri.nadeef.core.pipeline.CleanExecutor;
 import qa.qcri.nadeef.core.utils.Bootstrap;
 import qa.qcri.nadeef.core.utils.Violations;
+import qa.qcri.nadeef.core.utils.sql.DBConnectionPool;
 import qa.qcri.nadeef.core.utils.sql.DBInstaller;
 import qa.qcri.nadeef.test.NadeefTestBase;
 import qa.qcri.nadeef.test.TestDataRepository;
 
+import java.util.List;
+
 /**
  * Pair table unit test.
  */
@@ -68,4 +71,51 @@ public class PairTableDetectionTest extends NadeefTestBase {
             Assert.fail(e.getMessage());
         }
     }
+
+    @Test
+    public void coGroupTest() {
+        DBConnectionPool connectionPool = null;
+        try {
+            CleanPlan cleanPlan = TestDataRepository.getPlan("ERCleanPlan1.json").get(0);
+            connectionPool =
+                DBConnectionPool.createDBConnectionPool(
+                    cleanPlan.getSourceDBConfig(),
+                    NadeefConfiguration.getDbConfig()
+                );
+            Rule rule = cleanPlan.getRule();
+            List<String> tableNames = rule.getTableNames();
+            List<Table> tables =
+                Lists.<Table>newArrayList(
+                    new SQLTable(tableNames.get(0), connectionPool),
+                    new SQLTable(tableNames.get(1), connectionPool)
+                );
+
+            // the tables are co-grouped on FN and LN, 'Peter Austin' is only in the second
+            // table so its block is skipped.
+            List<Table> blocks = Lists.newArrayList(rule.coGroup(tables));
+            Assert.assertEquals(4, blocks.size());
+            int pairCount = 0;
+            for (int i = 0; i < blocks.size(); i += 2) {
+                Table left = blocks.get(i);
+                Table right = blocks.get(i + 1);
+                Assert.assertEquals(tableNames.get(0), left.getSchema().getTableName());
+                Assert.assertEquals(tableNames.get(1), right.getSchema().getTableName());
+                for (Tuple tuple : right) {
+                    Assert.assertEquals(left.get(0).get("fn"), tuple.get("fn"));
+                    Assert.assertEquals(left.get(0).get("ln"), tuple.get("ln"));
+                    Assert.assertNotEquals("Peter", tuple.get("fn"));
+                }
+                pairCount += left.size() * right.size();
+            }
+            Assert.assertEquals(3, pairCount);
+            Assert.assertEquals(2 * 4, tables.get(0).size() * tables.get(1).size());
+        } catch (Exception e) {
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        } finally {
+            if (connectionPool != null) {
+                connectionPool.shutdown();
+            }
+        }
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.test.core;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.core.datamodel.*;
+import qa.qcri.nadeef.test.TestDataRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * PatternTableau test.
+ */
+public class PatternTableauTest {
+    private static final String[][] patterns = {
+        { "02139", "_", "ma", "_" },
+        { "_", "_", "_", "_" },
+        { "10001", "nyc", "ny", "8000" },
+        { "_", "boston", "ma", "_" }
+    };
+
+    @Test
+    public void testDetect() {
+        Table table = createAddrTable(500, new Random(3));
+        List<Column> lhs = Lists.newArrayList(Column.of("addr.zip"), Column.of("addr.city"));
+        List<Column> rhs = Lists.newArrayList(Column.of("addr.state"), Column.of("addr.pop"));
+        PatternTableau tableau = new PatternTableau(lhs, rhs);
+        for (String[] pattern : patterns) {
+            tableau.add(pattern);
+        }
+        Assert.assertEquals(patterns.length, tableau.size());
+
+        int singleCount = 0;
+        int pairCount = 0;
+        for (Table block : table.groupOn(lhs)) {
+            Collection<Violation> violations = tableau.detect("cfd", block);
+            for (Violation violation : violations) {
+                int cellCount = violation.getCells().size();
+                if (cellCount == lhs.size() + 1) {
+                    singleCount ++;
+                } else {
+                    Assert.assertEquals(2 * (lhs.size() + 1), cellCount);
+                    pairCount ++;
+                }
+            }
+        }
+
+        // brute force on every tuple and RHS column, a violation counts once no matter how
+        // many patterns match.
+        int expectSingle = 0;
+        int expectPair = 0;
+        for (int k = 0; k < rhs.size(); k ++) {
+            for (int i = 0; i < table.size(); i ++) {
+                Tuple left = table.get(i);
+                boolean isWildcard = false;
+                boolean isViolated = false;
+                for (String[] pattern : patterns) {
+                    if (!matches(left, lhs, pattern)) {
+                        continue;
+                    }
+
+                    String rhsValue = pattern[lhs.size() + k];
+                    if (rhsValue.equals(PatternTableau.WILDCARD)) {
+                        isWildcard = true;
+                    } else if (!Objects.equal(rhsValue, toString(left.get(rhs.get(k))))) {
+                        isViolated = true;
+                    }
+                }
+
+                if (isViolated) {
+                    expectSingle ++;
+                }
+
+                if (!isWildcard) {
+                    continue;
+                }
+
+                for (int j = i + 1; j < table.size(); j ++) {
+                    Tuple right = table.get(j);
+                    if (
+                        isSameValue(left, right, lhs) &&
+                        !isSameValue(left, right, rhs.subList(k, k + 1))
+                    ) {
+                        expectPair ++;
+                    }
+                }
+            }
+        }
+
+        Assert.assertTrue(singleCount > 0 && pairCount > 0);
+        Assert.assertEquals(expectSingle, singleCount);
+        Assert.assertEquals(expectPair, pairCount);
+    }
+
+    @Test
+    public void testOverlappingPatterns() {
+        Schema schema =
+            new Schema.Builder()
+                .table("addr")
+                .column("tid", DataType.INTEGER)
+                .column("zip", DataType.STRING)
+                .column("city", DataType.STRING)
+                .column("state", DataType.STRING)
+                .build();
+        List<Object[]> rows = Lists.newArrayList();
+        rows.add(new Object[] { "02139", "cambridge", "ma" });
+        rows.add(new Object[] { "02139", "cambridge", "ca" });
+        rows.add(new Object[] { "02139", "cambridge", "ma" });
+        rows.add(new Object[] { "10001", "nyc", "ny" });
+        rows.add(new Object[] { "10001", "nyc", "ny" });
+        Table table = TestDataRepository.createTable(schema, rows);
+
+        List<Column> lhs = Lists.newArrayList(Column.of("addr.zip"), Column.of("addr.city"));
+        List<Column> rhs = Lists.newArrayList(Column.of("addr.state"));
+        PatternTableau tableau = new PatternTableau(lhs, rhs);
+        tableau.add("_", "_", "_");
+        tableau.add("02139", "_", "_");
+        tableau.add("02139", "_", "ma");
+        tableau.add("_", "cambridge", "ma");
+
+        // the pairs (1, 2) and (2, 3) and the tuple 2, each reported once.
+        Set<Set<Cell>> violated = Sets.newHashSet();
+        int count = 0;
+        for (Table block : table.groupOn(lhs)) {
+            for (Violation violation : tableau.detect("cfd", block)) {
+                violated.add(Sets.newHashSet(violation.getCells()));
+                count ++;
+            }
+        }
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(3, violated.size());
+
+        Collection<Violation> violations = tableau.detect("cfd", table.get(0), table.get(1));
+        Assert.assertEquals(1, violations.size());
+        Assert.assertEquals(0, tableau.detect("cfd", table.get(0), table.get(2)).size());
+        Assert.assertEquals(0, tableau.detect("cfd", table.get(3), table.get(4)).size());
+    }
+
+    private static boolean matches(Tuple tuple, List<Column> lhs, String[] pattern) {
+        for (int k = 0; k < lhs.size(); k ++) {
+            if (
+                !pattern[k].equals(PatternTableau.WILDCARD) &&
+                !pattern[k].equals(toString(tuple.get(lhs.get(k))))
+            ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSameValue(Tuple left, Tuple right, List<Column> columns) {
+        for (Column column : columns) {
+            if (!Objects.equal(left.get(column), right.get(column))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static Table createAddrTable(int size, Random random) {
+        Schema schema =
+            new Schema.Builder()
+                .table("addr")
+                .column("tid", DataType.INTEGER)
+                .column("zip", DataType.STRING)
+                .column("city", DataType.STRING)
+                .column("state", DataType.STRING)
+                .column("pop", DataType.INTEGER)
+                .build();
+        String[][] places = {
+            { "02139", "cambridge", "ma" },
+            { "02139", "boston", "ma" },
+            { "10001", "nyc", "ny" },
+            { "60601", "chicago", "il" }
+        };
+        String[] states = { "ma", "ny", "il", "ca" };
+        List<Object[]> rows = Lists.newArrayList();
+        for (int i = 1; i <= size; i ++) {
+            String[] place = places[random.nextInt(places.length)];
+            // some dirty states and a few NULL values.
+            String state =
+                random.nextInt(10) == 0 ? states[random.nextInt(states.length)] : place[2];
+            rows.add(new Object[] {
+                place[0],
+                place[1],
+                random.nextInt(40) == 0 ? null : state,
+                random.nextInt(4) == 0 ? 9000 : 8000
+            });
+        }
+        return TestDataRepository.createTable(schema, rows);
+    }
+}
@@ -104,6 +104,33 @@ public class SQLTableTest extends NadeefTestBase {
         );
     }
 
+    @Test
+    public void testCursor() {
+        SQLCursorTable table = new SQLCursorTable(tableName, connectionFactory);
+        table.filter(Predicate.createEq(new Column(tableName, "c"), "c1"));
+        Assert.assertEquals(7, table.size());
+
+        int count = 0;
+        for (Tuple tuple : table) {
+            Assert.assertEquals("c1", tuple.get("c"));
+            count ++;
+        }
+        Assert.assertEquals(7, count);
+        Assert.assertEquals(7, table.size());
+        table.recycle();
+
+        table = new SQLCursorTable(tableName, connectionFactory);
+        Assert.assertNotNull(table.get(0));
+        Assert.assertNotNull(table.get(1));
+        try {
+            table.get(0);
+            Assert.fail("Cursor table should be forward-only.");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        table.recycle();
+    }
+
     @Test
     public void testFilter() {
         SQLTable collection = new SQLTable(tableName, connectionFactory);
@@ -142,6 +169,40 @@ public class SQLTableTest extends NadeefTestBase {
         }
     }
 
+    @Test
+    public void testGroupConstrained() {
+        SQLTable collection = new SQLTable(tableName, connectionFactory);
+        Column targetColumn = new Column(tableName, "c");
+        List<Column> columns = new ArrayList<>();
+        columns.add(targetColumn);
+        collection.filter(Predicate.createEq(new Column(tableName, "a"), "a1"));
+        Collection<Table> result = collection.groupOnConstrained(columns);
+        Assert.assertEquals(2, result.size());
+
+        int blockCount = 0;
+        for (Table t : result) {
+            blockCount ++;
+            String value = (String)t.get(0).get("c");
+            for (Tuple tuple : t) {
+                Assert.assertEquals(value, tuple.get("c"));
+                Assert.assertEquals("a1", tuple.get("a"));
+            }
+
+            switch (value) {
+                case "c1":
+                    Assert.assertEquals(4, t.size());
+                    break;
+                case "c2":
+                    Assert.assertEquals(4, t.size());
+                    break;
+                default:
+                    Assert.fail("Unexpected block " + value);
+            }
+        }
+        Assert.assertEquals(2, blockCount);
+        Assert.assertEquals(2, result.size());
+    }
+
     @Test public void testGroup2() {
         SQLTable table = new SQLTable(tableName10k, connectionFactory);
         Column column0 = new Column(tableName10k, "hospitalowner");
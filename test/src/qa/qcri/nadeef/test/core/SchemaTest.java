@@ -0,0 +1,72 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.test.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.core.datamodel.Column;
+import qa.qcri.nadeef.core.datamodel.DataType;
+import qa.qcri.nadeef.core.datamodel.Schema;
+
+/**
+ * Schema and Column registry test.
+ */
+public class SchemaTest {
+    @Test
+    public void testInternedColumn() {
+        Column column = Column.of("test", "A");
+        Assert.assertSame(column, Column.of("TEST.a"));
+        Assert.assertEquals(column.getId(), new Column("Test", "a").getId());
+        Assert.assertNotEquals(column.getId(), Column.of("test", "B").getId());
+        Assert.assertEquals(column, new Column("test.A"));
+        Assert.assertEquals(column.hashCode(), new Column("test.a").hashCode());
+    }
+
+    @Test
+    public void testOrdinal() {
+        Schema schema =
+            new Schema.Builder()
+                .table("test")
+                .column("tid", DataType.INTEGER)
+                .column("A", DataType.STRING)
+                .column("B", DataType.DOUBLE)
+                .build();
+        Assert.assertEquals(0, schema.get(new Column("test", "TID")));
+        Assert.assertEquals(2, schema.get(Column.of("test", "b")));
+        Assert.assertEquals(DataType.STRING, schema.getType(new Column("test.a")));
+        Assert.assertTrue(schema.hasColumn(new Column("test", "A")));
+        Assert.assertFalse(schema.hasColumn(new Column("other", "A")));
+        Assert.assertFalse(schema.hasColumn(Column.of("test", "C")));
+        Assert.assertEquals(0, (int)schema.getTidIndex().get());
+    }
+
+    @Test
+    public void testWideSchema() {
+        Schema.Builder builder = new Schema.Builder().table("wide");
+        for (int i = 0; i < 100; i ++) {
+            builder.column("c" + i, DataType.INTEGER);
+        }
+        // duplicated columns resolve to the first one.
+        builder.column("c7", DataType.STRING);
+        Schema schema = builder.build();
+
+        for (int i = 0; i < 100; i ++) {
+            Assert.assertEquals(i, schema.get(new Column("wide", "c" + i)));
+        }
+        Assert.assertEquals(DataType.INTEGER, schema.getType(Column.of("wide.c7")));
+        Assert.assertFalse(schema.hasColumn(Column.of("wide", "c100")));
+        Assert.assertFalse(schema.getTidIndex().isPresent());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.test.core;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.core.datamodel.*;
+import qa.qcri.nadeef.test.TestDataRepository;
+import qa.qcri.nadeef.tools.Metrics;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * SimilarityIndex test.
+ */
+public class SimilarityIndexTest {
+    @Test
+    public void testSelfJoin() {
+        Table table = createNameTable("person", 400, new Random(7));
+        int total = 400 * 399 / 2;
+        Assert.assertTrue(verify("QG", 0.6, table, null) < total);
+        Assert.assertTrue(verify("LS", 0.7, table, null) < total);
+        Assert.assertTrue(verify("LS", 0.5, table, null) < total);
+        Assert.assertTrue(verify("EQ", 1.0, table, null) < total);
+    }
+
+    @Test
+    public void testTwoTables() {
+        Random random = new Random(11);
+        Table left = createNameTable("person", 200, random);
+        Table right = createNameTable("customer", 300, random);
+        Assert.assertTrue(verify("QG", 0.7, left, right) < 200 * 300);
+        Assert.assertTrue(verify("LS", 0.8, left, right) < 200 * 300);
+    }
+
+    @Test
+    public void testIndexable() {
+        Assert.assertTrue(SimilarityIndex.isIndexable("EQ", "==", 1.0));
+        Assert.assertTrue(SimilarityIndex.isIndexable("EQ", ">", 0.5));
+        Assert.assertFalse(SimilarityIndex.isIndexable("EQ", "<", 0.5));
+        Assert.assertTrue(SimilarityIndex.isIndexable("QG", ">=", 0.8));
+        Assert.assertFalse(SimilarityIndex.isIndexable("QG", "<", 0.8));
+        Assert.assertFalse(SimilarityIndex.isIndexable("LS", ">", 0.4));
+        Assert.assertFalse(SimilarityIndex.isIndexable("ED", ">", 0.8));
+    }
+
+    /**
+     * Checks that every pair passing the predicate is a candidate.
+     * @return number of candidates.
+     */
+    private static int verify(String metric, double threshold, Table left, Table right) {
+        String leftTable = left.getSchema().getTableName();
+        String rightTable = right == null ? leftTable : right.getSchema().getTableName();
+        SimilarityIndex index =
+            new SimilarityIndex(metric, threshold, leftTable, "name", rightTable, "name");
+        final Set<String> candidates = Sets.newHashSet();
+        IteratorResultHandler handler = new IteratorResultHandler() {
+            @Override
+            public <T> void handle(T item) {
+                TuplePair pair = (TuplePair)item;
+                Assert.assertTrue(
+                    candidates.add(pair.getLeft().getTid() + ":" + pair.getRight().getTid())
+                );
+            }
+        };
+
+        Table other = right == null ? left : right;
+        if (right == null) {
+            index.iterator(left, handler);
+        } else {
+            index.iterator(left, right, handler);
+        }
+
+        for (int i = 0; i < left.size(); i ++) {
+            for (int j = right == null ? i + 1 : 0; j < other.size(); j ++) {
+                String a = (String)left.get(i).get("name");
+                String b = (String)other.get(j).get("name");
+                double similarity;
+                switch (metric) {
+                    case "QG":
+                        similarity = Metrics.getQGramsDistance(a, b);
+                        break;
+                    case "LS":
+                        similarity = Metrics.getLevenshtein(a, b);
+                        break;
+                    default:
+                        similarity = Metrics.getEqual(a, b);
+                }
+
+                String key = left.get(i).getTid() + ":" + other.get(j).getTid();
+                if (similarity >= threshold) {
+                    Assert.assertTrue(metric + " misses " + a + ", " + b, candidates.contains(key));
+                }
+            }
+        }
+        return candidates.size();
+    }
+
+    private static Table createNameTable(String tableName, int size, Random random) {
+        Schema schema =
+            new Schema.Builder()
+                .table(tableName)
+                .column("tid", DataType.INTEGER)
+                .column("name", DataType.STRING)
+                .build();
+        String[] names = { "johnson", "johnsen", "jonson", "smith", "smyth", "anderson" };
+        List<Object[]> rows = Lists.newArrayList();
+        for (int i = 1; i <= size; i ++) {
+            StringBuilder name = new StringBuilder(names[random.nextInt(names.length)]);
+            // random typos.
+            for (int k = random.nextInt(3); k > 0; k --) {
+                int position = random.nextInt(name.length());
+                name.setCharAt(position, (char)('a' + random.nextInt(26)));
+            }
+            rows.add(new Object[] { random.nextInt(20) == 0 ? null : name.toString() });
+        }
+        return TestDataRepository.createTable(schema, rows);
+    }
+}
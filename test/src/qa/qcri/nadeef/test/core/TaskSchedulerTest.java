@@ -0,0 +1,76 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+package qa.qcri.nadeef.test.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.core.utils.TaskScheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TaskScheduler test.
+ */
+public class TaskSchedulerTest {
+    @Test
+    public void testJobs() throws Exception {
+        // two jobs share the pool and both finish all their tasks.
+        TaskScheduler.Job first = TaskScheduler.createJob("first");
+        TaskScheduler.Job second = TaskScheduler.createJob("second");
+        AtomicInteger firstCount = submit(first, 200);
+        AtomicInteger secondCount = submit(second, 50);
+        first.shutdown();
+        second.shutdown();
+
+        Assert.assertTrue(first.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertTrue(second.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(200, firstCount.get());
+        Assert.assertEquals(50, secondCount.get());
+        Assert.assertEquals(200, first.getTaskCount());
+        Assert.assertEquals(200, first.getCompletedTaskCount());
+        Assert.assertEquals(50, second.getCompletedTaskCount());
+        Assert.assertEquals("first", first.getName());
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        TaskScheduler.Job job = TaskScheduler.createJob("shutdown");
+        job.shutdown();
+        Assert.assertTrue(job.isTerminated());
+        try {
+            job.execute(new Runnable() {
+                @Override
+                public void run() {}
+            });
+            Assert.fail("a shut down job should reject tasks.");
+        } catch (RejectedExecutionException ex) {
+            // expected
+        }
+    }
+
+    private static AtomicInteger submit(TaskScheduler.Job job, int size) {
+        final AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < size; i ++) {
+            job.execute(new Runnable() {
+                @Override
+                public void run() {
+                    count.incrementAndGet();
+                }
+            });
+        }
+        return count;
+    }
+}
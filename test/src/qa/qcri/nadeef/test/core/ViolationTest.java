@@ -0,0 +1,67 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.test.core;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.core.datamodel.*;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Violation test.
+ */
+public class ViolationTest {
+    @Test
+    public void testLazyCells() {
+        Schema schema =
+            new Schema.Builder()
+                .table("violation")
+                .column("tid", DataType.INTEGER)
+                .column("a", DataType.STRING)
+                .column("b", DataType.INTEGER)
+                .build();
+        Charset utf8 = Charset.forName("UTF-8");
+        ColumnarTable.Builder builder = new ColumnarTable.Builder(schema);
+        for (int i = 1; i <= 2; i ++) {
+            List<byte[]> values = Lists.newArrayList();
+            values.add(Integer.toString(i).getBytes(utf8));
+            values.add(("a" + i).getBytes(utf8));
+            values.add(Integer.toString(i * 10).getBytes(utf8));
+            builder.add(i, values);
+        }
+        ColumnarTable table = builder.build();
+        Tuple left = table.get(0);
+        Tuple right = table.get(1);
+
+        Violation violation = new Violation("rule");
+        violation.addTuple(left);
+        violation.addTuple(right);
+        Assert.assertEquals(
+            Sets.union(left.getCells(), right.getCells()),
+            Sets.newHashSet(violation.getCells())
+        );
+        Assert.assertEquals(4, violation.getCells().size());
+        Assert.assertNotNull(violation.getCell("violation", "b"));
+        Assert.assertNull(violation.getCell("violation", "tid"));
+
+        violation.addCell(new Cell(new Column("violation", "c"), 3, "c"));
+        violation.addTuple(left);
+        Assert.assertEquals(5, violation.getCells().size());
+    }
+}
@@ -62,7 +62,8 @@ public class CFDRuleBuilderTest {
                 .value(value)
                 .build();
 
-            Assert.assertEquals(8, rules.size());
+            // the whole tableau is compiled into one rule.
+            Assert.assertEquals(1, rules.size());
 
             Assert.assertEquals(5, ruleBuilder.getLhs().size());
             Assert.assertEquals(4, ruleBuilder.getRhs().size());
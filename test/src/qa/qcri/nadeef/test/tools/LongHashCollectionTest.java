@@ -0,0 +1,85 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.test.tools;
+
+import org.junit.Assert;
+import org.junit.Test;
+import qa.qcri.nadeef.tools.collection.LongHashSet;
+import qa.qcri.nadeef.tools.collection.LongIntHashMap;
+import qa.qcri.nadeef.tools.collection.LongObjectHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Primitive long keyed collection test.
+ */
+public class LongHashCollectionTest {
+    @Test
+    public void testLongObjectHashMap() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        HashMap<Long, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i ++) {
+            // keys in a small range to get collisions and removals.
+            long key = ((long)random.nextInt(64) << 32) | random.nextInt(512);
+            if (random.nextInt(4) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = Integer.toString(i);
+                Assert.assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, String> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Assert.assertEquals(expected.size(), map.keys().length);
+        Assert.assertEquals(expected.size(), map.values().size());
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    public void testLongIntHashMapAndSet() {
+        LongIntHashMap map = new LongIntHashMap();
+        LongHashSet set = new LongHashSet();
+        for (int i = 0; i < 10000; i ++) {
+            long key = (long)i << 32 | i;
+            Assert.assertEquals(i, map.putIfAbsent(key, i));
+            Assert.assertEquals(i, map.putIfAbsent(key, -1));
+            Assert.assertTrue(set.add(key));
+            Assert.assertFalse(set.add(key));
+        }
+
+        for (int i = 0; i < 10000; i += 2) {
+            long key = (long)i << 32 | i;
+            Assert.assertTrue(map.remove(key));
+            Assert.assertTrue(set.remove(key));
+        }
+
+        for (int i = 0; i < 10000; i ++) {
+            long key = (long)i << 32 | i;
+            Assert.assertEquals(i % 2 == 0 ? -1 : i, map.get(key, -1));
+            Assert.assertEquals(i % 2 != 0, set.contains(key));
+        }
+        Assert.assertEquals(5000, map.size());
+        Assert.assertEquals(5000, set.size());
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.tools.collection;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Common hashing code for the open addressing, long keyed hash tables. Collisions are
+ * resolved by linear probing, and removal shifts the following entries back so that no
+ * tombstone is needed.
+ */
+abstract class LongHashBase {
+    private static final float LOAD_FACTOR = 0.6f;
+
+    protected long[] keys;
+    protected boolean[] used;
+    protected int mask;
+    protected int size;
+    private int threshold;
+
+    protected LongHashBase(int expectedSize) {
+        Preconditions.checkArgument(expectedSize >= 0);
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the number of entries.
+     * @return number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <code>True</code> when there is no entry.
+     * @return <code>True</code> when there is no entry.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        clearValues();
+        size = 0;
+    }
+
+    /**
+     * Gets all the keys.
+     * @return a copy of all the keys.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        for (int i = 0, j = 0; i < keys.length; i ++) {
+            if (used[i]) {
+                result[j ++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the slot of a key.
+     * @return slot index, or -1 when the key does not exist.
+     */
+    protected int find(long key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the slot of a key, or claims a free slot for the key.
+     * @return slot index, negative as <code>-(slot + 1)</code> when the slot is new.
+     */
+    protected int insert(long key) {
+        if (size >= threshold) {
+            rehash(keys.length << 1);
+        }
+
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        size ++;
+        return -(slot + 1);
+    }
+
+    /**
+     * Removes the entry at a slot and shifts the following entries back.
+     */
+    protected void removeAt(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (used[next]) {
+            int ideal = hash(keys[next]) & mask;
+            // move the entry when its ideal slot is not between the hole and itself.
+            boolean move =
+                hole <= next ? (ideal <= hole || ideal > next) : (ideal <= hole && ideal > next);
+            if (move) {
+                keys[hole] = keys[next];
+                moveValue(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+        clearValue(hole);
+        size --;
+    }
+
+    /**
+     * Allocates the value storage for a new capacity.
+     */
+    protected abstract void allocateValues(int capacity);
+
+    /**
+     * Copies the value from a slot of the old storage into a slot of the current storage.
+     */
+    protected abstract void copyValue(Object oldValues, int from, int to);
+
+    /**
+     * Gets the value storage.
+     */
+    protected abstract Object getValues();
+
+    protected void moveValue(int from, int to) {}
+
+    protected void clearValue(int slot) {}
+
+    protected void clearValues() {}
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        threshold = (int)(capacity * LOAD_FACTOR);
+        allocateValues(capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        Object oldValues = getValues();
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i ++) {
+            if (oldUsed[i]) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                copyValue(oldValues, i, slot);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // MurmurHash3 64-bit finalizer.
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int)key;
+    }
+}
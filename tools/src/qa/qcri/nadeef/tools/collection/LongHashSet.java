@@ -0,0 +1,78 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.tools.collection;
+
+/**
+ * Open addressing hash set of primitive <code>long</code> values.
+ */
+public class LongHashSet extends LongHashBase {
+    /**
+     * Constructor.
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Constructor.
+     * @param expectedSize expected number of values.
+     */
+    public LongHashSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * Adds a value.
+     * @param value value.
+     * @return <code>True</code> when the value was not in the set.
+     */
+    public boolean add(long value) {
+        return insert(value) < 0;
+    }
+
+    /**
+     * Returns <code>True</code> when the set contains the value.
+     * @param value value.
+     * @return <code>True</code> when the set contains the value.
+     */
+    public boolean contains(long value) {
+        return find(value) >= 0;
+    }
+
+    /**
+     * Removes a value.
+     * @param value value.
+     * @return <code>True</code> when the value was in the set.
+     */
+    public boolean remove(long value) {
+        int slot = find(value);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    @Override
+    protected void allocateValues(int capacity) {}
+
+    @Override
+    protected void copyValue(Object oldValues, int from, int to) {}
+
+    @Override
+    protected Object getValues() {
+        return null;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.tools.collection;
+
+/**
+ * Open addressing hash map from primitive <code>long</code> keys to primitive
+ * <code>int</code> values.
+ */
+public class LongIntHashMap extends LongHashBase {
+    private int[] values;
+
+    /**
+     * Constructor.
+     */
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructor.
+     * @param expectedSize expected number of entries.
+     */
+    public LongIntHashMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * Gets the value of a key.
+     * @param key key.
+     * @param defaultValue value returned when the key does not exist.
+     * @return value.
+     */
+    public int get(long key, int defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Returns <code>True</code> when the map contains the key.
+     * @param key key.
+     * @return <code>True</code> when the map contains the key.
+     */
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Puts a value.
+     * @param key key.
+     * @param value value.
+     */
+    public void put(long key, int value) {
+        int slot = insert(key);
+        values[slot < 0 ? -(slot + 1) : slot] = value;
+    }
+
+    /**
+     * Gets the value of a key, puts the given value when the key does not exist.
+     * @param key key.
+     * @param value value for a new key.
+     * @return the existing value, or the given value when the key is new.
+     */
+    public int putIfAbsent(long key, int value) {
+        int slot = insert(key);
+        if (slot >= 0) {
+            return values[slot];
+        }
+        values[-(slot + 1)] = value;
+        return value;
+    }
+
+    /**
+     * Removes a key.
+     * @param key key.
+     * @return <code>True</code> when the key existed.
+     */
+    public boolean remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    @Override
+    protected void allocateValues(int capacity) {
+        values = new int[capacity];
+    }
+
+    @Override
+    protected void copyValue(Object oldValues, int from, int to) {
+        values[to] = ((int[])oldValues)[from];
+    }
+
+    @Override
+    protected Object getValues() {
+        return values;
+    }
+
+    @Override
+    protected void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+}
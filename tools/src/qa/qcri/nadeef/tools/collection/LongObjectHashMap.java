@@ -0,0 +1,146 @@
+/*
+ * QCRI, NADEEF LICENSE
+ * NADEEF is an extensible, generalized and easy-to-deploy data cleaning platform built at QCRI.
+ * NADEEF means "Clean" in Arabic
+ *
+ * Copyright (c) 2011-2013, Qatar Foundation for Education, Science and Community Development (on
+ * behalf of Qatar Computing Research Institute) having its principle place of business in Doha,
+ * Qatar with the registered address P.O box 5825 Doha, Qatar (hereinafter referred to as "QCRI")
+ *
+ * NADEEF has patent pending nevertheless the following is granted.
+ * NADEEF is released under the terms of the MIT License, (http://opensource.org/licenses/MIT).
+ */
+
+
+package qa.qcri.nadeef.tools.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open addressing hash map from primitive <code>long</code> keys to objects.
+ * <code>null</code> values are not allowed.
+ */
+public class LongObjectHashMap<V> extends LongHashBase {
+    private Object[] values;
+
+    /**
+     * Constructor.
+     */
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructor.
+     * @param expectedSize expected number of entries.
+     */
+    public LongObjectHashMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * Gets the value of a key.
+     * @param key key.
+     * @return value, or <code>null</code> when the key does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V)values[slot];
+    }
+
+    /**
+     * Returns <code>True</code> when the map contains the key.
+     * @param key key.
+     * @return <code>True</code> when the map contains the key.
+     */
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Puts a value.
+     * @param key key.
+     * @param value value.
+     * @return the previous value, or <code>null</code>.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null.");
+        }
+
+        int slot = insert(key);
+        V result = null;
+        if (slot < 0) {
+            slot = -(slot + 1);
+        } else {
+            result = (V)values[slot];
+        }
+        values[slot] = value;
+        return result;
+    }
+
+    /**
+     * Removes a key.
+     * @param key key.
+     * @return the removed value, or <code>null</code>.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V result = (V)values[slot];
+        removeAt(slot);
+        return result;
+    }
+
+    /**
+     * Gets all the values.
+     * @return a list of all the values.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (int i = 0; i < values.length; i ++) {
+            if (used[i]) {
+                result.add((V)values[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected void allocateValues(int capacity) {
+        values = new Object[capacity];
+    }
+
+    @Override
+    protected void copyValue(Object oldValues, int from, int to) {
+        values[to] = ((Object[])oldValues)[from];
+    }
+
+    @Override
+    protected Object getValues() {
+        return values;
+    }
+
+    @Override
+    protected void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    protected void clearValue(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    protected void clearValues() {
+        Arrays.fill(values, null);
+    }
+}